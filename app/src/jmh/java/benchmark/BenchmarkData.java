@@ -0,0 +1,101 @@
+package benchmark;
+
+import windowing.Dataset;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Scanner;
+
+/**
+ * The BenchmarkData class reads a segments file bundled in the resources the same way Dataset.parse reads a segments
+ * file, but keeps the segments in the order of the file, so that the benchmarks can measure each loading step alone.
+ */
+final class BenchmarkData {
+    private final Double[] maxBounds;
+    private final ArrayList<Double[]> vSegments = new ArrayList<>();
+    private final ArrayList<Double[]> hSegments = new ArrayList<>();
+
+    /**
+     * Reads the given segments file from the resources.
+     *
+     * @param name the name of the segments file in the resources
+     * @throws IOException if the file is not found or contains a segment that is neither horizontal nor vertical
+     */
+    BenchmarkData(String name) throws IOException {
+        InputStream stream = BenchmarkData.class.getResourceAsStream("/" + name);
+        if (stream == null) {
+            throw new IOException("Resource not found: " + name);
+        }
+        try (Scanner input = new Scanner(stream)) {
+            double min_x = Float.parseFloat(input.next());
+            double max_x = Float.parseFloat(input.next());
+            double min_y = Float.parseFloat(input.next());
+            double max_y = Float.parseFloat(input.next());
+            maxBounds = new Double[]{min_y, max_y, min_x, max_x};
+            while (input.hasNext()) {
+                double x1 = Float.parseFloat(input.next());
+                double y1 = Float.parseFloat(input.next());
+                double x2 = Float.parseFloat(input.next());
+                double y2 = Float.parseFloat(input.next());
+                if (x1 == x2) {
+                    vSegments.add(y1 < y2 ? new Double[]{y1, x1, y2, x2} : new Double[]{y2, x2, y1, x1});
+                } else if (y1 == y2) {
+                    hSegments.add(x1 < x2 ? new Double[]{x1, y1, x2, y2} : new Double[]{x2, y2, x1, y1});
+                } else {
+                    throw new IOException("Not a segment");
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the window size of the file.
+     *
+     * @return bounding box array consisting of bottom, top, left and right bounds
+     */
+    Double[] getMaxBounds() {
+        return maxBounds;
+    }
+
+    /**
+     * Returns the normalized vertical segments, in the order of the file.
+     *
+     * @return the vertical segments
+     */
+    ArrayList<Double[]> getVSegments() {
+        return vSegments;
+    }
+
+    /**
+     * Returns the normalized horizontal segments, in the order of the file.
+     *
+     * @return the horizontal segments
+     */
+    ArrayList<Double[]> getHSegments() {
+        return hSegments;
+    }
+
+    /**
+     * Loads the given segments file from the resources as a dataset, through a temporary copy on disk.
+     *
+     * @param name the name of the segments file in the resources
+     * @return the dataset
+     * @throws IOException if the file is not found or cannot be parsed
+     */
+    static Dataset readDataset(String name) throws IOException {
+        File file = File.createTempFile("benchmark", ".txt");
+        try (InputStream stream = BenchmarkData.class.getResourceAsStream("/" + name)) {
+            if (stream == null) {
+                throw new IOException("Resource not found: " + name);
+            }
+            Files.copy(stream, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return Dataset.parse(file);
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import tools.SegmentsList;
+import tools.Sort;
+import tree.PrioritySearchTree;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the steps of loading a segments file once it is sorted: creating the segments list of the sorted segments,
+ * and building the priority search tree, for each of the bundled segments files. Only the horizontal segments are
+ * used, the vertical ones going through the same steps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BuildBenchmark {
+    @Param({"1000.txt", "5000.txt", "10000.txt", "20000.txt", "30000.txt", "40000.txt", "50000.txt", "100000.txt"})
+    public String file;
+
+    private ArrayList<Double[]> sortedSegments;
+
+    /**
+     * Reads the segments file and sorts its segments.
+     *
+     * @throws IOException if the segments file cannot be read
+     */
+    @Setup(Level.Trial)
+    public void read() throws IOException {
+        sortedSegments = new BenchmarkData(file).getHSegments();
+        new Sort().sort(sortedSegments);
+    }
+
+    @Benchmark
+    public SegmentsList segmentsList() {
+        return new SegmentsList(sortedSegments);
+    }
+
+    @Benchmark
+    public PrioritySearchTree prioritySearchTree() {
+        return new PrioritySearchTree(sortedSegments);
+    }
+
+    @Benchmark
+    public PrioritySearchTree prioritySearchTreeFromList() {
+        return new PrioritySearchTree(new SegmentsList(sortedSegments));
+    }
+}
@@ -0,0 +1,86 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import tools.Sort;
+import tree.PrioritySearchTree;
+import windowing.TiledDataset;
+import windowing.WindowingAlgorithm;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the windowing algorithm on each of the bundled segments files, for windows of increasing selectivity. The
+ * selectivity is the side of the window relative to the side of the window size, so that 1 is the full window. Each
+ * invocation queries the next window of a fixed set of windows placed at random, so that a single window does not
+ * decide the result. The same windows are also queried on the dataset split into TILES x TILES tiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueryBenchmark {
+    private static final int WINDOWS_NUMBER = 64;
+    private static final int TILES = 4;
+
+    @Param({"1000.txt", "5000.txt", "10000.txt", "20000.txt", "30000.txt", "40000.txt", "50000.txt", "100000.txt"})
+    public String file;
+
+    @Param({"0.001", "0.01", "0.1", "0.5", "1"})
+    public double selectivity;
+
+    private PrioritySearchTree vTree, hTree;
+    private TiledDataset tiledDataset;
+    private Double[] maxBounds;
+    private Double[][] windows;
+    private int window;
+
+    /**
+     * Reads the segments file, builds both priority search trees and the tiled dataset, and places the windows.
+     *
+     * @throws IOException if the segments file cannot be read
+     */
+    @Setup(Level.Trial)
+    public void build() throws IOException {
+        BenchmarkData data = new BenchmarkData(file);
+        ArrayList<Double[]> vSegments = data.getVSegments();
+        ArrayList<Double[]> hSegments = data.getHSegments();
+        Sort sort = new Sort();
+        sort.sort(vSegments);
+        sort.sort(hSegments);
+        vTree = new PrioritySearchTree(vSegments);
+        hTree = new PrioritySearchTree(hSegments);
+        tiledDataset = TiledDataset.build(BenchmarkData.readDataset(file), TILES, TILES);
+        maxBounds = data.getMaxBounds();
+        double height = (maxBounds[1] - maxBounds[0]) * selectivity;
+        double width = (maxBounds[3] - maxBounds[2]) * selectivity;
+        Random random = new Random(42);
+        windows = new Double[WINDOWS_NUMBER][];
+        for (int i = 0; i < WINDOWS_NUMBER; i++) {
+            double bottom = maxBounds[0] + random.nextDouble() * (maxBounds[1] - maxBounds[0] - height);
+            double left = maxBounds[2] + random.nextDouble() * (maxBounds[3] - maxBounds[2] - width);
+            windows[i] = new Double[]{bottom, bottom + height, left, left + width};
+        }
+    }
+
+    @Benchmark
+    public ArrayList<Double[]> launchWindowing() {
+        window = (window + 1) % WINDOWS_NUMBER;
+        return new WindowingAlgorithm().launchWindowing(vTree, hTree, windows[window], maxBounds);
+    }
+
+    @Benchmark
+    public ArrayList<Double[]> launchTiledWindowing() {
+        window = (window + 1) % WINDOWS_NUMBER;
+        return tiledDataset.launchWindowing(windows[window]);
+    }
+}
@@ -0,0 +1,55 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import tools.Sort;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the sorting of the segments of each of the bundled segments files, in the order of the file. Only the
+ * horizontal segments are used, the vertical ones being sorted the same way.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SortBenchmark {
+    @Param({"1000.txt", "5000.txt", "10000.txt", "20000.txt", "30000.txt", "40000.txt", "50000.txt", "100000.txt"})
+    public String file;
+
+    private ArrayList<Double[]> segments;
+    private ArrayList<Double[]> unsortedSegments;
+
+    /**
+     * Reads the segments file.
+     *
+     * @throws IOException if the segments file cannot be read
+     */
+    @Setup(Level.Trial)
+    public void read() throws IOException {
+        segments = new BenchmarkData(file).getHSegments();
+    }
+
+    /**
+     * Restores the order of the file before each sort, since the sort works in place.
+     */
+    @Setup(Level.Invocation)
+    public void restoreOrder() {
+        unsortedSegments = new ArrayList<>(segments);
+    }
+
+    @Benchmark
+    public ArrayList<Double[]> sort() {
+        new Sort().sort(unsortedSegments);
+        return unsortedSegments;
+    }
+}
@@ -13,12 +13,13 @@ import java.util.Objects;
 public class TestApp extends Application {
 
     /**
-     * The main method of the application.
+     * The main method of the application. With --write-index, an index file is written next to each segments file
+     * read, so that reading it again skips the parsing.
      *
      * @param args the command line arguments
      */
     public static void main(String[] args) {
-        launch();
+        launch(args);
     }
     /**
      * Initializes the GUI and Windowing classes.
@@ -32,6 +33,7 @@ public class TestApp extends Application {
         Parent root = loader.load();
         Gui gui = loader.getController();
         Windowing.init(gui);
+        Windowing.getInstance().setWriteIndex(getParameters().getRaw().contains("--write-index"));
         gui.init(primaryStage, root);
     }
 }
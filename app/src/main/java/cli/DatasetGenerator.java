@@ -0,0 +1,318 @@
+package cli;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * The DatasetGenerator class writes synthetic segments files, in the format of the bundled ones, for measuring the
+ * loading and the windowing at sizes the bundled files do not reach. The segments are written as they are generated,
+ * so that the size of a file is only limited by the disk.
+ * <p>
+ * The segments have integer coordinates within the window size, and are generated from a seed, so that the same
+ * arguments always write the same file. Their positions follow one of the distributions:
+ * <ul>
+ * <li>uniform: anywhere within the window size</li>
+ * <li>clustered: around a number of centers placed uniformly, like the dense areas of a map</li>
+ * <li>grid: on the lines of a regular grid and between its crossings, like the streets of a city</li>
+ * </ul>
+ * Their lengths are drawn uniformly between a minimum and a maximum length, or exponentially from the minimum length,
+ * with a mean an eighth of the way to the maximum length, so that most segments are short and a few are long.
+ */
+public final class DatasetGenerator {
+    private static final String USAGE = "Usage: DatasetGenerator <output file> <segments number> "
+            + "[--bounds <min_x> <max_x> <min_y> <max_y>] [--distribution uniform|clustered|grid] "
+            + "[--clusters <number>] [--grid-step <step>] [--length <min> <max>] "
+            + "[--length-distribution uniform|exponential] [--vertical-ratio <ratio>] [--seed <seed>]";
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The spatial distributions of the segments.
+     */
+    public enum Distribution {
+        UNIFORM, CLUSTERED, GRID
+    }
+
+    /**
+     * The distributions of the lengths of the segments.
+     */
+    public enum LengthDistribution {
+        UNIFORM, EXPONENTIAL
+    }
+
+    private final long segmentsNumber;
+    private final long min_x, max_x, min_y, max_y;
+    private final Distribution distribution;
+    private final int clustersNumber;
+    private final long gridStep;
+    private final long minLength, maxLength;
+    private final LengthDistribution lengthDistribution;
+    private final double verticalRatio;
+    private final long seed;
+
+    /**
+     * Constructs a new DatasetGenerator object.
+     *
+     * @param segmentsNumber     the number of segments to generate
+     * @param bounds             the window size, as its minimum x, maximum x, minimum y and maximum y coordinates, each
+     *                           one rounded towards the inside to an integer
+     * @param distribution       the spatial distribution of the segments
+     * @param clustersNumber     the number of centers of the clustered distribution
+     * @param gridStep           the distance between two lines of the grid distribution
+     * @param minLength          the minimum length of the segments
+     * @param maxLength          the maximum length of the segments, reduced to the window size if larger
+     * @param lengthDistribution the distribution of the lengths of the segments
+     * @param verticalRatio      the expected proportion of vertical segments, between 0 and 1
+     * @param seed               the seed of the generated segments
+     * @throws IllegalArgumentException if a parameter is out of its range, or if the window size is smaller than 1
+     */
+    public DatasetGenerator(long segmentsNumber, double[] bounds, Distribution distribution, int clustersNumber,
+                            long gridStep, long minLength, long maxLength, LengthDistribution lengthDistribution,
+                            double verticalRatio, long seed) {
+        this.min_x = (long) Math.ceil(bounds[0]);
+        this.max_x = (long) Math.floor(bounds[1]);
+        this.min_y = (long) Math.ceil(bounds[2]);
+        this.max_y = (long) Math.floor(bounds[3]);
+        if (segmentsNumber < 0 || max_x - min_x < 1 || max_y - min_y < 1 || clustersNumber < 1 || gridStep < 1
+                || minLength < 1 || maxLength < minLength || !(verticalRatio >= 0 && verticalRatio <= 1)) {
+            throw new IllegalArgumentException("Invalid generator parameters");
+        }
+        this.segmentsNumber = segmentsNumber;
+        this.distribution = distribution;
+        this.clustersNumber = clustersNumber;
+        this.gridStep = gridStep;
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.lengthDistribution = lengthDistribution;
+        this.verticalRatio = verticalRatio;
+        this.seed = seed;
+    }
+
+    /**
+     * The main method of the generator application.
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        System.exit(run(args, System.err));
+    }
+
+    /**
+     * Runs the generator application.
+     *
+     * @param args the command line arguments
+     * @param err  the stream the timings and errors are written to
+     * @return the exit status: 0 on success, 1 on error, 2 on invalid arguments
+     */
+    static int run(String[] args, PrintStream err) {
+        if (args.length < 2) {
+            err.println(USAGE);
+            return 2;
+        }
+        DatasetGenerator generator;
+        try {
+            long segmentsNumber = Long.parseLong(args[1]);
+            double[] bounds = new double[]{-1000, 1000, -1000, 1000};
+            Distribution distribution = Distribution.UNIFORM;
+            int clustersNumber = 16;
+            long gridStep = -1;
+            long minLength = 1;
+            long maxLength = -1;
+            LengthDistribution lengthDistribution = LengthDistribution.UNIFORM;
+            double verticalRatio = 0.5;
+            long seed = 1;
+            for (int i = 2; i < args.length; i++) {
+                String option = args[i];
+                if (option.equals("--bounds") && i + 4 < args.length) {
+                    for (int j = 0; j < 4; j++) {
+                        bounds[j] = Double.parseDouble(args[++i]);
+                    }
+                } else if (option.equals("--distribution") && i + 1 < args.length) {
+                    distribution = Distribution.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                } else if (option.equals("--clusters") && i + 1 < args.length) {
+                    clustersNumber = Integer.parseInt(args[++i]);
+                } else if (option.equals("--grid-step") && i + 1 < args.length) {
+                    gridStep = Long.parseLong(args[++i]);
+                } else if (option.equals("--length") && i + 2 < args.length) {
+                    minLength = Long.parseLong(args[++i]);
+                    maxLength = Long.parseLong(args[++i]);
+                } else if (option.equals("--length-distribution") && i + 1 < args.length) {
+                    lengthDistribution = LengthDistribution.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                } else if (option.equals("--vertical-ratio") && i + 1 < args.length) {
+                    verticalRatio = Double.parseDouble(args[++i]);
+                } else if (option.equals("--seed") && i + 1 < args.length) {
+                    seed = Long.parseLong(args[++i]);
+                } else {
+                    err.println(USAGE);
+                    return 2;
+                }
+            }
+            double size = Math.min(bounds[1] - bounds[0], bounds[3] - bounds[2]);
+            if (gridStep == -1) {
+                gridStep = Math.max(1, (long) (size / 100));
+            }
+            if (maxLength == -1) {
+                maxLength = Math.max(minLength, (long) (size / 10));
+            }
+            generator = new DatasetGenerator(segmentsNumber, bounds, distribution, clustersNumber, gridStep, minLength,
+                    maxLength, lengthDistribution, verticalRatio, seed);
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return 2;
+        }
+        long start = System.nanoTime();
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(args[0]),
+                StandardCharsets.US_ASCII), BUFFER_SIZE)) {
+            generator.write(writer);
+        } catch (IOException e) {
+            err.println(e.getMessage());
+            return 1;
+        }
+        err.println("Time to generate " + generator.segmentsNumber + " segments: "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return 0;
+    }
+
+    /**
+     * Writes the window size followed by the generated segments, one per line.
+     *
+     * @param writer the writer the segments file is written to
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(Writer writer) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[][] centers = new long[clustersNumber][];
+        for (int i = 0; i < clustersNumber; i++) {
+            centers[i] = new long[]{uniform(random, min_x, max_x), uniform(random, min_y, max_y)};
+        }
+        StringBuilder lines = new StringBuilder(BUFFER_SIZE + 128);
+        appendCoordinate(lines, min_x).append(' ');
+        appendCoordinate(lines, max_x).append(' ');
+        appendCoordinate(lines, min_y).append(' ');
+        appendCoordinate(lines, max_y).append('\n');
+        long[] segment = new long[4];
+        for (long i = 0; i < segmentsNumber; i++) {
+            boolean isVertical = random.nextDouble() < verticalRatio;
+            if (isVertical) {
+                generate(random, centers, min_y, max_y, min_x, max_x, 1, 0, segment);
+            } else {
+                generate(random, centers, min_x, max_x, min_y, max_y, 0, 1, segment);
+            }
+            appendCoordinate(lines, isVertical ? segment[1] : segment[0]).append(' ');
+            appendCoordinate(lines, isVertical ? segment[0] : segment[1]).append(' ');
+            appendCoordinate(lines, isVertical ? segment[3] : segment[2]).append(' ');
+            appendCoordinate(lines, isVertical ? segment[2] : segment[3]).append('\n');
+            if (lines.length() >= BUFFER_SIZE) {
+                writer.append(lines);
+                lines.setLength(0);
+            }
+        }
+        writer.append(lines);
+    }
+
+    /**
+     * Generates a segment along an axis, as the start and end coordinates along the axis and the coordinate across it.
+     *
+     * @param random    the random generator
+     * @param centers   the centers of the clustered distribution, as their x and y coordinates
+     * @param alongMin  the minimum coordinate along the axis
+     * @param alongMax  the maximum coordinate along the axis
+     * @param acrossMin the minimum coordinate across the axis
+     * @param acrossMax the maximum coordinate across the axis
+     * @param along     the index of the coordinate along the axis in the centers
+     * @param across    the index of the coordinate across the axis in the centers
+     * @param segment   the array receiving the start, across, end and across coordinates of the segment
+     */
+    private void generate(SplittableRandom random, long[][] centers, long alongMin, long alongMax, long acrossMin,
+                          long acrossMax, int along, int across, long[] segment) {
+        long length = Math.min(getLength(random), alongMax - alongMin);
+        long start, position;
+        if (distribution == Distribution.GRID) {
+            long step = Math.min(gridStep, alongMax - alongMin);
+            length = Math.min((length + step - 1) / step * step, (alongMax - alongMin) / step * step);
+            start = alongMin + step * uniform(random, 0, (alongMax - alongMin - length) / step);
+            position = acrossMin + Math.min(gridStep, acrossMax - acrossMin)
+                    * uniform(random, 0, (acrossMax - acrossMin) / Math.min(gridStep, acrossMax - acrossMin));
+        } else if (distribution == Distribution.CLUSTERED) {
+            long[] center = centers[random.nextInt(clustersNumber)];
+            double spread = 4 * Math.sqrt(clustersNumber);
+            start = clamp(Math.round(center[along] - length / 2.0
+                    + gaussian(random) * (alongMax - alongMin) / spread), alongMin, alongMax - length);
+            position = clamp(Math.round(center[across] + gaussian(random) * (acrossMax - acrossMin) / spread),
+                    acrossMin, acrossMax);
+        } else {
+            start = uniform(random, alongMin, alongMax - length);
+            position = uniform(random, acrossMin, acrossMax);
+        }
+        segment[0] = start;
+        segment[1] = position;
+        segment[2] = start + length;
+        segment[3] = position;
+    }
+
+    /**
+     * Draws the length of a segment.
+     *
+     * @param random the random generator
+     * @return the length of the segment, between the minimum and the maximum length
+     */
+    private long getLength(SplittableRandom random) {
+        if (lengthDistribution == LengthDistribution.EXPONENTIAL) {
+            double mean = (maxLength - minLength) / 8.0;
+            return Math.min(maxLength, minLength + Math.round(-Math.log(1 - random.nextDouble()) * mean));
+        }
+        return uniform(random, minLength, maxLength);
+    }
+
+    /**
+     * Draws an integer uniformly within the given range.
+     *
+     * @param random the random generator
+     * @param min    the minimum value, included
+     * @param max    the maximum value, included
+     * @return the drawn integer
+     */
+    private static long uniform(SplittableRandom random, long min, long max) {
+        return min + random.nextLong(max - min + 1);
+    }
+
+    /**
+     * Draws a number from the standard normal distribution, with the Box-Muller transform.
+     *
+     * @param random the random generator
+     * @return the drawn number
+     */
+    private static double gaussian(SplittableRandom random) {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    /**
+     * Restricts a value to the given range.
+     *
+     * @param value the value
+     * @param min   the minimum value
+     * @param max   the maximum value
+     * @return the value if it is within the range, or else the nearest bound of the range
+     */
+    private static long clamp(long value, long min, long max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * Appends an integer coordinate the way the bundled segments files write their coordinates.
+     *
+     * @param lines      the lines being written
+     * @param coordinate the coordinate
+     * @return the lines being written
+     */
+    private static StringBuilder appendCoordinate(StringBuilder lines, long coordinate) {
+        return lines.append(coordinate).append(".0");
+    }
+}
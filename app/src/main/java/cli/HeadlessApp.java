@@ -0,0 +1,238 @@
+package cli;
+
+import metrics.WindowingMetrics;
+import tree.PagedPrioritySearchTree;
+import windowing.BatchResult;
+import windowing.Dataset;
+import windowing.IndexFile;
+import windowing.PagedIndexFile;
+import windowing.TiledDataset;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * The HeadlessApp class is the command line entry point of the application, for running windowing without any display.
+ * It loads a dataset, answers each window of a windows file, and writes the segments or the number of segments of each
+ * window, along with the time spent loading the dataset and answering the windows. The segments of the windows are
+ * searched by batches of windows. No JavaFX class is ever loaded.
+ * <p>
+ * The windows file holds one window per line, as its minimum x, maximum x, minimum y and maximum y coordinates, in
+ * the order of the first line of a segments file. Empty lines and lines starting with '#' are skipped.
+ * For each window, the output holds a line with the number of segments, followed, unless only counting, by one line
+ * per segment with its x1, y1, x2 and y2 coordinates. Timings are written to the standard error.
+ */
+public final class HeadlessApp {
+    private static final String USAGE = "Usage: HeadlessApp <segments file> <windows file> [--count] "
+            + "[--output <file>] [--write-index] [--write-paged-index] [--off-heap] [--cache-mb <megabytes>] "
+            + "[--tiles <columns> <rows>]";
+    /**
+     * The number of windows whose segments are searched together.
+     */
+    private static final int BATCH_SIZE = 1024;
+
+    private HeadlessApp() {
+    }
+
+    /**
+     * The main method of the command line application.
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Runs the command line application.
+     *
+     * @param args the command line arguments
+     * @param out  the stream the results are written to when no output file is given
+     * @param err  the stream the timings and errors are written to
+     * @return the exit status: 0 on success, 1 on error, 2 on invalid arguments
+     */
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        File segmentsFile = null, windowsFile = null, outputFile = null;
+        boolean isCounting = false, isWritingIndex = false, isWritingPagedIndex = false, isOffHeap = false;
+        long cacheBytes = PagedIndexFile.DEFAULT_CACHE_BYTES;
+        int columns = 0, rows = 0;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--count")) {
+                isCounting = true;
+            } else if (args[i].equals("--write-index")) {
+                isWritingIndex = true;
+            } else if (args[i].equals("--write-paged-index")) {
+                isWritingPagedIndex = true;
+            } else if (args[i].equals("--off-heap")) {
+                isOffHeap = true;
+            } else if (args[i].equals("--cache-mb") && i + 1 < args.length) {
+                try {
+                    cacheBytes = Long.parseLong(args[++i]) << 20;
+                } catch (NumberFormatException e) {
+                    err.println(USAGE);
+                    return 2;
+                }
+            } else if (args[i].equals("--tiles") && i + 2 < args.length) {
+                try {
+                    columns = Integer.parseInt(args[++i]);
+                    rows = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    err.println(USAGE);
+                    return 2;
+                }
+            } else if (args[i].equals("--output") && i + 1 < args.length) {
+                outputFile = new File(args[++i]);
+            } else if (segmentsFile == null && !args[i].startsWith("--")) {
+                segmentsFile = new File(args[i]);
+            } else if (windowsFile == null && !args[i].startsWith("--")) {
+                windowsFile = new File(args[i]);
+            } else {
+                err.println(USAGE);
+                return 2;
+            }
+        }
+        if (windowsFile == null) {
+            err.println(USAGE);
+            return 2;
+        }
+        long start = System.nanoTime();
+        try (Dataset dataset = PagedIndexFile.isPagedIndexFile(segmentsFile)
+                ? Dataset.openPaged(segmentsFile, cacheBytes) : Dataset.read(segmentsFile, isOffHeap)) {
+            long loaded = System.nanoTime();
+            err.println("Time to load the dataset (" + dataset.getSegmentsNumber() + " segments): "
+                    + (loaded - start) / 1_000_000 + " ms | read: " + dataset.getReadTime() + " ms | sort: "
+                    + dataset.getSortTime() + " ms | build: " + dataset.getBuildTime() + " ms");
+            if (isWritingIndex && !dataset.isIndexed()) {
+                dataset.writeIndex(new File(segmentsFile.getPath() + IndexFile.EXTENSION));
+            }
+            if (isWritingPagedIndex && !dataset.isPaged()) {
+                dataset.writePagedIndex(new File(segmentsFile.getPath() + PagedIndexFile.EXTENSION),
+                        PagedPrioritySearchTree.DEFAULT_LEVELS_PER_PAGE);
+            }
+            ToLongFunction<Double[]> counter = dataset::countWindow;
+            Function<Double[][], BatchResult> windowing = dataset::launchBatchWindowing;
+            if (columns != 0 || rows != 0) {
+                long tiling = System.nanoTime();
+                TiledDataset tiledDataset = TiledDataset.build(dataset, columns, rows);
+                err.println("Time to split the dataset into " + columns + " x " + rows + " tiles: "
+                        + (System.nanoTime() - tiling) / 1_000_000 + " ms");
+                counter = tiledDataset::countWindow;
+                windowing = tiledDataset::launchBatchWindowing;
+            }
+            List<Double[]> windows = readWindows(windowsFile, dataset);
+            try (OutputStream stream = outputFile != null ? new FileOutputStream(outputFile) : null) {
+                PrintStream output = new PrintStream(new BufferedOutputStream(stream != null ? stream : out,
+                        1 << 16), false, StandardCharsets.UTF_8.name());
+                long pageReads = WindowingMetrics.getInstance().getPageReads();
+                long queried = System.nanoTime();
+                long segmentsNumber = answerWindows(counter, windowing, windows, isCounting, output);
+                output.flush();
+                long end = System.nanoTime();
+                if (output.checkError()) {
+                    throw new IOException("Error while writing the results");
+                }
+                err.println("Time to answer " + windows.size() + " windows (" + segmentsNumber + " segments): "
+                        + (end - queried) / 1_000_000 + " ms | per window: "
+                        + (windows.isEmpty() ? 0 : (end - queried) / 1_000 / windows.size()) + " us"
+                        + (dataset.isPaged() ? " | page reads per window: " + (windows.isEmpty() ? 0
+                        : (WindowingMetrics.getInstance().getPageReads() - pageReads) / (double) windows.size())
+                        : ""));
+            }
+            return 0;
+        } catch (IOException | IllegalArgumentException e) {
+            err.println(e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Answers the given windows on the dataset, or on its tiles, and writes their results. Unless only counting, the
+     * segments are searched by batches of BATCH_SIZE windows.
+     *
+     * @param counter    the function counting the segments within a window
+     * @param windowing  the function searching the segments within each window of a batch
+     * @param windows    the windows, each one consisting of bottom, top, left and right bounds
+     * @param isCounting flag indicating whether only the number of segments of each window is written
+     * @param output     the stream the results are written to
+     * @return the total number of segments within the windows
+     */
+    private static long answerWindows(ToLongFunction<Double[]> counter, Function<Double[][], BatchResult> windowing,
+                                      List<Double[]> windows, boolean isCounting, PrintStream output) {
+        long segmentsNumber = 0;
+        if (isCounting) {
+            for (Double[] bounds : windows) {
+                long count = counter.applyAsLong(bounds);
+                output.println(count);
+                segmentsNumber += count;
+            }
+            return segmentsNumber;
+        }
+        StringBuilder lines = new StringBuilder();
+        for (int start = 0; start < windows.size(); start += BATCH_SIZE) {
+            Double[][] batch = windows.subList(start, Math.min(windows.size(), start + BATCH_SIZE))
+                    .toArray(new Double[0][]);
+            BatchResult result = windowing.apply(batch);
+            double[] coordinates = result.getCoordinates();
+            for (int window = 0; window < batch.length; window++) {
+                int count = result.getCount(window);
+                lines.setLength(0);
+                for (int i = 4 * result.getOffset(window); i < 4 * (result.getOffset(window) + count); i += 4) {
+                    lines.append(coordinates[i]).append(' ').append(coordinates[i + 1]).append(' ')
+                            .append(coordinates[i + 2]).append(' ').append(coordinates[i + 3]).append('\n');
+                }
+                output.println(count);
+                output.append(lines);
+                segmentsNumber += count;
+            }
+        }
+        return segmentsNumber;
+    }
+
+    /**
+     * Reads the windows of a windows file.
+     *
+     * @param windowsFile the windows file
+     * @param dataset     the dataset the windows must be within
+     * @return the windows, each one consisting of bottom, top, left and right bounds
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if a line is not a window within the window size of the dataset
+     */
+    private static List<Double[]> readWindows(File windowsFile, Dataset dataset) throws IOException {
+        List<Double[]> windows = new ArrayList<>();
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(windowsFile.toPath(), StandardCharsets.UTF_8)) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] values = line.split("\\s+");
+            if (values.length != 4) {
+                throw new IllegalArgumentException("Invalid window at line " + lineNumber + ": " + line);
+            }
+            Double[] bounds;
+            try {
+                bounds = new Double[]{Double.parseDouble(values[2]), Double.parseDouble(values[3]),
+                        Double.parseDouble(values[0]), Double.parseDouble(values[1])};
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid window at line " + lineNumber + ": " + line);
+            }
+            if (bounds[0] > bounds[1] || bounds[2] > bounds[3] || !dataset.contains(bounds)) {
+                throw new IllegalArgumentException("Window outside the window size at line " + lineNumber + ": "
+                        + line);
+            }
+            windows.add(bounds);
+        }
+        return windows;
+    }
+}
@@ -0,0 +1,75 @@
+package cli;
+
+import windowing.SegmentsFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+
+/**
+ * The SegmentsConverter class converts text segments files into binary segments files, which the application loads
+ * directly with bulk reads instead of parsing them.
+ * <p>
+ * The coordinates are stored as floats when they all are exactly representable as floats, which halves the size of the
+ * file, and as doubles otherwise. The precision can also be forced with the --float and --double options.
+ */
+public final class SegmentsConverter {
+    private static final String USAGE = "Usage: SegmentsConverter <segments file> [<output file>] [--float|--double]";
+
+    private SegmentsConverter() {
+    }
+
+    /**
+     * Converts a text segments file into a binary segments file. The output file defaults to the segments file with
+     * the binary extension appended.
+     *
+     * @param args the segments file, optionally followed by the output file and the precision
+     */
+    public static void main(String[] args) {
+        System.exit(run(args, System.err));
+    }
+
+    /**
+     * Runs the converter.
+     *
+     * @param args the command line arguments
+     * @param err  the stream on which errors and timings are printed
+     * @return the exit code: 0 on success, 1 on an I/O error, 2 on invalid arguments
+     */
+    static int run(String[] args, PrintStream err) {
+        if (args.length < 1) {
+            err.println(USAGE);
+            return 2;
+        }
+        File textFile = new File(args[0]);
+        File binaryFile = null;
+        Boolean isFloat = null;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--float")) {
+                isFloat = true;
+            } else if (args[i].equals("--double")) {
+                isFloat = false;
+            } else if (binaryFile == null && !args[i].startsWith("--")) {
+                binaryFile = new File(args[i]);
+            } else {
+                err.println(USAGE);
+                return 2;
+            }
+        }
+        if (binaryFile == null) {
+            binaryFile = new File(args[0] + SegmentsFile.EXTENSION);
+        }
+        long start = System.nanoTime();
+        boolean isStoredAsFloat;
+        try {
+            isStoredAsFloat = SegmentsFile.convert(textFile, binaryFile, isFloat);
+        } catch (IOException e) {
+            err.println(e.getMessage());
+            return 1;
+        }
+        err.println("Time to convert to " + (isStoredAsFloat ? "floats" : "doubles") + ": "
+                + (System.nanoTime() - start) / 1_000_000 + " ms (" + textFile.length() + " bytes to "
+                + binaryFile.length() + " bytes)");
+        return 0;
+    }
+}
@@ -8,6 +8,9 @@ import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.*;
 import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.VBox;
@@ -16,6 +19,8 @@ import javafx.scene.shape.Rectangle;
 import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import windowing.DensityRaster;
+import windowing.SegmentsDisplay;
 import windowing.Windowing;
 
 import java.io.File;
@@ -27,10 +32,11 @@ import java.util.Objects;
  * the windowing size, the windowing chosen size, the lines, the sliders, the text fields, the buttons, the
  * menu items, and the toggle buttons.
  */
-public final class Gui {
+public final class Gui implements SegmentsDisplay {
     public AnchorPane mainPane;
     private ArrayList<Line> lines = new ArrayList<>();
     private ArrayList<Double[]> segments = new ArrayList<>();
+    private WritableImage densityImage;
     @FXML
     private Rectangle windowingChosenSize, windowingSize;
     @FXML
@@ -253,7 +259,7 @@ public final class Gui {
     @FXML
     private void focusOnWindowingChosenSize() {
         if (focusToggleButton.isSelected()) {
-            if (lines.size() == 0) drawLines(segments);
+            if (lines.size() == 0 && densityImage == null) drawLines(segments);
             double scale = Math.min(windowPane.getWidth() / windowingChosenSize.getWidth(),
                     windowPane.getHeight() / windowingChosenSize.getHeight());
             scaleWindowPane(scale);
@@ -339,8 +345,10 @@ public final class Gui {
      * @param segments The segments parameter is an ArrayList of Double arrays that represent the
      *                 segments that are to be drawn on the window pane.
      */
+    @Override
     public void drawLines(ArrayList<Double[]> segments) {
         this.segments = segments;
+        this.densityImage = null;
         eraseLines();
         if (focusToggleButton.isSelected()) {
             for (Double[] segment : segments) {
@@ -350,6 +358,47 @@ public final class Gui {
 
     }
 
+    /**
+     * This function draws the density of the segments of the chosen window as an image the size of the window on the
+     * window pane, instead of drawing the segments one by one.
+     *
+     * @param raster The density raster of the chosen window.
+     */
+    @Override
+    public void drawDensity(DensityRaster raster) {
+        this.segments = new ArrayList<>();
+        this.densityImage = new WritableImage(raster.getWidth(), raster.getHeight());
+        densityImage.getPixelWriter().setPixels(0, 0, raster.getWidth(), raster.getHeight(),
+                PixelFormat.getIntArgbInstance(), raster.getArgbPixels(0x000000), 0, raster.getWidth());
+        eraseLines();
+        showDensity();
+    }
+
+    /**
+     * Returns the size in pixels of the chosen windowing area on the window pane.
+     *
+     * @return The width and height of the chosen windowing area in pixels.
+     */
+    @Override
+    public int[] getWindowPixels() {
+        double scale = windowingSize.getWidth() / (windowing.getMaxX() - windowing.getMinX());
+        return new int[]{(int) Math.ceil((windowing.getChosenMaxX() - windowing.getChosenMinX()) * scale),
+                (int) Math.ceil((windowing.getChosenMaxY() - windowing.getChosenMinY()) * scale)};
+    }
+
+    /**
+     * Shows the density image over the chosen windowing area, stretched to its current size.
+     */
+    private void showDensity() {
+        ImageView imageView = new ImageView(densityImage);
+        imageView.setX(windowingChosenSize.getX());
+        imageView.setY(windowingChosenSize.getY());
+        imageView.setFitWidth(windowingChosenSize.getWidth());
+        imageView.setFitHeight(windowingChosenSize.getHeight());
+        imageView.setSmooth(false);
+        linesPane.getChildren().add(imageView);
+    }
+
     /**
      * Draws a line on a graphics window using Cartesian coordinates.
      *
@@ -396,6 +445,9 @@ public final class Gui {
                 line.setEndY(line.getEndY() * scale);
                 line.setStrokeWidth(lineStrokeWidth);
             }
+        } else if (densityImage != null) {
+            eraseLines();
+            showDensity();
         } else {
             eraseLines();
             scale = windowingSize.getWidth() / (windowing.getMaxX() - windowing.getMinX());
@@ -0,0 +1,229 @@
+package metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The WindowingMetrics class collects the metrics of the application: the latency of the queries with the number of
+ * nodes they visit, of segments they report and of pages they read from the disk, the time of each phase of the
+ * loading of a file, and the time of the construction of each priority search tree. Every counter is a LongAdder or a
+ * LatencyHistogram, so that recording takes no lock and allocates nothing on the query path.
+ * The metrics are published as an MBean named windowing:type=WindowingMetrics once registered.
+ */
+public final class WindowingMetrics implements WindowingMetricsMBean {
+    /**
+     * The name of the MBean of the metrics.
+     */
+    public static final String OBJECT_NAME = "windowing:type=WindowingMetrics";
+    private static final WindowingMetrics instance = new WindowingMetrics();
+
+    private final LatencyHistogram queryLatency = new LatencyHistogram();
+    private final LongAdder nodesVisited = new LongAdder();
+    private final LongAdder segmentsReported = new LongAdder();
+    private final LongAdder pageReads = new LongAdder();
+    private final LatencyHistogram readTime = new LatencyHistogram();
+    private final LatencyHistogram sortTime = new LatencyHistogram();
+    private final LatencyHistogram buildTime = new LatencyHistogram();
+    private final LatencyHistogram treeBuildTime = new LatencyHistogram();
+
+    private WindowingMetrics() {
+    }
+
+    /**
+     * Gets the WindowingMetrics instance.
+     *
+     * @return the WindowingMetrics instance
+     */
+    public static WindowingMetrics getInstance() {
+        return instance;
+    }
+
+    /**
+     * Registers the metrics in the platform MBean server, unless they are already registered.
+     *
+     * @return true if the metrics are registered, false if they could not be
+     */
+    public static synchronized boolean register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(instance, name);
+            }
+            return true;
+        } catch (JMException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Records a query.
+     *
+     * @param nanos            the duration of the query in nanoseconds
+     * @param nodesVisited     the number of tree nodes the query visited
+     * @param segmentsReported the number of segments the query reported or counted
+     */
+    public void recordQuery(long nanos, long nodesVisited, long segmentsReported) {
+        recordQuery(nanos, nodesVisited, segmentsReported, 0);
+    }
+
+    /**
+     * Records a query on trees stored in pages on disk.
+     *
+     * @param nanos            the duration of the query in nanoseconds
+     * @param nodesVisited     the number of tree nodes the query visited
+     * @param segmentsReported the number of segments the query reported or counted
+     * @param pageReads        the number of pages the query read from the disk
+     */
+    public void recordQuery(long nanos, long nodesVisited, long segmentsReported, long pageReads) {
+        queryLatency.record(nanos);
+        this.nodesVisited.add(nodesVisited);
+        this.segmentsReported.add(segmentsReported);
+        this.pageReads.add(pageReads);
+    }
+
+    /**
+     * Records the phases of the loading of a file.
+     *
+     * @param readNanos  the time to read the file in nanoseconds
+     * @param sortNanos  the time to sort the segments in nanoseconds
+     * @param buildNanos the time to build the trees in nanoseconds
+     */
+    public void recordLoad(long readNanos, long sortNanos, long buildNanos) {
+        readTime.record(readNanos);
+        sortTime.record(sortNanos);
+        buildTime.record(buildNanos);
+    }
+
+    /**
+     * Records the construction of a priority search tree.
+     *
+     * @param nanos the time to build the tree in nanoseconds
+     */
+    public void recordTreeBuild(long nanos) {
+        treeBuildTime.record(nanos);
+    }
+
+    @Override
+    public long getQueryCount() {
+        return queryLatency.getCount();
+    }
+
+    @Override
+    public double getQueryLatencyMeanMicros() {
+        return queryLatency.getMean() / 1_000;
+    }
+
+    @Override
+    public long getQueryLatencyP50Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(queryLatency.getPercentile(0.5));
+    }
+
+    @Override
+    public long getQueryLatencyP90Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(queryLatency.getPercentile(0.9));
+    }
+
+    @Override
+    public long getQueryLatencyP99Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(queryLatency.getPercentile(0.99));
+    }
+
+    @Override
+    public long getQueryLatencyMaxMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(queryLatency.getMax());
+    }
+
+    @Override
+    public long getNodesVisited() {
+        return nodesVisited.sum();
+    }
+
+    @Override
+    public long getSegmentsReported() {
+        return segmentsReported.sum();
+    }
+
+    @Override
+    public double getNodesVisitedPerQuery() {
+        long count = getQueryCount();
+        return count == 0 ? 0 : (double) nodesVisited.sum() / count;
+    }
+
+    @Override
+    public long getPageReads() {
+        return pageReads.sum();
+    }
+
+    @Override
+    public double getPageReadsPerQuery() {
+        long count = getQueryCount();
+        return count == 0 ? 0 : (double) pageReads.sum() / count;
+    }
+
+    @Override
+    public long getLoadCount() {
+        return readTime.getCount();
+    }
+
+    @Override
+    public long getReadTimeP50Millis() {
+        return TimeUnit.NANOSECONDS.toMillis(readTime.getPercentile(0.5));
+    }
+
+    @Override
+    public long getReadTimeMaxMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(readTime.getMax());
+    }
+
+    @Override
+    public long getSortTimeP50Millis() {
+        return TimeUnit.NANOSECONDS.toMillis(sortTime.getPercentile(0.5));
+    }
+
+    @Override
+    public long getSortTimeMaxMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(sortTime.getMax());
+    }
+
+    @Override
+    public long getBuildTimeP50Millis() {
+        return TimeUnit.NANOSECONDS.toMillis(buildTime.getPercentile(0.5));
+    }
+
+    @Override
+    public long getBuildTimeMaxMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(buildTime.getMax());
+    }
+
+    @Override
+    public long getTreeCount() {
+        return treeBuildTime.getCount();
+    }
+
+    @Override
+    public long getTreeBuildP50Millis() {
+        return TimeUnit.NANOSECONDS.toMillis(treeBuildTime.getPercentile(0.5));
+    }
+
+    @Override
+    public long getTreeBuildMaxMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(treeBuildTime.getMax());
+    }
+
+    @Override
+    public void reset() {
+        queryLatency.reset();
+        nodesVisited.reset();
+        segmentsReported.reset();
+        pageReads.reset();
+        readTime.reset();
+        sortTime.reset();
+        buildTime.reset();
+        treeBuildTime.reset();
+    }
+}
@@ -0,0 +1,54 @@
+package metrics;
+
+/**
+ * The management interface of the windowing metrics, as published over JMX. Durations are given in microseconds for
+ * the queries, and in milliseconds for the loading.
+ */
+public interface WindowingMetricsMBean {
+    long getQueryCount();
+
+    double getQueryLatencyMeanMicros();
+
+    long getQueryLatencyP50Micros();
+
+    long getQueryLatencyP90Micros();
+
+    long getQueryLatencyP99Micros();
+
+    long getQueryLatencyMaxMicros();
+
+    long getNodesVisited();
+
+    long getSegmentsReported();
+
+    double getNodesVisitedPerQuery();
+
+    long getPageReads();
+
+    double getPageReadsPerQuery();
+
+    long getLoadCount();
+
+    long getReadTimeP50Millis();
+
+    long getReadTimeMaxMillis();
+
+    long getSortTimeP50Millis();
+
+    long getSortTimeMaxMillis();
+
+    long getBuildTimeP50Millis();
+
+    long getBuildTimeMaxMillis();
+
+    long getTreeCount();
+
+    long getTreeBuildP50Millis();
+
+    long getTreeBuildMaxMillis();
+
+    /**
+     * Clears all the counters and histograms.
+     */
+    void reset();
+}
@@ -0,0 +1,234 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import metrics.WindowingMetrics;
+import windowing.Dataset;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * The QueryServer class serves window queries over HTTP on the loopback address, so that several local tools can
+ * query one loaded dataset.
+ * <p>
+ * A window is given by the min_x, max_x, min_y and max_y query parameters. The /count path answers the number of
+ * segments within the window, and the /segments path answers that number followed by one line per segment with its
+ * x1, y1, x2 and y2 coordinates, both as plain text. Each request is handled on its own virtual thread when the
+ * runtime provides them, and on its own pooled thread otherwise. Requests only read the dataset, which is never
+ * modified once loaded, so that they need no lock.
+ */
+public final class QueryServer {
+    private static final String USAGE = "Usage: QueryServer <segments file> [--port <port>] [--off-heap]";
+    /**
+     * The port the server listens on when none is given.
+     */
+    public static final int DEFAULT_PORT = 8642;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Supplier<Dataset> dataset;
+
+    /**
+     * Constructs a new QueryServer object listening on the given port of the loopback address. The dataset is taken
+     * from the given supplier for each request, so that a newly loaded dataset is used as soon as it is supplied.
+     *
+     * @param dataset the supplier of the dataset to query
+     * @param port    the port to listen on, or 0 for any free port
+     * @throws IOException if the server cannot listen on the port
+     */
+    public QueryServer(Supplier<Dataset> dataset, int port) throws IOException {
+        this.dataset = dataset;
+        this.executor = createExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/count", exchange -> handle(exchange, true));
+        server.createContext("/segments", exchange -> handle(exchange, false));
+        server.setExecutor(executor);
+    }
+
+    /**
+     * The main method of the server application.
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        String port = null;
+        boolean isOffHeap = false, isValid = args.length >= 1;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--port") && i + 1 < args.length && port == null) {
+                port = args[++i];
+            } else if (args[i].equals("--off-heap")) {
+                isOffHeap = true;
+            } else {
+                isValid = false;
+            }
+        }
+        if (!isValid) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        try {
+            Dataset dataset = Dataset.read(new File(args[0]), isOffHeap);
+            QueryServer server = new QueryServer(() -> dataset, port != null ? Integer.parseInt(port)
+                    : DEFAULT_PORT);
+            server.start();
+            WindowingMetrics.register();
+            System.err.println("Serving " + dataset.getSegmentsNumber() + " segments on http://localhost:"
+                    + server.getPort() + "/");
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Creates the executor handling the requests: one virtual thread per request when the runtime provides virtual
+     * threads, or else a cached pool creating a thread per concurrent request.
+     *
+     * @return the executor handling the requests
+     */
+    static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Starts listening for requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops listening for requests, waiting at most the given delay for the requests being handled.
+     *
+     * @param delay the maximum delay to wait for the requests being handled, in seconds
+     */
+    public void stop(int delay) {
+        server.stop(delay);
+        executor.shutdown();
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Answers a window request with the number of segments within the window, followed by the segments unless only
+     * counting. Invalid windows are answered with a 400 status.
+     *
+     * @param exchange   the request and its response
+     * @param isCounting flag indicating whether only the number of segments is answered
+     * @throws IOException if an I/O error occurs
+     */
+    private void handle(HttpExchange exchange, boolean isCounting) throws IOException {
+        try {
+            Dataset dataset = this.dataset.get();
+            Double[] bounds;
+            try {
+                bounds = getBounds(exchange.getRequestURI());
+            } catch (IllegalArgumentException e) {
+                send(exchange, 400, e.getMessage() + "\n");
+                return;
+            }
+            if (dataset == null || !dataset.contains(bounds)) {
+                send(exchange, 400, "Window outside the window size\n");
+                return;
+            }
+            StringBuilder lines = new StringBuilder();
+            long[] count = new long[1];
+            if (isCounting) {
+                count[0] = dataset.countWindow(bounds);
+            } else {
+                dataset.launchWindowing(bounds, (x1, y1, x2, y2) -> {
+                    count[0]++;
+                    lines.append(x1).append(' ').append(y1).append(' ').append(x2).append(' ').append(y2)
+                            .append('\n');
+                });
+            }
+            send(exchange, 200, count[0] + "\n" + lines);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Reads the window of a request from its query parameters.
+     *
+     * @param uri the URI of the request
+     * @return bounding box array consisting of bottom, top, left and right bounds
+     * @throws IllegalArgumentException if a parameter is missing or is not a number, or if the window is empty
+     */
+    private static Double[] getBounds(URI uri) {
+        Map<String, String> parameters = new HashMap<>();
+        if (uri.getQuery() != null) {
+            for (String parameter : uri.getQuery().split("&")) {
+                int separator = parameter.indexOf('=');
+                if (separator > 0) {
+                    parameters.put(parameter.substring(0, separator), parameter.substring(separator + 1));
+                }
+            }
+        }
+        Double[] bounds = new Double[]{getParameter(parameters, "min_y"), getParameter(parameters, "max_y"),
+                getParameter(parameters, "min_x"), getParameter(parameters, "max_x")};
+        if (bounds[0] > bounds[1] || bounds[2] > bounds[3]) {
+            throw new IllegalArgumentException("Empty window");
+        }
+        return bounds;
+    }
+
+    /**
+     * Returns the value of a numeric query parameter.
+     *
+     * @param parameters the query parameters
+     * @param name       the name of the parameter
+     * @return the value of the parameter
+     * @throws IllegalArgumentException if the parameter is missing or is not a number
+     */
+    private static double getParameter(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter " + name);
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid parameter " + name + ": " + value);
+        }
+    }
+
+    /**
+     * Sends a plain text response.
+     *
+     * @param exchange the request and its response
+     * @param status   the status of the response
+     * @param body     the body of the response
+     * @throws IOException if an I/O error occurs
+     */
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+}
@@ -3,18 +3,16 @@ package tools;
 import java.util.ArrayList;
 
 /**
- * The SegmentsList class represents a linked list of Double arrays. It is used to store the segments
- * in the vertical and horizontal priority search trees.
+ * The SegmentsList class represents a fixed list of Double arrays, from which the vertical and horizontal priority
+ * search trees can be built.
+ * <p>
+ * The segments are kept in a single array, in the order of the given list, so that no object is created per segment.
  */
 public class SegmentsList {
     /**
-     * The initial size of the list.
+     * The segments, in the order of the given list.
      */
-    private final int initialSize;
-    /**
-     * The first node in the list.
-     */
-    private LinkedNode head;
+    private final Double[][] segments;
 
     /**
      * Constructs a new SegmentsList object.
@@ -22,65 +20,34 @@ public class SegmentsList {
      * @param arrayList the list of segments
      */
     public SegmentsList(ArrayList<Double[]> arrayList) {
-        head = createList(arrayList);
-        initialSize = arrayList.size();
-    }
-
-    /**
-     * Creates a linked list from the given ArrayList.
-     *
-     * @param arrayList the ArrayList to convert
-     * @return the first node in the list
-     */
-    private LinkedNode createList(ArrayList<Double[]> arrayList) {
-        LinkedNode firstNode = new LinkedNode(null, arrayList.get(0));
-        LinkedNode prev = firstNode;
-        for (int i = 1; i < arrayList.size(); i++) {
-            LinkedNode node = new LinkedNode(prev, arrayList.get(i));
-            prev.setNext(node);
-            prev = node;
-        }
-        return firstNode;
+        segments = arrayList.toArray(new Double[0][]);
     }
 
     /**
-     * Gets the first node in the list.
+     * Gets the segment at the given index.
      *
-     * @return the first node in the list
+     * @param index the index of the segment in the given list
+     * @return the segment at the given index
      */
-    public LinkedNode get(int index) {
-        LinkedNode node = head;
-        for (int i = 0; i < index; i++) {
-            node = node.getNext();
-        }
-        return node;
+    public Double[] get(int index) {
+        return segments[index];
     }
 
     /**
-     * Removes the given node from the list.
+     * Copies the segments into an array, in the order of the given list.
      *
-     * @param node the node to remove
+     * @return an array of the segments
      */
-    public void remove(LinkedNode node) {
-        LinkedNode next = node.getNext();
-        LinkedNode prev = node.getPrev();
-
-        if (prev == null) {
-            head = next;
-        } else {
-            prev.setNext(next);
-        }
-        if (next != null) {
-            next.setPrev(prev);
-        }
+    public Double[][] toArray() {
+        return segments.clone();
     }
 
     /**
-     * Gets the initial size of the list.
+     * Gets the number of segments.
      *
-     * @return the initial size of the list
+     * @return the number of segments
      */
-    public int getInitialSize() {
-        return initialSize;
+    public int size() {
+        return segments.length;
     }
 }
@@ -1,71 +1,200 @@
 package tools;
 
 import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
- * The Sort class contains a quickSort method that sorts an ArrayList of Double arrays based on their x
- * or y values.
+ * The Sort class contains a sort method that sorts an ArrayList of Double arrays based on their x or y values.
+ * <p>
+ * The keys are copied into a primitive array next to the indices of their segments, then sorted with a stable merge
+ * sort whose halves are sorted in parallel on a fork/join pool, so that no comparison unboxes a Double and the order
+ * of the input, whether already sorted or made of many equal keys, never makes it quadratic or deep. Segments with
+ * equal keys keep their order.
  */
 public class Sort {
+    private static final int INSERTION_THRESHOLD = 32;
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private final ForkJoinPool pool;
+
     public Sort() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a Sort running on the given pool.
+     *
+     * @param pool the pool on which the halves are sorted in parallel
+     */
+    public Sort(ForkJoinPool pool) {
+        this.pool = pool;
     }
 
     /**
-     * This is a recursive implementation of the quicksort algorithm to sort an ArrayList of Double
-     * arrays.
+     * Sorts an ArrayList of Double arrays on the value of the second element of each array.
      *
      * @param segments An ArrayList of Double arrays representing segments to be sorted.
-     * @param start    The index of the first element in the ArrayList to be sorted.
-     * @param end      The "end" parameter in the "quickSort" method represents the index of the last
-     *                 element in the ArrayList "segments" that needs to be sorted. It is the upper bound of the
-     *                 subarray that needs to be sorted.
      */
-    public void quickSort(ArrayList<Double[]> segments, int start, int end) {
-        if (start < end) {
-            int pivot = partition(segments, start, end);
-            quickSort(segments, start, pivot - 1);
-            quickSort(segments, pivot + 1, end);
-        }
+    public void sort(ArrayList<Double[]> segments) {
+        sort(segments, 0, segments.size() - 1);
     }
 
     /**
-     * This function partitions an ArrayList of Double arrays based on the value of the second element
-     * in each array.
+     * Sorts a range of an ArrayList of Double arrays on the value of the second element of each array.
      *
-     * @param segments An ArrayList of Double arrays representing line segments. Each Double array
-     *                 contains two elements: the starting point and the ending point of the line segment.
-     * @param start    The index of the first element in the ArrayList to be considered in the
-     *                 partitioning process.
-     * @param end      The "end" parameter in the given code represents the index of the last element in the
-     *                 ArrayList "segments" that needs to be considered for partitioning. It is the upper bound of the
-     *                 range of elements that are being partitioned.
-     * @return The method is returning an integer value which is the index of the pivot element after
-     * partitioning the ArrayList of Double arrays.
+     * @param segments An ArrayList of Double arrays representing segments to be sorted.
+     * @param start    The index of the first element in the ArrayList to be sorted.
+     * @param end      The index of the last element in the ArrayList to be sorted.
      */
-    private int partition(ArrayList<Double[]> segments, int start, int end) {
-        int pivot = start;
-        for (int i = start; i < end; i++) {
-            if (segments.get(i)[1] <= segments.get(end)[1]) {
-                swap(segments, i, pivot);
-                pivot += 1;
-            }
+    public void sort(ArrayList<Double[]> segments, int start, int end) {
+        int size = end - start + 1;
+        if (size < 2) {
+            return;
+        }
+        long[] keys = new long[size];
+        int[] indices = new int[size];
+        pool.invoke(new MergeSortTask(segments, start, keys, indices, new long[size], new int[size], 0, size, false));
+        Double[][] sortedSegments = new Double[size][];
+        for (int i = 0; i < size; i++) {
+            sortedSegments[i] = segments.get(start + indices[i]);
+        }
+        for (int i = 0; i < size; i++) {
+            segments.set(start + i, sortedSegments[i]);
         }
-        swap(segments, end, pivot);
-        return pivot;
     }
 
     /**
-     * This function swaps two elements in an ArrayList of Double arrays.
+     * Returns a long whose signed order is the order of the given double, with -0.0 equal to 0.0 as they are when
+     * compared as doubles.
      *
-     * @param segments An ArrayList of Double arrays. Each Double array represents a segment with two
-     *                 elements, the start and end points of the segment.
-     * @param first    The index of the first element to be swapped in the ArrayList.
-     * @param second   The parameter "second" is an integer representing the index of the second element
-     *                 to be swapped in the ArrayList "segments".
+     * @param value the double
+     * @return the sortable bits of the double
+     */
+    static long getSortableKey(double value) {
+        long bits = Double.doubleToLongBits(value + 0.0);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * A task sorting a range of the keys and indices, into the primary arrays or into the buffers. The halves of the
+     * range are sorted into the other arrays, then merged into the target ones, so that nothing is copied back.
      */
-    private void swap(ArrayList<Double[]> segments, int first, int second) {
-        Double[] temp = segments.get(first);
-        segments.set(first, segments.get(second));
-        segments.set(second, temp);
+    private static final class MergeSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final ArrayList<Double[]> segments;
+        private final int offset;
+        private final long[] keys, keyBuffer;
+        private final int[] indices, indexBuffer;
+        private final int low, high;
+        private final boolean isToBuffer;
+
+        /**
+         * Constructs a task sorting a range.
+         *
+         * @param segments    the segments to sort
+         * @param offset      the index of the first segment to sort
+         * @param keys        the primary keys
+         * @param indices     the primary indices, relative to the offset
+         * @param keyBuffer   the buffer of keys
+         * @param indexBuffer the buffer of indices
+         * @param low         the first position of the range, included
+         * @param high        the last position of the range, excluded
+         * @param isToBuffer  flag indicating whether the sorted range is written into the buffers
+         */
+        private MergeSortTask(ArrayList<Double[]> segments, int offset, long[] keys, int[] indices, long[] keyBuffer,
+                              int[] indexBuffer, int low, int high, boolean isToBuffer) {
+            this.segments = segments;
+            this.offset = offset;
+            this.keys = keys;
+            this.indices = indices;
+            this.keyBuffer = keyBuffer;
+            this.indexBuffer = indexBuffer;
+            this.low = low;
+            this.high = high;
+            this.isToBuffer = isToBuffer;
+        }
+
+        @Override
+        protected void compute() {
+            if (high - low <= PARALLEL_THRESHOLD) {
+                sort(low, high, isToBuffer);
+                return;
+            }
+            int middle = (low + high) >>> 1;
+            invokeAll(new MergeSortTask(segments, offset, keys, indices, keyBuffer, indexBuffer, low, middle,
+                            !isToBuffer),
+                    new MergeSortTask(segments, offset, keys, indices, keyBuffer, indexBuffer, middle, high,
+                            !isToBuffer));
+            merge(low, middle, high, isToBuffer);
+        }
+
+        /**
+         * Sorts a range sequentially.
+         *
+         * @param low        the first position of the range, included
+         * @param high       the last position of the range, excluded
+         * @param isToBuffer flag indicating whether the sorted range is written into the buffers
+         */
+        private void sort(int low, int high, boolean isToBuffer) {
+            if (high - low <= INSERTION_THRESHOLD) {
+                insertionSort(low, high);
+                if (isToBuffer) {
+                    System.arraycopy(keys, low, keyBuffer, low, high - low);
+                    System.arraycopy(indices, low, indexBuffer, low, high - low);
+                }
+                return;
+            }
+            int middle = (low + high) >>> 1;
+            sort(low, middle, !isToBuffer);
+            sort(middle, high, !isToBuffer);
+            merge(low, middle, high, isToBuffer);
+        }
+
+        /**
+         * Reads the keys of a small range of segments into the primary arrays and sorts them by insertion.
+         *
+         * @param low  the first position of the range, included
+         * @param high the last position of the range, excluded
+         */
+        private void insertionSort(int low, int high) {
+            for (int i = low; i < high; i++) {
+                long key = getSortableKey(segments.get(offset + i)[1]);
+                int j = i - 1;
+                while (j >= low && keys[j] > key) {
+                    keys[j + 1] = keys[j];
+                    indices[j + 1] = indices[j];
+                    j--;
+                }
+                keys[j + 1] = key;
+                indices[j + 1] = i;
+            }
+        }
+
+        /**
+         * Merges two sorted adjacent ranges from the other arrays into the target ones, taking the left range first
+         * among equal keys so that the sort is stable.
+         *
+         * @param low        the first position of the left range, included
+         * @param middle     the first position of the right range
+         * @param high       the last position of the right range, excluded
+         * @param isToBuffer flag indicating whether the merged range is written into the buffers
+         */
+        private void merge(int low, int middle, int high, boolean isToBuffer) {
+            long[] sourceKeys = isToBuffer ? keys : keyBuffer;
+            int[] sourceIndices = isToBuffer ? indices : indexBuffer;
+            long[] targetKeys = isToBuffer ? keyBuffer : keys;
+            int[] targetIndices = isToBuffer ? indexBuffer : indices;
+            int left = low, right = middle;
+            for (int i = low; i < high; i++) {
+                if (right >= high || (left < middle && sourceKeys[left] <= sourceKeys[right])) {
+                    targetKeys[i] = sourceKeys[left];
+                    targetIndices[i] = sourceIndices[left++];
+                } else {
+                    targetKeys[i] = sourceKeys[right];
+                    targetIndices[i] = sourceIndices[right++];
+                }
+            }
+        }
     }
 }
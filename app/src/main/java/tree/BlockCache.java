@@ -0,0 +1,104 @@
+package tree;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache of fixed-size blocks read from a file, such as the pages of a PagedPrioritySearchTree, keyed by their
+ * position in the file. It holds at most as many blocks as fit in its byte budget, and evicts the least recently used
+ * block when a new one is put. The cache is shared by all the threads reading the file, and only locks while looking
+ * up or putting a block, never while a block is read from the disk.
+ */
+public final class BlockCache {
+    private final int blockBytes;
+    private final int capacity;
+    private final LinkedHashMap<Long, ByteBuffer> blocks;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Constructs a BlockCache object holding blocks of the given size within the given byte budget.
+     *
+     * @param blockBytes  The number of bytes of a block.
+     * @param budgetBytes The maximum number of bytes of the cached blocks, at least one block being always kept.
+     */
+    public BlockCache(int blockBytes, long budgetBytes) {
+        this.blockBytes = blockBytes;
+        this.capacity = (int) Math.max(1, Math.min(Integer.MAX_VALUE, budgetBytes / blockBytes));
+        this.blocks = new LinkedHashMap<Long, ByteBuffer>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ByteBuffer> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the block at the given position, marking it as the most recently used one.
+     *
+     * @param position The position of the block in the file.
+     * @return The cached block, or null if it is not cached and must be read.
+     */
+    public ByteBuffer get(long position) {
+        ByteBuffer block;
+        synchronized (blocks) {
+            block = blocks.get(position);
+        }
+        if (block != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return block;
+    }
+
+    /**
+     * Puts the block read at the given position, evicting the least recently used block if the budget is exceeded.
+     *
+     * @param position The position of the block in the file.
+     * @param block    The block read at the position.
+     */
+    public void put(long position, ByteBuffer block) {
+        synchronized (blocks) {
+            blocks.put(position, block);
+        }
+    }
+
+    /**
+     * Returns the number of bytes of a block.
+     *
+     * @return The number of bytes of a block.
+     */
+    public int getBlockBytes() {
+        return blockBytes;
+    }
+
+    /**
+     * Returns the maximum number of blocks held by the cache.
+     *
+     * @return The maximum number of cached blocks.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of lookups that found their block in the cache.
+     *
+     * @return The number of cache hits.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that did not find their block in the cache, each one followed by a read.
+     *
+     * @return The number of cache misses.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+}
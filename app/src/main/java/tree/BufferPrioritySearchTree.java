@@ -0,0 +1,154 @@
+package tree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A priority search tree read directly from a ByteBuffer, such as a buffer mapped from an index file, or a direct
+ * buffer holding the tree outside of the Java heap.
+ * The nodes are stored in implicit (heap-index) order, each one as a record of six little-endian doubles: the start
+ * point, the y-coordinate and the end point of its segment, its median, then the greatest start point and the lowest
+ * end point of its subtree. The records are followed by one byte per
+ * node telling whether its edges are equal, padded to a multiple of eight bytes.
+ */
+public class BufferPrioritySearchTree implements ImplicitPrioritySearchTree {
+    /**
+     * The number of bytes of the record of a node.
+     */
+    public static final int NODE_BYTES = 6 * Double.BYTES;
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int flagsOffset;
+
+    /**
+     * Constructs a BufferPrioritySearchTree object reading the given number of nodes from the start of the buffer.
+     *
+     * @param buffer The buffer holding the tree, starting at position 0.
+     * @param size   The number of nodes in the tree.
+     */
+    public BufferPrioritySearchTree(ByteBuffer buffer, int size) {
+        this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.size = size;
+        this.flagsOffset = size * NODE_BYTES;
+    }
+
+    /**
+     * Copies the given tree into a direct buffer, outside of the Java heap, so that the tree neither takes heap space
+     * nor is scanned by the garbage collector.
+     *
+     * @param tree The tree to copy.
+     * @return A tree reading the copy from the direct buffer.
+     * @throws IllegalArgumentException if the tree is too large to be held by a single buffer
+     */
+    public static BufferPrioritySearchTree allocateDirect(ImplicitPrioritySearchTree tree) {
+        int size = tree.getSize();
+        long byteSize = getByteSize(size);
+        if (byteSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many segments for a direct buffer: " + size);
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) byteSize).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < size; i++) {
+            buffer.putDouble(tree.getLow(i)).putDouble(tree.getKey(i)).putDouble(tree.getHigh(i))
+                    .putDouble(tree.getMedian(i)).putDouble(tree.getMaxStart(i)).putDouble(tree.getMinEnd(i));
+        }
+        for (int i = 0; i < size; i++) {
+            buffer.put((byte) (tree.areEdgesNotEqual(i) ? 0 : 1));
+        }
+        buffer.clear();
+        return new BufferPrioritySearchTree(buffer, size);
+    }
+
+    /**
+     * Returns the number of bytes taken by a tree of the given size.
+     *
+     * @param size The number of nodes in the tree.
+     * @return The number of bytes taken by the tree.
+     */
+    public static long getByteSize(int size) {
+        return (long) size * NODE_BYTES + ((size + 7) & ~7L);
+    }
+
+    /**
+     * Writes the given tree to the channel, in the layout read by this class.
+     *
+     * @param tree    The tree to write.
+     * @param channel The channel to write to.
+     * @throws IOException if an I/O error occurs
+     */
+    public static void write(ImplicitPrioritySearchTree tree, WritableByteChannel channel) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        int size = tree.getSize();
+        for (int i = 0; i < size; i++) {
+            if (chunk.remaining() < NODE_BYTES) {
+                flush(chunk, channel);
+            }
+            chunk.putDouble(tree.getLow(i)).putDouble(tree.getKey(i)).putDouble(tree.getHigh(i))
+                    .putDouble(tree.getMedian(i)).putDouble(tree.getMaxStart(i)).putDouble(tree.getMinEnd(i));
+        }
+        for (long i = 0; i < getByteSize(size) - (long) size * NODE_BYTES; i++) {
+            if (!chunk.hasRemaining()) {
+                flush(chunk, channel);
+            }
+            chunk.put((byte) (i < size && !tree.areEdgesNotEqual((int) i) ? 1 : 0));
+        }
+        flush(chunk, channel);
+    }
+
+    /**
+     * Writes the content of the chunk to the channel and clears it.
+     *
+     * @param chunk   The chunk to write.
+     * @param channel The channel to write to.
+     * @throws IOException if an I/O error occurs
+     */
+    private static void flush(ByteBuffer chunk, WritableByteChannel channel) throws IOException {
+        chunk.flip();
+        while (chunk.hasRemaining()) {
+            channel.write(chunk);
+        }
+        chunk.clear();
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public double getLow(int index) {
+        return buffer.getDouble(index * NODE_BYTES);
+    }
+
+    @Override
+    public double getKey(int index) {
+        return buffer.getDouble(index * NODE_BYTES + Double.BYTES);
+    }
+
+    @Override
+    public double getHigh(int index) {
+        return buffer.getDouble(index * NODE_BYTES + 2 * Double.BYTES);
+    }
+
+    @Override
+    public double getMedian(int index) {
+        return buffer.getDouble(index * NODE_BYTES + 3 * Double.BYTES);
+    }
+
+    @Override
+    public double getMaxStart(int index) {
+        return buffer.getDouble(index * NODE_BYTES + 4 * Double.BYTES);
+    }
+
+    @Override
+    public double getMinEnd(int index) {
+        return buffer.getDouble(index * NODE_BYTES + 5 * Double.BYTES);
+    }
+
+    @Override
+    public boolean areEdgesNotEqual(int index) {
+        return buffer.get(flagsOffset + index) == 0;
+    }
+}
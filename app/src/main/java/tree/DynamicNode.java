@@ -0,0 +1,135 @@
+package tree;
+
+/**
+ * This class represents a node in a dynamic priority search tree.
+ * A node is only modified before it is put in a tree: the updates of the tree modify copies of the nodes instead.
+ */
+public class DynamicNode {
+    private final Double[] segment;
+    private double minStart;
+    private int height;
+    private DynamicNode leftChild;
+    private DynamicNode rightChild;
+
+    /**
+     * Constructs a new instance of DynamicNode holding the given segment, without children.
+     *
+     * @param segment the segment of this node
+     */
+    DynamicNode(Double[] segment) {
+        this.segment = segment;
+        this.minStart = segment[0];
+        this.height = 1;
+    }
+
+    /**
+     * Returns a copy of this node, with the same segment and children.
+     *
+     * @return the copy of this node
+     */
+    DynamicNode copy() {
+        DynamicNode copy = new DynamicNode(segment);
+        copy.minStart = minStart;
+        copy.height = height;
+        copy.leftChild = leftChild;
+        copy.rightChild = rightChild;
+        return copy;
+    }
+
+    /**
+     * Returns the segment of this node.
+     *
+     * @return the segment of this node
+     */
+    public Double[] getSegment() {
+        return segment;
+    }
+
+    /**
+     * Returns the smallest start point of the segments in the subtree of this node.
+     *
+     * @return the smallest start point of the segments in the subtree of this node
+     */
+    public double getMinStart() {
+        return minStart;
+    }
+
+    /**
+     * Returns the height of the subtree of this node.
+     *
+     * @return the height of the subtree of this node
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the left child of this node.
+     *
+     * @return the left child of this node, or null if it has none
+     */
+    public DynamicNode getLeftChild() {
+        return leftChild;
+    }
+
+    /**
+     * Sets the left child of this node to the specified node.
+     *
+     * @param leftChild the new left child of this node, or null
+     */
+    void setLeftChild(DynamicNode leftChild) {
+        this.leftChild = leftChild;
+    }
+
+    /**
+     * Returns the right child of this node.
+     *
+     * @return the right child of this node, or null if it has none
+     */
+    public DynamicNode getRightChild() {
+        return rightChild;
+    }
+
+    /**
+     * Sets the right child of this node to the specified node.
+     *
+     * @param rightChild the new right child of this node, or null
+     */
+    void setRightChild(DynamicNode rightChild) {
+        this.rightChild = rightChild;
+    }
+
+    /**
+     * Returns whether this node has a left child.
+     *
+     * @return true if this node has a left child, false otherwise
+     */
+    public boolean hasLeftChild() {
+        return leftChild != null;
+    }
+
+    /**
+     * Returns whether this node has a right child.
+     *
+     * @return true if this node has a right child, false otherwise
+     */
+    public boolean hasRightChild() {
+        return rightChild != null;
+    }
+
+    /**
+     * Recomputes the height and the smallest start point of this node from its segment and its children.
+     */
+    void update() {
+        height = 1;
+        minStart = segment[0];
+        if (leftChild != null) {
+            height = leftChild.height + 1;
+            minStart = Math.min(minStart, leftChild.minStart);
+        }
+        if (rightChild != null) {
+            height = Math.max(height, rightChild.height + 1);
+            minStart = Math.min(minStart, rightChild.minStart);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package tree;
+
+import java.util.ArrayList;
+
+/**
+ * A priority search tree for line segments supporting insertions and deletions.
+ * The segments are kept in an AVL tree ordered on their second value (y-coordinate), then on their first and third
+ * values. Instead of pushing the leftmost segment of each subtree up to its root like PrioritySearchTree does, each
+ * node keeps the smallest start point of its subtree, which allows the same pruning during a search while staying
+ * compatible with rotations. Insertions and deletions run in O(log n).
+ * Nodes are never modified once in a tree: an update copies the nodes on the path it changes and shares the others.
+ * A tree can therefore be copied in constant time, and a copy can be updated while the tree is being searched.
+ */
+public class DynamicPrioritySearchTree {
+
+    private DynamicNode head;
+    private int size;
+
+    /**
+     * Constructs an empty DynamicPrioritySearchTree object.
+     */
+    public DynamicPrioritySearchTree() {
+    }
+
+    /**
+     * Constructs a balanced DynamicPrioritySearchTree object from a list of line segments sorted on their second
+     * value. The segments are sorted again with the full order of the tree, which is close to linear on such a list.
+     *
+     * @param sortedSegments A List of Double arrays representing line segments, sorted on their second value.
+     */
+    public DynamicPrioritySearchTree(ArrayList<Double[]> sortedSegments) {
+        ArrayList<Double[]> segments = new ArrayList<>(sortedSegments);
+        segments.sort(DynamicPrioritySearchTree::compare);
+        head = createTree(segments, 0, segments.size() - 1);
+        size = segments.size();
+    }
+
+    /**
+     * Recursive algorithm to create a balanced tree from a range of sorted line segments, using the middle segment of
+     * the range as the root node.
+     *
+     * @param segments A List of line segments, sorted in the order of the tree.
+     * @param start    The starting index of the current range of segments to be processed.
+     * @param end      The ending index of the current range of segments to be processed.
+     * @return The root node of the newly constructed tree, or null if the range is empty.
+     */
+    private DynamicNode createTree(ArrayList<Double[]> segments, int start, int end) {
+        if (start > end) {
+            return null;
+        }
+        int middle = (start + end) >>> 1;
+        DynamicNode target = new DynamicNode(segments.get(middle));
+        target.setLeftChild(createTree(segments, start, middle - 1));
+        target.setRightChild(createTree(segments, middle + 1, end));
+        target.update();
+        return target;
+    }
+
+    /**
+     * Inserts the given segment in the tree.
+     *
+     * @param segment A Double array representing a normalized line segment.
+     */
+    public void insert(Double[] segment) {
+        head = insert(head, segment);
+        size++;
+    }
+
+    /**
+     * Deletes one segment equal to the given segment from the tree.
+     *
+     * @param segment A Double array representing a normalized line segment.
+     * @return true if a segment was deleted, false if no equal segment was found.
+     */
+    public boolean delete(Double[] segment) {
+        int initialSize = size;
+        head = delete(head, segment);
+        return size < initialSize;
+    }
+
+    /**
+     * Recursively inserts the given segment in the subtree of the given node.
+     *
+     * @param node    The root of the subtree, or null if the subtree is empty.
+     * @param segment The segment to insert.
+     * @return The new root of the subtree.
+     */
+    private DynamicNode insert(DynamicNode node, Double[] segment) {
+        if (node == null) {
+            return new DynamicNode(segment);
+        }
+        node = node.copy();
+        if (compare(segment, node.getSegment()) < 0) {
+            node.setLeftChild(insert(node.getLeftChild(), segment));
+        } else {
+            node.setRightChild(insert(node.getRightChild(), segment));
+        }
+        return balance(node);
+    }
+
+    /**
+     * Recursively deletes one segment equal to the given segment from the subtree of the given node.
+     *
+     * @param node    The root of the subtree, or null if the subtree is empty.
+     * @param segment The segment to delete.
+     * @return The new root of the subtree.
+     */
+    private DynamicNode delete(DynamicNode node, Double[] segment) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = compare(segment, node.getSegment());
+        if (comparison < 0) {
+            node = node.copy();
+            node.setLeftChild(delete(node.getLeftChild(), segment));
+        } else if (comparison > 0) {
+            node = node.copy();
+            node.setRightChild(delete(node.getRightChild(), segment));
+        } else {
+            size--;
+            if (!node.hasLeftChild()) {
+                return node.getRightChild();
+            }
+            if (!node.hasRightChild()) {
+                return node.getLeftChild();
+            }
+            DynamicNode successor = node.getRightChild();
+            while (successor.hasLeftChild()) {
+                successor = successor.getLeftChild();
+            }
+            successor = successor.copy();
+            successor.setRightChild(deleteMin(node.getRightChild()));
+            successor.setLeftChild(node.getLeftChild());
+            node = successor;
+        }
+        return balance(node);
+    }
+
+    /**
+     * Recursively removes the first node of the subtree of the given node.
+     *
+     * @param node The root of the subtree.
+     * @return The new root of the subtree.
+     */
+    private DynamicNode deleteMin(DynamicNode node) {
+        if (!node.hasLeftChild()) {
+            return node.getRightChild();
+        }
+        node = node.copy();
+        node.setLeftChild(deleteMin(node.getLeftChild()));
+        return balance(node);
+    }
+
+    /**
+     * Updates the given node and restores the AVL balance of its subtree with rotations if needed.
+     *
+     * @param node The root of the subtree, a copy not yet in the tree.
+     * @return The new root of the subtree.
+     */
+    private DynamicNode balance(DynamicNode node) {
+        node.update();
+        int balance = getHeight(node.getLeftChild()) - getHeight(node.getRightChild());
+        if (balance > 1) {
+            DynamicNode leftChild = node.getLeftChild();
+            if (getHeight(leftChild.getLeftChild()) < getHeight(leftChild.getRightChild())) {
+                node.setLeftChild(rotateLeft(leftChild));
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            DynamicNode rightChild = node.getRightChild();
+            if (getHeight(rightChild.getRightChild()) < getHeight(rightChild.getLeftChild())) {
+                node.setRightChild(rotateRight(rightChild));
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    /**
+     * Rotates the subtree of the given node to the left.
+     *
+     * @param node The root of the subtree.
+     * @return The new root of the subtree.
+     */
+    private DynamicNode rotateLeft(DynamicNode node) {
+        node = node.copy();
+        DynamicNode rightChild = node.getRightChild().copy();
+        node.setRightChild(rightChild.getLeftChild());
+        node.update();
+        rightChild.setLeftChild(node);
+        rightChild.update();
+        return rightChild;
+    }
+
+    /**
+     * Rotates the subtree of the given node to the right.
+     *
+     * @param node The root of the subtree.
+     * @return The new root of the subtree.
+     */
+    private DynamicNode rotateRight(DynamicNode node) {
+        node = node.copy();
+        DynamicNode leftChild = node.getLeftChild().copy();
+        node.setLeftChild(leftChild.getRightChild());
+        node.update();
+        leftChild.setRightChild(node);
+        leftChild.update();
+        return leftChild;
+    }
+
+    /**
+     * Returns the height of the subtree of the given node.
+     *
+     * @param node The root of the subtree, or null.
+     * @return The height of the subtree, 0 if it is empty.
+     */
+    private static int getHeight(DynamicNode node) {
+        return node == null ? 0 : node.getHeight();
+    }
+
+    /**
+     * Compares two segments on their second value, then on their first and third values.
+     *
+     * @param first  The first segment.
+     * @param second The second segment.
+     * @return A negative value, zero or a positive value if the first segment is before, equal to or after the second.
+     */
+    private static int compare(Double[] first, Double[] second) {
+        int comparison = Double.compare(first[1], second[1]);
+        if (comparison == 0) {
+            comparison = Double.compare(first[0], second[0]);
+        }
+        if (comparison == 0) {
+            comparison = Double.compare(first[2], second[2]);
+        }
+        return comparison;
+    }
+
+    /**
+     * Returns a copy of this tree, sharing its nodes. Updating either tree does not affect the other one.
+     *
+     * @return The copy of this tree.
+     */
+    public DynamicPrioritySearchTree copy() {
+        DynamicPrioritySearchTree copy = new DynamicPrioritySearchTree();
+        copy.head = head;
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Returns the root node of the tree.
+     *
+     * @return The root node of the tree, or null if the tree is empty.
+     */
+    public DynamicNode getHead() {
+        return head;
+    }
+
+    /**
+     * Returns the number of segments in the tree.
+     *
+     * @return The number of segments in the tree.
+     */
+    public int getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,210 @@
+package tree;
+
+import java.util.ArrayList;
+import java.util.Objects;
+
+/**
+ * A priority search tree stored in parallel primitive arrays instead of Node objects, in the implicit (heap-index)
+ * order described in ImplicitPrioritySearchTree.
+ */
+public class FlatPrioritySearchTree implements ImplicitPrioritySearchTree {
+    /**
+     * The first value (start point) of the segment of each node.
+     */
+    private final double[] lows;
+    /**
+     * The second value (y-coordinate) of the segment of each node.
+     */
+    private final double[] keys;
+    /**
+     * The third value (end point) of the segment of each node.
+     */
+    private final double[] highs;
+    /**
+     * The median separating the left and right subtrees of each node.
+     */
+    private final double[] medians;
+    /**
+     * The greatest start point of the segments in the subtree of each node.
+     */
+    private final double[] maxStarts;
+    /**
+     * The lowest end point of the segments in the subtree of each node.
+     */
+    private final double[] minEnds;
+    /**
+     * Whether the segments on both sides of the median of each node have the same y-coordinate.
+     */
+    private final boolean[] areEdgesEqual;
+    /**
+     * The number of nodes in the tree.
+     */
+    private final int size;
+
+    /**
+     * Constructs a FlatPrioritySearchTree object from a list of line segments sorted on their second value.
+     *
+     * @param sortedSegments A List of Double arrays representing line segments, sorted on their second value.
+     */
+    public FlatPrioritySearchTree(ArrayList<Double[]> sortedSegments) {
+        size = sortedSegments.size();
+        lows = new double[size];
+        keys = new double[size];
+        highs = new double[size];
+        medians = new double[size];
+        maxStarts = new double[size];
+        minEnds = new double[size];
+        areEdgesEqual = new boolean[size];
+        double[] sortedLows = new double[size];
+        double[] sortedKeys = new double[size];
+        double[] sortedHighs = new double[size];
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            Double[] segment = sortedSegments.get(i);
+            sortedLows[i] = segment[0];
+            sortedKeys[i] = segment[1];
+            sortedHighs[i] = segment[2];
+            order[i] = i;
+        }
+        if (size > 0) {
+            createTree(0, order, 0, size - 1, sortedLows, sortedKeys, sortedHighs);
+        }
+        for (int i = size - 1; i >= 0; i--) {
+            maxStarts[i] = lows[i];
+            minEnds[i] = highs[i];
+            for (int child = 2 * i + 1; child <= 2 * i + 2 && child < size; child++) {
+                maxStarts[i] = Math.max(maxStarts[i], maxStarts[child]);
+                minEnds[i] = Math.min(minEnds[i], minEnds[child]);
+            }
+        }
+    }
+
+    /**
+     * Recursive algorithm filling the node at the given index from a range of sorted line segments.
+     * Chooses the leftmost segment in the range for the node, and fills its left subtree with as many of the
+     * remaining segments as it can hold, the others going to its right subtree.
+     *
+     * @param index       The index of the node to fill.
+     * @param order       The indexes of the sorted segments, rearranged during the construction.
+     * @param start       The starting index of the current range in the order array.
+     * @param end         The ending index of the current range in the order array.
+     * @param sortedLows  The first values of the sorted segments.
+     * @param sortedKeys  The second values of the sorted segments.
+     * @param sortedHighs The third values of the sorted segments.
+     */
+    private void createTree(int index, int[] order, int start, int end, double[] sortedLows, double[] sortedKeys,
+                            double[] sortedHighs) {
+        int leftmostIndex = start;
+        for (int i = start + 1; i <= end; i++) {
+            if (sortedLows[order[i]] < sortedLows[order[leftmostIndex]]) {
+                leftmostIndex = i;
+            }
+        }
+        int leftmostSegment = order[leftmostIndex];
+        System.arraycopy(order, start, order, start + 1, leftmostIndex - start);
+        order[start] = leftmostSegment;
+        lows[index] = sortedLows[leftmostSegment];
+        keys[index] = sortedKeys[leftmostSegment];
+        highs[index] = sortedHighs[leftmostSegment];
+
+        int leftChild = 2 * index + 1;
+        if (leftChild < size) {
+            int leftEnd = start + getSubtreeSize(leftChild);
+            if (leftChild + 1 < size) {
+                double firstY = sortedKeys[order[leftEnd + 1]];
+                double secondY = sortedKeys[order[leftEnd]];
+                medians[index] = (firstY + secondY) / 2;
+                areEdgesEqual[index] = Objects.equals(firstY, secondY);
+                createTree(leftChild + 1, order, leftEnd + 1, end, sortedLows, sortedKeys, sortedHighs);
+            }
+            createTree(leftChild, order, start + 1, leftEnd, sortedLows, sortedKeys, sortedHighs);
+        }
+    }
+
+    /**
+     * Returns the number of nodes in the tree.
+     *
+     * @return The number of nodes in the tree.
+     */
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the first value (start point) of the segment of the given node.
+     *
+     * @param index The index of the node.
+     * @return The first value of the segment of the node.
+     */
+    @Override
+    public double getLow(int index) {
+        return lows[index];
+    }
+
+    /**
+     * Returns the second value (y-coordinate) of the segment of the given node.
+     *
+     * @param index The index of the node.
+     * @return The second value of the segment of the node.
+     */
+    @Override
+    public double getKey(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Returns the third value (end point) of the segment of the given node.
+     *
+     * @param index The index of the node.
+     * @return The third value of the segment of the node.
+     */
+    @Override
+    public double getHigh(int index) {
+        return highs[index];
+    }
+
+    /**
+     * Returns the median of the given node.
+     *
+     * @param index The index of the node.
+     * @return The median of the node.
+     */
+    @Override
+    public double getMedian(int index) {
+        return medians[index];
+    }
+
+    /**
+     * Returns the greatest first value (start point) of the segments in the subtree of the given node.
+     *
+     * @param index The index of the node.
+     * @return The greatest start point in the subtree of the node.
+     */
+    @Override
+    public double getMaxStart(int index) {
+        return maxStarts[index];
+    }
+
+    /**
+     * Returns the lowest third value (end point) of the segments in the subtree of the given node.
+     *
+     * @param index The index of the node.
+     * @return The lowest end point in the subtree of the node.
+     */
+    @Override
+    public double getMinEnd(int index) {
+        return minEnds[index];
+    }
+
+    /**
+     * Returns whether the edges of the given node are equal.
+     *
+     * @param index The index of the node.
+     * @return true if the edges of the node are equal, false otherwise
+     */
+    @Override
+    public boolean areEdgesNotEqual(int index) {
+        return !areEdgesEqual[index];
+    }
+}
@@ -0,0 +1,122 @@
+package tree;
+
+/**
+ * A priority search tree stored in implicit (heap-index) order, as a complete binary tree: the children of the node at
+ * index i are at indexes 2i + 1 and 2i + 2, and a node exists as long as its index is lower than the size of the
+ * tree. Each node holds the leftmost segment of its subtree and the median y-coordinate separating its left and right
+ * subtrees, along with the greatest start point and the lowest end point of the segments of its subtree. The segments
+ * are normalized, so their fourth value is equal to the second one and is not stored.
+ */
+public interface ImplicitPrioritySearchTree {
+    /**
+     * Returns the number of nodes in the tree.
+     *
+     * @return The number of nodes in the tree.
+     */
+    int getSize();
+
+    /**
+     * Returns the first value (start point) of the segment of the given node.
+     *
+     * @param index The index of the node.
+     * @return The first value of the segment of the node.
+     */
+    double getLow(int index);
+
+    /**
+     * Returns the second value (y-coordinate) of the segment of the given node.
+     *
+     * @param index The index of the node.
+     * @return The second value of the segment of the node.
+     */
+    double getKey(int index);
+
+    /**
+     * Returns the third value (end point) of the segment of the given node.
+     *
+     * @param index The index of the node.
+     * @return The third value of the segment of the node.
+     */
+    double getHigh(int index);
+
+    /**
+     * Returns the median of the given node.
+     *
+     * @param index The index of the node.
+     * @return The median of the node.
+     */
+    double getMedian(int index);
+
+    /**
+     * Returns the greatest first value (start point) of the segments in the subtree of the given node.
+     *
+     * @param index The index of the node.
+     * @return The greatest start point in the subtree of the node.
+     */
+    double getMaxStart(int index);
+
+    /**
+     * Returns the lowest third value (end point) of the segments in the subtree of the given node.
+     *
+     * @param index The index of the node.
+     * @return The lowest end point in the subtree of the node.
+     */
+    double getMinEnd(int index);
+
+    /**
+     * Returns whether the edges of the given node are equal.
+     *
+     * @param index The index of the node.
+     * @return true if the edges of the node are equal, false otherwise
+     */
+    boolean areEdgesNotEqual(int index);
+
+    /**
+     * Returns whether the given node has a left child.
+     *
+     * @param index The index of the node.
+     * @return true if the node has a left child, false otherwise
+     */
+    default boolean hasLeftChild(int index) {
+        return 2 * index + 1 < getSize();
+    }
+
+    /**
+     * Returns whether the given node has a right child.
+     *
+     * @param index The index of the node.
+     * @return true if the node has a right child, false otherwise
+     */
+    default boolean hasRightChild(int index) {
+        return 2 * index + 2 < getSize();
+    }
+
+    /**
+     * Returns the number of nodes in the subtree rooted at the given node, from the size of the tree.
+     *
+     * @param index The index of the root of the subtree.
+     * @return The number of nodes in the subtree.
+     */
+    default int getSubtreeSize(int index) {
+        int size = getSize();
+        int subtreeSize = 0;
+        long first = index;
+        long last = index;
+        while (first < size) {
+            subtreeSize += (int) (Math.min(last, size - 1) - first + 1);
+            first = 2 * first + 1;
+            last = 2 * last + 2;
+        }
+        return subtreeSize;
+    }
+
+    /**
+     * Returns the number of pages the current thread read from the disk for this tree, for the trees stored in pages
+     * on disk.
+     *
+     * @return The number of pages read by the current thread, always 0 for the trees held in memory.
+     */
+    default long getPageReads() {
+        return 0;
+    }
+}
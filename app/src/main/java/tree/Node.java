@@ -2,6 +2,8 @@ package tree;
 
 /**
  * This class represents a node in a priority search tree.
+ * Nodes are only set while their tree is built, so that a built tree is never modified and can be searched by several
+ * threads at once. The segment of a node is shared with the tree and must not be modified.
  */
 public class Node {
     private Double[] segment;
@@ -11,11 +13,14 @@ public class Node {
     private boolean hasLeftChild;
     private Node rightChild;
     private boolean hasRightChild;
+    private int size;
+    private double maxStart;
+    private double minEnd;
 
     /**
      * Constructs a new instance of Node with default values.
      */
-    public Node() {
+    Node() {
     }
 
     /**
@@ -32,7 +37,7 @@ public class Node {
      *
      * @param segment the new segment of this node
      */
-    public void setSegment(Double[] segment) {
+    void setSegment(Double[] segment) {
         this.segment = segment;
     }
 
@@ -50,7 +55,7 @@ public class Node {
      *
      * @param median the new median of this node
      */
-    public void setMedian(double median) {
+    void setMedian(double median) {
         this.median = median;
     }
 
@@ -68,7 +73,7 @@ public class Node {
      *
      * @param areEdgesEqual true if the edges of this node are equal, false otherwise
      */
-    public void setAreEdgesEqual(boolean areEdgesEqual) {
+    void setAreEdgesEqual(boolean areEdgesEqual) {
         this.areEdgesEqual = areEdgesEqual;
     }
 
@@ -86,7 +91,7 @@ public class Node {
      *
      * @param leftChild the new left child of this node
      */
-    public void setLeftChild(Node leftChild) {
+    void setLeftChild(Node leftChild) {
         this.leftChild = leftChild;
         hasLeftChild = true;
     }
@@ -105,7 +110,7 @@ public class Node {
      *
      * @param rightChild the new right child of this node
      */
-    public void setRightChild(Node rightChild) {
+    void setRightChild(Node rightChild) {
         this.rightChild = rightChild;
         hasRightChild = true;
     }
@@ -127,4 +132,51 @@ public class Node {
     public boolean hasRightChild() {
         return hasRightChild;
     }
+
+    /**
+     * Returns the number of segments in the subtree of this node.
+     *
+     * @return the number of segments in the subtree of this node
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the largest start point of the segments in the subtree of this node.
+     *
+     * @return the largest start point of the segments in the subtree of this node
+     */
+    public double getMaxStart() {
+        return maxStart;
+    }
+
+    /**
+     * Returns the smallest end point of the segments in the subtree of this node.
+     *
+     * @return the smallest end point of the segments in the subtree of this node
+     */
+    public double getMinEnd() {
+        return minEnd;
+    }
+
+    /**
+     * Recomputes the number of segments, the largest start point and the smallest end point of the subtree of this
+     * node from its segment and its children.
+     */
+    void update() {
+        size = 1;
+        maxStart = segment[0];
+        minEnd = segment[2];
+        if (hasLeftChild) {
+            size += leftChild.size;
+            maxStart = Math.max(maxStart, leftChild.maxStart);
+            minEnd = Math.min(minEnd, leftChild.minEnd);
+        }
+        if (hasRightChild) {
+            size += rightChild.size;
+            maxStart = Math.max(maxStart, rightChild.maxStart);
+            minEnd = Math.min(minEnd, rightChild.minEnd);
+        }
+    }
 }
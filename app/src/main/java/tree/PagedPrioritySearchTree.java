@@ -0,0 +1,301 @@
+package tree;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A priority search tree stored on disk in fixed-size pages, read through a BlockCache, for trees larger than the
+ * memory.
+ * Each page packs a subtree of several levels of the implicit (heap-index) order, so that a search reads one page for
+ * every few levels it goes down instead of one for each level. The pages are stored level by level: first the page
+ * holding the root, then the pages whose roots are the leaves of the children of the first page, and so on, each level
+ * of pages in the order of their roots. A page of k levels holds 2^k - 1 nodes, each one as a record of six
+ * little-endian doubles: the start point, the y-coordinate and the end point of its segment, its median, then the
+ * greatest start point and the lowest end point of its subtree. The records are followed by a bitset telling whether
+ * the edges of each node are equal, so that a page takes exactly 48 * 2^k bytes. The nodes beyond the size of the tree
+ * are left empty.
+ * <p>
+ * Each thread keeps the page it read last, and counts the pages it read from the disk, so that the reads of each query
+ * can be reported.
+ */
+public class PagedPrioritySearchTree implements ImplicitPrioritySearchTree {
+    /**
+     * The number of levels of a page when none is given, for pages of 6 KiB.
+     */
+    public static final int DEFAULT_LEVELS_PER_PAGE = 7;
+    /**
+     * The maximum number of levels of a page, for which the bitset of the page still fits after its records.
+     */
+    public static final int MAX_LEVELS_PER_PAGE = 8;
+    private static final int NODE_BYTES = BufferPrioritySearchTree.NODE_BYTES;
+
+    private final FileChannel channel;
+    private final long offset;
+    private final int size;
+    private final int levelsPerPage;
+    private final int pageBytes;
+    private final int flagsOffset;
+    private final long[] levelOffsets;
+    private final BlockCache cache;
+    private final ThreadLocal<Cursor> cursor = ThreadLocal.withInitial(Cursor::new);
+
+    /**
+     * Constructs a PagedPrioritySearchTree object reading its pages from the given channel through the given cache.
+     *
+     * @param channel       The channel of the file holding the pages, left open as long as the tree is used.
+     * @param offset        The position of the first page in the file.
+     * @param size          The number of nodes in the tree.
+     * @param levelsPerPage The number of levels of a page.
+     * @param cache         The cache of the pages, whose blocks are the size of a page.
+     */
+    public PagedPrioritySearchTree(FileChannel channel, long offset, int size, int levelsPerPage, BlockCache cache) {
+        if (cache.getBlockBytes() != getPageBytes(levelsPerPage)) {
+            throw new IllegalArgumentException("The blocks of the cache are not the size of a page");
+        }
+        this.channel = channel;
+        this.offset = offset;
+        this.size = size;
+        this.levelsPerPage = levelsPerPage;
+        this.pageBytes = getPageBytes(levelsPerPage);
+        this.flagsOffset = ((1 << levelsPerPage) - 1) * NODE_BYTES;
+        this.levelOffsets = getLevelOffsets(levelsPerPage);
+        this.cache = cache;
+    }
+
+    /**
+     * Returns the number of bytes of a page of the given number of levels.
+     *
+     * @param levelsPerPage The number of levels of a page.
+     * @return The number of bytes of a page.
+     * @throws IllegalArgumentException if the number of levels is not between 1 and MAX_LEVELS_PER_PAGE
+     */
+    public static int getPageBytes(int levelsPerPage) {
+        if (levelsPerPage < 1 || levelsPerPage > MAX_LEVELS_PER_PAGE) {
+            throw new IllegalArgumentException("Invalid number of levels per page: " + levelsPerPage);
+        }
+        return NODE_BYTES << levelsPerPage;
+    }
+
+    /**
+     * Returns the number of bytes taken by the pages of a tree of the given size.
+     *
+     * @param size          The number of nodes in the tree.
+     * @param levelsPerPage The number of levels of a page.
+     * @return The number of bytes taken by the tree.
+     */
+    public static long getByteSize(int size, int levelsPerPage) {
+        return getPagesNumber(size, levelsPerPage) * getPageBytes(levelsPerPage);
+    }
+
+    /**
+     * Returns the number of pages of a tree of the given size.
+     *
+     * @param size          The number of nodes in the tree.
+     * @param levelsPerPage The number of levels of a page.
+     * @return The number of pages of the tree.
+     */
+    private static long getPagesNumber(int size, int levelsPerPage) {
+        if (size == 0) {
+            return 0;
+        }
+        long[] levelOffsets = getLevelOffsets(levelsPerPage);
+        int depth = 31 - Integer.numberOfLeadingZeros(size);
+        int level = depth / levelsPerPage;
+        long firstRoot = 1L << (level * levelsPerPage);
+        return levelOffsets[level] + Math.min(2 * firstRoot - 1, size) - firstRoot + 1;
+    }
+
+    /**
+     * Returns the number of the first page of each level of pages, as if every level of pages was full.
+     *
+     * @param levelsPerPage The number of levels of a page.
+     * @return The number of the first page of each level of pages.
+     */
+    private static long[] getLevelOffsets(int levelsPerPage) {
+        long[] levelOffsets = new long[31 / levelsPerPage + 2];
+        for (int level = 1; level < levelOffsets.length; level++) {
+            levelOffsets[level] = levelOffsets[level - 1] + (1L << ((level - 1) * levelsPerPage));
+        }
+        return levelOffsets;
+    }
+
+    /**
+     * Writes the given tree to the channel as pages, in the layout read by this class.
+     *
+     * @param tree          The tree to write.
+     * @param levelsPerPage The number of levels of a page.
+     * @param channel       The channel to write to.
+     * @throws IOException if an I/O error occurs
+     */
+    public static void write(ImplicitPrioritySearchTree tree, int levelsPerPage, WritableByteChannel channel)
+            throws IOException {
+        int size = tree.getSize();
+        int pageBytes = getPageBytes(levelsPerPage);
+        int nodesPerPage = (1 << levelsPerPage) - 1;
+        long[] levelOffsets = getLevelOffsets(levelsPerPage);
+        ByteBuffer page = ByteBuffer.allocate(pageBytes).order(ByteOrder.LITTLE_ENDIAN);
+        long pagesNumber = getPagesNumber(size, levelsPerPage);
+        int level = 0;
+        for (long pageNumber = 0; pageNumber < pagesNumber; pageNumber++) {
+            while (pageNumber >= levelOffsets[level + 1]) {
+                level++;
+            }
+            long root = (1L << (level * levelsPerPage)) + pageNumber - levelOffsets[level];
+            page.clear();
+            page.put(new byte[pageBytes]);
+            for (int slot = 0; slot < nodesPerPage; slot++) {
+                int localDepth = 31 - Integer.numberOfLeadingZeros(slot + 1);
+                long index = (root << localDepth) + (slot + 1 - (1 << localDepth)) - 1;
+                if (index < size) {
+                    int node = (int) index;
+                    page.putDouble(slot * NODE_BYTES, tree.getLow(node))
+                            .putDouble(slot * NODE_BYTES + Double.BYTES, tree.getKey(node))
+                            .putDouble(slot * NODE_BYTES + 2 * Double.BYTES, tree.getHigh(node))
+                            .putDouble(slot * NODE_BYTES + 3 * Double.BYTES, tree.getMedian(node))
+                            .putDouble(slot * NODE_BYTES + 4 * Double.BYTES, tree.getMaxStart(node))
+                            .putDouble(slot * NODE_BYTES + 5 * Double.BYTES, tree.getMinEnd(node));
+                    if (!tree.areEdgesNotEqual(node)) {
+                        int flag = nodesPerPage * NODE_BYTES + (slot >>> 3);
+                        page.put(flag, (byte) (page.get(flag) | (1 << (slot & 7))));
+                    }
+                }
+            }
+            page.flip();
+            while (page.hasRemaining()) {
+                channel.write(page);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of pages the current thread read from the disk for this tree, the other pages it used having
+     * been found in the cache.
+     *
+     * @return The number of pages read by the current thread.
+     */
+    @Override
+    public long getPageReads() {
+        return cursor.get().reads;
+    }
+
+    /**
+     * Returns the cache of the pages.
+     *
+     * @return The cache of the pages.
+     */
+    public BlockCache getCache() {
+        return cache;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public double getLow(int index) {
+        Cursor current = locate(index);
+        return current.page.getDouble(current.slot * NODE_BYTES);
+    }
+
+    @Override
+    public double getKey(int index) {
+        Cursor current = locate(index);
+        return current.page.getDouble(current.slot * NODE_BYTES + Double.BYTES);
+    }
+
+    @Override
+    public double getHigh(int index) {
+        Cursor current = locate(index);
+        return current.page.getDouble(current.slot * NODE_BYTES + 2 * Double.BYTES);
+    }
+
+    @Override
+    public double getMedian(int index) {
+        Cursor current = locate(index);
+        return current.page.getDouble(current.slot * NODE_BYTES + 3 * Double.BYTES);
+    }
+
+    @Override
+    public double getMaxStart(int index) {
+        Cursor current = locate(index);
+        return current.page.getDouble(current.slot * NODE_BYTES + 4 * Double.BYTES);
+    }
+
+    @Override
+    public double getMinEnd(int index) {
+        Cursor current = locate(index);
+        return current.page.getDouble(current.slot * NODE_BYTES + 5 * Double.BYTES);
+    }
+
+    @Override
+    public boolean areEdgesNotEqual(int index) {
+        Cursor current = locate(index);
+        return (current.page.get(flagsOffset + (current.slot >>> 3)) & (1 << (current.slot & 7))) == 0;
+    }
+
+    /**
+     * Points the cursor of the current thread to the page holding the given node, reading the page from the cache or
+     * from the disk if it is not the page the thread read last.
+     *
+     * @param index The index of the node.
+     * @return The cursor of the current thread, holding the page and the slot of the node in the page.
+     * @throws UncheckedIOException if the page cannot be read
+     */
+    private Cursor locate(int index) {
+        Cursor current = cursor.get();
+        int node = index + 1;
+        int depth = 31 - Integer.numberOfLeadingZeros(node);
+        int level = depth / levelsPerPage;
+        int localDepth = depth - level * levelsPerPage;
+        int root = node >>> localDepth;
+        long position = offset + (levelOffsets[level] + root - (1L << (level * levelsPerPage))) * pageBytes;
+        if (position != current.position) {
+            ByteBuffer page = cache.get(position);
+            if (page == null) {
+                page = read(position);
+                cache.put(position, page);
+                current.reads++;
+            }
+            current.page = page;
+            current.position = position;
+        }
+        current.slot = (node - (root << localDepth)) + (1 << localDepth) - 1;
+        return current;
+    }
+
+    /**
+     * Reads the page at the given position from the disk.
+     *
+     * @param position The position of the page in the file.
+     * @return The page.
+     * @throws UncheckedIOException if the page cannot be read
+     */
+    private ByteBuffer read(long position) {
+        ByteBuffer page = ByteBuffer.allocate(pageBytes).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            while (page.hasRemaining()) {
+                if (channel.read(page, position + page.position()) < 0) {
+                    throw new IOException("Truncated page at " + position);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return page;
+    }
+
+    /**
+     * The page a thread read last, and the number of pages it read from the disk.
+     */
+    private static final class Cursor {
+        private long position = -1;
+        private ByteBuffer page;
+        private int slot;
+        private long reads;
+    }
+}
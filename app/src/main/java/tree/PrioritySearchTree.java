@@ -1,86 +1,157 @@
 package tree;
 
-import tools.LinkedNode;
+import metrics.WindowingMetrics;
 import tools.SegmentsList;
 
+import java.util.ArrayList;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * A priority search tree implementation for line segments.
  * Uses a recursive construction algorithm to build a priority search tree
  * with each node containing a line segment and its median y-coordinate.
+ * The segments are expected to be sorted on their y-coordinate before the construction.
  */
 public class PrioritySearchTree {
+    /**
+     * The number of segments under which a subtree is built sequentially in the parallel construction.
+     */
+    public static final int PARALLEL_THRESHOLD = 8192;
 
     private final Node head;
 
     /**
-     * Constructs a PrioritySearchTree object from a list of line segments.
+     * Constructs a PrioritySearchTree object from the remaining segments of a list of line segments.
      *
      * @param segments A List of Double arrays representing line segments.
      *                 Each Double array contains two values representing the start and end points of a line segment.
      */
     public PrioritySearchTree(SegmentsList segments) {
-        head = createTree(segments, segments.getInitialSize() - 1);
+        this(segments.toArray());
     }
 
     /**
-     * Recursive algorithm to create a balanced binary search tree from a list of line segments.
-     * Chooses the leftmost segment in the list as the root node and constructs subtrees from the remaining segments.
+     * Constructs a PrioritySearchTree object from a list of line segments already sorted on their second value.
+     * The list itself is left untouched.
      *
-     * @param segments A List of Double arrays representing line segments.
-     * @param end      The ending index of the current list of segments to be processed.
+     * @param sortedSegments A List of Double arrays representing line segments, sorted on their second value.
+     */
+    public PrioritySearchTree(ArrayList<Double[]> sortedSegments) {
+        this(sortedSegments.toArray(new Double[0][]));
+    }
+
+    /**
+     * Constructs a PrioritySearchTree object from a list of line segments already sorted on their second value,
+     * building independent subtrees in parallel on the given pool.
+     * Subtrees smaller than PARALLEL_THRESHOLD segments are built sequentially.
+     *
+     * @param sortedSegments A List of Double arrays representing line segments, sorted on their second value.
+     * @param pool           The pool on which the subtrees are built.
+     */
+    public PrioritySearchTree(ArrayList<Double[]> sortedSegments, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        Double[][] segments = sortedSegments.toArray(new Double[0][]);
+        head = pool.invoke(new CreateTreeTask(segments, 0, segments.length - 1));
+        WindowingMetrics.getInstance().recordTreeBuild(System.nanoTime() - start);
+    }
+
+    /**
+     * Constructs a PrioritySearchTree object from an array of line segments sorted on their second value.
+     * The array is used as working space during the construction.
+     *
+     * @param segments An array of line segments, sorted on their second value.
+     */
+    private PrioritySearchTree(Double[][] segments) {
+        long start = System.nanoTime();
+        head = createTree(segments, 0, segments.length - 1);
+        WindowingMetrics.getInstance().recordTreeBuild(System.nanoTime() - start);
+    }
+
+    /**
+     * Recursive algorithm to create a balanced binary search tree from a range of sorted line segments.
+     * Chooses the leftmost segment in the range as the root node and constructs subtrees from the two halves of what
+     * remains. Each level of the tree touches every segment once, so the construction runs in O(n log n).
+     *
+     * @param segments An array of line segments, sorted on their second value.
+     * @param start    The starting index of the current range of segments to be processed.
+     * @param end      The ending index of the current range of segments to be processed.
      * @return The root node of the newly constructed binary search tree.
      */
-    private Node createTree(SegmentsList segments, int end) {
+    private static Node createTree(Double[][] segments, int start, int end) {
+        Node target = createNode(segments, start, end);
+        int remaining = end - start;
+        if (remaining == 1) {
+            target.setLeftChild(createTree(segments, end, end));
+        } else if (remaining > 1) {
+            int leftEnd = getLeftEnd(start, end);
+            target.setLeftChild(createTree(segments, start + 1, leftEnd));
+            target.setRightChild(createTree(segments, leftEnd + 1, end));
+        }
+        target.update();
+        return target;
+    }
+
+    /**
+     * Creates the node of a range of sorted line segments, without its children.
+     * Chooses the leftmost segment in the range for the node and shifts the segments before it one place to the
+     * right, so that the rest of the range stays sorted. Then sets the median between the two halves of what remains.
+     *
+     * @param segments An array of line segments, sorted on their second value.
+     * @param start    The starting index of the current range of segments to be processed.
+     * @param end      The ending index of the current range of segments to be processed.
+     * @return The node of the range.
+     */
+    private static Node createNode(Double[][] segments, int start, int end) {
         Node target = new Node();
-        int index = (end / 2);
-        LinkedNode[] usefulNodes = getUsefulNodes(segments, end, index + end%2);
-        target.setSegment(usefulNodes[0].getItem());
-        segments.remove(usefulNodes[0]);
-        if (end == 1) {
-            target.setLeftChild(createTree(segments, 0));
-        } else if (end > 1) {
-            double firstY = usefulNodes[1].getItem()[1];
-            double secondY = usefulNodes[1].getPrev().getItem()[1];
+        int leftmostIndex = getLeftmostIndex(segments, start, end);
+        Double[] leftmostSegment = segments[leftmostIndex];
+        System.arraycopy(segments, start, segments, start + 1, leftmostIndex - start);
+        segments[start] = leftmostSegment;
+        target.setSegment(leftmostSegment);
+        if (end - start > 1) {
+            int leftEnd = getLeftEnd(start, end);
+            double firstY = segments[leftEnd + 1][1];
+            double secondY = segments[leftEnd][1];
             target.setMedian((firstY + secondY) / 2);
             if (Objects.equals(firstY, secondY)) {
                 target.setAreEdgesEqual(true);
             }
-            target.setLeftChild(createTree(segments, index - 1 + end%2));
-            target.setRightChild(createTree(segments, index - 1));
         }
         return target;
     }
 
     /**
-     * Returns the leftmost segment in the list and the segment at the given index.
+     * Returns the ending index of the left subtree of a range, once its leftmost segment has been moved to its start.
      *
-     * @param segments A List of Double arrays representing line segments.
-     * @param end      The ending index of the current list of segments to be processed.
-     * @param index    The index of the segment to be returned.
-     * @return An array containing the leftmost segment and the segment at the given index.
+     * @param start The starting index of the range.
+     * @param end   The ending index of the range.
+     * @return The ending index of the left subtree.
      */
-    private LinkedNode[] getUsefulNodes(SegmentsList segments, int end, int index) {
-        int leftmostSegmentIndex = 0;
-        LinkedNode node = segments.get(0);
-        LinkedNode leftmostNode = node;
-        LinkedNode indexNode = node;
-        for (int i = 1; i < end + 1; i++) {
-            LinkedNode nextNode = node.getNext();
-            if (nextNode.getItem()[0] < leftmostNode.getItem()[0]) {
-                leftmostSegmentIndex = i;
-                leftmostNode = nextNode;
-            }
-            if (i == index) {
-                indexNode = nextNode;
+    private static int getLeftEnd(int start, int end) {
+        return start + (end - start + 1) / 2;
+    }
+
+    /**
+     * Returns the index of the leftmost segment in the given range. On equal values, the first one is chosen.
+     *
+     * @param segments An array of line segments.
+     * @param start    The starting index of the range.
+     * @param end      The ending index of the range.
+     * @return The index of the leftmost segment in the range.
+     */
+    private static int getLeftmostIndex(Double[][] segments, int start, int end) {
+        int leftmostIndex = start;
+        double leftmostX = segments[start][0];
+        for (int i = start + 1; i <= end; i++) {
+            double x = segments[i][0];
+            if (x < leftmostX) {
+                leftmostIndex = i;
+                leftmostX = x;
             }
-            node = nextNode;
         }
-        if (leftmostSegmentIndex <= index) {
-            indexNode = indexNode.getNext();
-        }
-        return new LinkedNode[]{leftmostNode, indexNode};
+        return leftmostIndex;
     }
 
     /**
@@ -91,4 +162,42 @@ public class PrioritySearchTree {
     public Node getHead() {
         return head;
     }
+
+    /**
+     * A task building the subtree of a range of sorted line segments, forking the construction of its right subtree.
+     */
+    private static class CreateTreeTask extends RecursiveTask<Node> {
+        private static final long serialVersionUID = 1L;
+        private final Double[][] segments;
+        private final int start;
+        private final int end;
+
+        /**
+         * Constructs a new CreateTreeTask object.
+         *
+         * @param segments An array of line segments, sorted on their second value.
+         * @param start    The starting index of the range of segments to be processed.
+         * @param end      The ending index of the range of segments to be processed.
+         */
+        CreateTreeTask(Double[][] segments, int start, int end) {
+            this.segments = segments;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Node compute() {
+            if (end - start < PARALLEL_THRESHOLD) {
+                return createTree(segments, start, end);
+            }
+            Node target = createNode(segments, start, end);
+            int leftEnd = getLeftEnd(start, end);
+            CreateTreeTask rightTask = new CreateTreeTask(segments, leftEnd + 1, end);
+            rightTask.fork();
+            target.setLeftChild(new CreateTreeTask(segments, start + 1, leftEnd).compute());
+            target.setRightChild(rightTask.join());
+            target.update();
+            return target;
+        }
+    }
 }
@@ -0,0 +1,102 @@
+package windowing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The BatchResult class holds the segments reported for a batch of windows. All the segments are stored in one shared
+ * buffer of coordinates, four per segment (x1, y1, x2, y2), grouped by window: the segments of a window are the
+ * segments between its offset and the offset of the next window.
+ */
+public final class BatchResult {
+    private final double[] coordinates;
+    private final int[] offsets;
+
+    /**
+     * Constructs a new BatchResult object.
+     *
+     * @param coordinates the coordinates of the reported segments, grouped by window
+     * @param offsets     the index of the first segment of each window, followed by the total number of segments
+     */
+    BatchResult(double[] coordinates, int[] offsets) {
+        this.coordinates = coordinates;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Packs the segments reported for each window of a batch into one shared buffer.
+     *
+     * @param segments the segments reported for each window, in the order of the windows
+     * @return the segments reported for each window, as offset ranges into one shared buffer
+     */
+    static BatchResult of(List<? extends List<Double[]>> segments) {
+        int[] offsets = new int[segments.size() + 1];
+        for (int i = 0; i < segments.size(); i++) {
+            offsets[i + 1] = offsets[i] + segments.get(i).size();
+        }
+        double[] coordinates = new double[4 * offsets[segments.size()]];
+        int i = 0;
+        for (List<Double[]> windowSegments : segments) {
+            for (Double[] segment : windowSegments) {
+                coordinates[i++] = segment[0];
+                coordinates[i++] = segment[1];
+                coordinates[i++] = segment[2];
+                coordinates[i++] = segment[3];
+            }
+        }
+        return new BatchResult(coordinates, offsets);
+    }
+
+    /**
+     * Returns the number of windows of the batch.
+     *
+     * @return the number of windows of the batch
+     */
+    public int getWindowsNumber() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Returns the index, in the shared buffer, of the first segment reported for the given window.
+     *
+     * @param window the index of the window in the batch
+     * @return the index of the first segment of the window
+     */
+    public int getOffset(int window) {
+        return offsets[window];
+    }
+
+    /**
+     * Returns the number of segments reported for the given window.
+     *
+     * @param window the index of the window in the batch
+     * @return the number of segments of the window
+     */
+    public int getCount(int window) {
+        return offsets[window + 1] - offsets[window];
+    }
+
+    /**
+     * Returns the shared buffer holding the coordinates of all the reported segments. The segment at index i is stored
+     * from index 4i to index 4i + 3.
+     *
+     * @return the shared buffer of coordinates
+     */
+    public double[] getCoordinates() {
+        return coordinates;
+    }
+
+    /**
+     * Copies the segments reported for the given window into a list.
+     *
+     * @param window the index of the window in the batch
+     * @return an ArrayList of Double arrays containing the segments of the window
+     */
+    public ArrayList<Double[]> getSegments(int window) {
+        ArrayList<Double[]> segments = new ArrayList<>(getCount(window));
+        for (int i = 4 * offsets[window]; i < 4 * offsets[window + 1]; i += 4) {
+            segments.add(new Double[]{coordinates[i], coordinates[i + 1], coordinates[i + 2], coordinates[i + 3]});
+        }
+        return segments;
+    }
+}
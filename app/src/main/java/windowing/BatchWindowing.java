@@ -0,0 +1,290 @@
+package windowing;
+
+import tree.Node;
+import tree.PrioritySearchTree;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class answers a batch of windows on a pair of priority search trees.
+ * The windows are sorted on their bottom bound and split into chunks answered in parallel. Within a chunk, the trees
+ * are traversed once for all the windows: each node is visited with the list of the windows that reach it and the
+ * kind of search each of them is doing there, which is the same decision WindowingAlgorithm takes for a single window.
+ */
+final class BatchWindowing {
+    /**
+     * The kinds of search a window can be doing at a node, matching searchVSplit, topBoundSearch, bottomBoundSearch
+     * and searchInSubtree in WindowingAlgorithm.
+     */
+    private static final byte SPLIT = 0, TOP = 1, BOTTOM = 2, ALL = 3;
+    /**
+     * The number of windows traversing the trees together.
+     */
+    private static final int CHUNK_SIZE = 64;
+
+    private final PrioritySearchTree vTree, hTree;
+    private final Double[][] windows;
+    private final Double[] maxBounds;
+    private final Integer[] order;
+    private final Chunk[] chunks;
+
+    private BatchWindowing(PrioritySearchTree vTree, PrioritySearchTree hTree, Double[][] windows,
+                           Double[] maxBounds) {
+        this.vTree = vTree;
+        this.hTree = hTree;
+        this.windows = windows;
+        this.maxBounds = maxBounds;
+        this.order = new Integer[windows.length];
+        for (int i = 0; i < windows.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(window -> windows[window][0]));
+        this.chunks = new Chunk[(windows.length + CHUNK_SIZE - 1) / CHUNK_SIZE];
+    }
+
+    /**
+     * Answers a batch of windows on the given priority search trees.
+     *
+     * @param vTree     vertical priority search tree
+     * @param hTree     horizontal priority search tree
+     * @param windows   the windows, each one consisting of bottom, top, left and right bounds
+     * @param maxBounds maximum bounding box array consisting of bottom, top, left and right bounds
+     * @param pool      the pool on which the chunks of windows are answered
+     * @return the segments reported for each window
+     */
+    static BatchResult launch(PrioritySearchTree vTree, PrioritySearchTree hTree, Double[][] windows,
+                              Double[] maxBounds, ForkJoinPool pool) {
+        BatchWindowing batch = new BatchWindowing(vTree, hTree, windows, maxBounds);
+        if (batch.chunks.length > 0) {
+            pool.invoke(batch.new ChunksTask(0, batch.chunks.length));
+        }
+        return batch.gather();
+    }
+
+    /**
+     * Groups the segments reported by all the chunks by window into one shared buffer.
+     *
+     * @return the segments reported for each window
+     */
+    private BatchResult gather() {
+        int[] offsets = new int[windows.length + 1];
+        for (Chunk chunk : chunks) {
+            for (int i = 0; i < chunk.hitsNumber; i++) {
+                offsets[chunk.windowIndexes[chunk.hitWindows[i]] + 1]++;
+            }
+        }
+        for (int i = 0; i < windows.length; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        double[] coordinates = new double[4 * offsets[windows.length]];
+        int[] positions = Arrays.copyOf(offsets, windows.length);
+        for (Chunk chunk : chunks) {
+            for (int i = 0; i < chunk.hitsNumber; i++) {
+                int position = 4 * positions[chunk.windowIndexes[chunk.hitWindows[i]]]++;
+                System.arraycopy(chunk.hitCoordinates, 4 * i, coordinates, position, 4);
+            }
+        }
+        return new BatchResult(coordinates, offsets);
+    }
+
+    /**
+     * A task answering a range of chunks, splitting it in two until a single chunk remains.
+     */
+    private class ChunksTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int start;
+        private final int end;
+
+        ChunksTask(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > 1) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new ChunksTask(start, middle), new ChunksTask(middle, end));
+            } else {
+                int first = start * CHUNK_SIZE;
+                Chunk chunk = new Chunk(first, Math.min(windows.length, first + CHUNK_SIZE));
+                chunk.search(hTree, false);
+                chunk.search(vTree, true);
+                chunks[start] = chunk;
+            }
+        }
+    }
+
+    /**
+     * A chunk of windows traversing the trees together, with its own buffer of reported segments.
+     */
+    private class Chunk {
+        private final int[] windowIndexes;
+        private final double[] bottoms, tops, lefts, rights;
+        private int[][] leftWindows = new int[0][], rightWindows = new int[0][];
+        private byte[][] leftModes = new byte[0][], rightModes = new byte[0][];
+        private int[] hitWindows = new int[16];
+        private double[] hitCoordinates = new double[64];
+        private int hitsNumber;
+        private boolean isVertical;
+
+        /**
+         * Constructs a new Chunk object for the windows between the given positions in the sorted order.
+         *
+         * @param start the position of the first window of the chunk
+         * @param end   the position after the last window of the chunk
+         */
+        Chunk(int start, int end) {
+            windowIndexes = new int[end - start];
+            for (int i = 0; i < windowIndexes.length; i++) {
+                windowIndexes[i] = order[start + i];
+            }
+            bottoms = new double[windowIndexes.length];
+            tops = new double[windowIndexes.length];
+            lefts = new double[windowIndexes.length];
+            rights = new double[windowIndexes.length];
+        }
+
+        /**
+         * Searches the given tree for all the windows of the chunk.
+         *
+         * @param tree       the priority search tree to be searched
+         * @param isVertical flag indicating whether the search is vertical or horizontal
+         */
+        void search(PrioritySearchTree tree, boolean isVertical) {
+            this.isVertical = isVertical;
+            int offset = isVertical ? 2 : 0;
+            int[] windowsAtHead = new int[windowIndexes.length];
+            byte[] modesAtHead = new byte[windowIndexes.length];
+            for (int i = 0; i < windowIndexes.length; i++) {
+                Double[] window = windows[windowIndexes[i]];
+                bottoms[i] = window[offset];
+                tops[i] = window[offset + 1];
+                lefts[i] = window[2 - offset];
+                rights[i] = window[3 - offset];
+                boolean isBottomMax = bottoms[i] == maxBounds[offset];
+                boolean isTopMax = tops[i] == maxBounds[offset + 1];
+                windowsAtHead[i] = i;
+                modesAtHead[i] = isBottomMax ? (isTopMax ? ALL : TOP) : (isTopMax ? BOTTOM : SPLIT);
+            }
+            visit(tree.getHead(), 0, windowsAtHead, modesAtHead, windowIndexes.length);
+        }
+
+        /**
+         * Visits the given node for the given windows, reports its segment to the windows containing it, and visits
+         * its children for the windows that need them.
+         *
+         * @param node   the node to be visited
+         * @param depth  the depth of the node
+         * @param ws     the windows visiting the node
+         * @param modes  the kind of search each window is doing at the node
+         * @param number the number of windows visiting the node
+         */
+        private void visit(Node node, int depth, int[] ws, byte[] modes, int number) {
+            if (depth >= leftWindows.length) {
+                grow(depth + 1);
+            }
+            int[] lw = leftWindows[depth], rw = rightWindows[depth];
+            byte[] lm = leftModes[depth], rm = rightModes[depth];
+            int leftNumber = 0, rightNumber = 0;
+            Double[] segment = node.getSegment();
+            double start = segment[0], key = segment[1], end = segment[2];
+            double median = node.getMedian();
+            boolean areEdgesNotEqual = node.areEdgesNotEqual();
+            boolean hasLeftChild = node.hasLeftChild(), hasRightChild = node.hasRightChild();
+            for (int i = 0; i < number; i++) {
+                int w = ws[i];
+                byte mode = modes[i];
+                if (start > rights[w]) {
+                    continue;
+                }
+                if ((mode == ALL || (key >= bottoms[w] && key <= tops[w])) && end >= lefts[w]) {
+                    report(w, start, key, end);
+                }
+                if (!hasLeftChild) {
+                    continue;
+                }
+                if (!hasRightChild) {
+                    lw[leftNumber] = w;
+                    lm[leftNumber++] = mode;
+                    continue;
+                }
+                boolean isBelow = median < bottoms[w] || (median == bottoms[w] && areEdgesNotEqual);
+                boolean isAbove = median > tops[w] || (median == tops[w] && areEdgesNotEqual);
+                if (mode == ALL) {
+                    lw[leftNumber] = w;
+                    lm[leftNumber++] = ALL;
+                    rw[rightNumber] = w;
+                    rm[rightNumber++] = ALL;
+                } else if (mode != TOP && isBelow) {
+                    rw[rightNumber] = w;
+                    rm[rightNumber++] = mode;
+                } else if (mode != BOTTOM && isAbove) {
+                    lw[leftNumber] = w;
+                    lm[leftNumber++] = mode;
+                } else {
+                    lw[leftNumber] = w;
+                    lm[leftNumber++] = mode == TOP ? ALL : BOTTOM;
+                    rw[rightNumber] = w;
+                    rm[rightNumber++] = mode == BOTTOM ? ALL : TOP;
+                }
+            }
+            if (leftNumber > 0) {
+                visit(node.getLeftChild(), depth + 1, lw, lm, leftNumber);
+            }
+            if (rightNumber > 0) {
+                visit(node.getRightChild(), depth + 1, rw, rm, rightNumber);
+            }
+        }
+
+        /**
+         * Adds the scratch lists of windows needed to visit nodes down to the given depth.
+         *
+         * @param depth the number of depths needing scratch lists
+         */
+        private void grow(int depth) {
+            int previousDepth = leftWindows.length;
+            leftWindows = Arrays.copyOf(leftWindows, depth);
+            rightWindows = Arrays.copyOf(rightWindows, depth);
+            leftModes = Arrays.copyOf(leftModes, depth);
+            rightModes = Arrays.copyOf(rightModes, depth);
+            for (int i = previousDepth; i < depth; i++) {
+                leftWindows[i] = new int[windowIndexes.length];
+                rightWindows[i] = new int[windowIndexes.length];
+                leftModes[i] = new byte[windowIndexes.length];
+                rightModes[i] = new byte[windowIndexes.length];
+            }
+        }
+
+        /**
+         * Adds a reported segment for the given window to the buffer of the chunk.
+         *
+         * @param window the position of the window in the chunk
+         * @param start  the start point of the segment
+         * @param key    the y-coordinate of the segment, in the coordinates of the tree
+         * @param end    the end point of the segment
+         */
+        private void report(int window, double start, double key, double end) {
+            if (hitsNumber == hitWindows.length) {
+                hitWindows = Arrays.copyOf(hitWindows, 2 * hitsNumber);
+                hitCoordinates = Arrays.copyOf(hitCoordinates, 8 * hitsNumber);
+            }
+            hitWindows[hitsNumber] = window;
+            int position = 4 * hitsNumber++;
+            if (isVertical) {
+                hitCoordinates[position] = key;
+                hitCoordinates[position + 1] = start;
+                hitCoordinates[position + 2] = key;
+                hitCoordinates[position + 3] = end;
+            } else {
+                hitCoordinates[position] = start;
+                hitCoordinates[position + 1] = key;
+                hitCoordinates[position + 2] = end;
+                hitCoordinates[position + 3] = key;
+            }
+        }
+    }
+}
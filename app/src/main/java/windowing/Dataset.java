@@ -0,0 +1,634 @@
+package windowing;
+
+import metrics.WindowingMetrics;
+import tools.Sort;
+import tree.BufferPrioritySearchTree;
+import tree.DynamicPrioritySearchTree;
+import tree.FlatPrioritySearchTree;
+import tree.ImplicitPrioritySearchTree;
+import tree.PagedPrioritySearchTree;
+import tree.PrioritySearchTree;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+/**
+ * The Dataset class holds a set of segments loaded from a file: the window size, the sorted vertical and horizontal
+ * segments and their priority search trees, either built from the segments, kept in direct buffers outside of the
+ * heap, or opened from an index file.
+ * It answers window queries without any display, and keeps the time spent on each step of the loading.
+ * A dataset is never modified once loaded, so that it can be queried by several threads at once. Inserting or deleting
+ * a segment returns a new dataset holding dynamic trees, which share with the previous ones all their nodes but the
+ * ones on the updated path.
+ * <p>
+ * A dataset opened from a paged index file keeps the file open for its pages, along with the datasets obtained by
+ * updating it, until it is closed.
+ */
+public final class Dataset implements Closeable {
+    private final double min_x, max_x, min_y, max_y;
+    private final PrioritySearchTree vTree, hTree;
+    private final ImplicitPrioritySearchTree vIndexTree, hIndexTree;
+    private final DynamicPrioritySearchTree vDynamicTree, hDynamicTree;
+    private final ArrayList<Double[]> vSortedSegments, hSortedSegments;
+    private final boolean isIndexed;
+    private final int segmentsNumber;
+    private final long readTime, sortTime, buildTime;
+    private final IndexFile.SegmentsStamp segmentsStamp;
+    private final Closeable source;
+
+    private Dataset(double min_x, double max_x, double min_y, double max_y, PrioritySearchTree vTree,
+                    PrioritySearchTree hTree, ImplicitPrioritySearchTree vIndexTree,
+                    ImplicitPrioritySearchTree hIndexTree, DynamicPrioritySearchTree vDynamicTree,
+                    DynamicPrioritySearchTree hDynamicTree, ArrayList<Double[]> vSortedSegments,
+                    ArrayList<Double[]> hSortedSegments, boolean isIndexed, long readTime, long sortTime,
+                    long buildTime, IndexFile.SegmentsStamp segmentsStamp, Closeable source) {
+        this.min_x = min_x;
+        this.max_x = max_x;
+        this.min_y = min_y;
+        this.max_y = max_y;
+        this.vTree = vTree;
+        this.hTree = hTree;
+        this.vIndexTree = vIndexTree;
+        this.hIndexTree = hIndexTree;
+        this.vDynamicTree = vDynamicTree;
+        this.hDynamicTree = hDynamicTree;
+        this.vSortedSegments = vSortedSegments;
+        this.hSortedSegments = hSortedSegments;
+        this.isIndexed = isIndexed;
+        if (vDynamicTree != null) {
+            this.segmentsNumber = vDynamicTree.getSize() + hDynamicTree.getSize();
+        } else if (vIndexTree != null) {
+            this.segmentsNumber = vIndexTree.getSize() + hIndexTree.getSize();
+        } else {
+            this.segmentsNumber = vSortedSegments.size() + hSortedSegments.size();
+        }
+        this.readTime = readTime;
+        this.sortTime = sortTime;
+        this.buildTime = buildTime;
+        this.segmentsStamp = segmentsStamp;
+        this.source = source;
+    }
+
+    /**
+     * Loads the given file. If the file is a paged index file, its trees are read from its pages on demand. If the
+     * file is an index file, or if an index file built from the file with its current length and modification time
+     * exists next to it, the trees are opened from the index file. Otherwise, the text or binary segments file is read.
+     *
+     * @param file the segments file or index file
+     * @return the loaded dataset
+     * @throws IOException if an I/O error occurs or if the file is not valid
+     */
+    public static Dataset read(File file) throws IOException {
+        return read(file, false);
+    }
+
+    /**
+     * Loads the given file like read, keeping the trees built from a segments file outside of the Java heap if asked.
+     * The trees opened from an index file are always mapped from the file, outside of the heap.
+     *
+     * @param file      the segments file or index file
+     * @param isOffHeap flag indicating whether the trees built from a segments file are kept in direct buffers
+     * @return the loaded dataset
+     * @throws IOException if an I/O error occurs or if the file is not valid
+     */
+    public static Dataset read(File file, boolean isOffHeap) throws IOException {
+        if (PagedIndexFile.isPagedIndexFile(file)) {
+            return openPaged(file, PagedIndexFile.DEFAULT_CACHE_BYTES);
+        }
+        File indexFile = IndexFile.isIndexFile(file) ? file : IndexFile.getCachedIndex(file);
+        if (indexFile != null) {
+            return open(indexFile);
+        }
+        return parse(file, isOffHeap);
+    }
+
+    /**
+     * Reads the given segments file, sorts its segments, and builds both priority search trees concurrently. A binary
+     * segments file is read with bulk reads, while a text segments file is parsed in parallel chunks mapped in memory.
+     *
+     * @param file the text or binary segments file
+     * @return the loaded dataset
+     * @throws IOException if an I/O error occurs or if the file contains a segment that is neither horizontal nor
+     *                     vertical
+     */
+    public static Dataset parse(File file) throws IOException {
+        return parse(file, false);
+    }
+
+    /**
+     * Reads the given segments file like parse. If asked, the trees are built in implicit order then copied into direct
+     * buffers, outside of the Java heap, and neither the segments nor the nodes are kept on the heap once loaded: the
+     * heap then stays small and the garbage collector has nothing to scan while the dataset is queried. The loading
+     * itself still reads, sorts and builds the trees on the heap, so it needs as much heap as without this option.
+     *
+     * @param file      the text or binary segments file
+     * @param isOffHeap flag indicating whether the trees are kept in direct buffers
+     * @return the loaded dataset
+     * @throws IOException if an I/O error occurs or if the file contains a segment that is neither horizontal nor
+     *                     vertical
+     */
+    public static Dataset parse(File file, boolean isOffHeap) throws IOException {
+        LocalTime start = LocalTime.now();
+        IndexFile.SegmentsStamp segmentsStamp = IndexFile.SegmentsStamp.of(file);
+        double min_x, max_x, min_y, max_y;
+        ArrayList<Double[]> vArrayList, hArrayList;
+        if (SegmentsFile.isSegmentsFile(file)) {
+            SegmentsFile segmentsFile = SegmentsFile.read(file);
+            min_x = segmentsFile.getMinX();
+            max_x = segmentsFile.getMaxX();
+            min_y = segmentsFile.getMinY();
+            max_y = segmentsFile.getMaxY();
+            vArrayList = segmentsFile.getVSegments();
+            hArrayList = segmentsFile.getHSegments();
+        } else {
+            SegmentsParser parser = SegmentsParser.parse(file);
+            min_x = parser.getMinX();
+            max_x = parser.getMaxX();
+            min_y = parser.getMinY();
+            max_y = parser.getMaxY();
+            vArrayList = parser.getVSegments();
+            hArrayList = parser.getHSegments();
+        }
+        LocalTime step1 = LocalTime.now();
+        Sort sort = new Sort();
+        sort.sort(vArrayList);
+        sort.sort(hArrayList);
+        LocalTime step2 = LocalTime.now();
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        if (isOffHeap) {
+            ForkJoinTask<ImplicitPrioritySearchTree> vTreeTask = pool.submit(() -> buildOffHeap(vArrayList));
+            ImplicitPrioritySearchTree hTree = buildOffHeap(hArrayList);
+            ImplicitPrioritySearchTree vTree = vTreeTask.join();
+            LocalTime end = LocalTime.now();
+            WindowingMetrics.getInstance().recordLoad(Duration.between(start, step1).toNanos(),
+                    Duration.between(step1, step2).toNanos(), Duration.between(step2, end).toNanos());
+            return new Dataset(min_x, max_x, min_y, max_y, null, null, vTree, hTree, null, null, null, null, false,
+                    Duration.between(start, step1).toMillis(), Duration.between(step1, step2).toMillis(),
+                    Duration.between(step2, end).toMillis(), segmentsStamp, null);
+        }
+        ForkJoinTask<PrioritySearchTree> vTreeTask = pool.submit(() -> new PrioritySearchTree(vArrayList, pool));
+        PrioritySearchTree hTree = new PrioritySearchTree(hArrayList, pool);
+        PrioritySearchTree vTree = vTreeTask.join();
+        LocalTime end = LocalTime.now();
+        WindowingMetrics.getInstance().recordLoad(Duration.between(start, step1).toNanos(),
+                Duration.between(step1, step2).toNanos(), Duration.between(step2, end).toNanos());
+        return new Dataset(min_x, max_x, min_y, max_y, vTree, hTree, null, null, null, null, vArrayList, hArrayList,
+                false, Duration.between(start, step1).toMillis(), Duration.between(step1, step2).toMillis(),
+                Duration.between(step2, end).toMillis(), segmentsStamp, null);
+    }
+
+    /**
+     * Builds a tree in implicit order from the given sorted segments, and copies it into a direct buffer.
+     *
+     * @param sortedSegments the normalized segments, sorted
+     * @return the tree, held outside of the heap
+     */
+    private static ImplicitPrioritySearchTree buildOffHeap(ArrayList<Double[]> sortedSegments) {
+        long start = System.nanoTime();
+        ImplicitPrioritySearchTree tree = BufferPrioritySearchTree.allocateDirect(
+                new FlatPrioritySearchTree(sortedSegments));
+        WindowingMetrics.getInstance().recordTreeBuild(System.nanoTime() - start);
+        return tree;
+    }
+
+    /**
+     * Opens the trees from an index file, without parsing, sorting or building anything.
+     *
+     * @param indexFile the index file
+     * @return the loaded dataset
+     * @throws IOException if an I/O error occurs or if the file is not a valid index file
+     */
+    public static Dataset open(File indexFile) throws IOException {
+        LocalTime start = LocalTime.now();
+        IndexFile index = IndexFile.open(indexFile);
+        LocalTime end = LocalTime.now();
+        WindowingMetrics.getInstance().recordLoad(Duration.between(start, end).toNanos(), 0, 0);
+        return new Dataset(index.getMinX(), index.getMaxX(), index.getMinY(), index.getMaxY(), null, null,
+                index.getVTree(), index.getHTree(), null, null, null, null, true,
+                Duration.between(start, end).toMillis(), 0, 0, index.getSegmentsStamp(), null);
+    }
+
+    /**
+     * Opens the trees from a paged index file, without reading any page: the pages are read by the queries that need
+     * them, and kept in a block cache within the given byte budget. The file stays open until the dataset is closed.
+     *
+     * @param pagedIndexFile the paged index file
+     * @param cacheBytes     the byte budget of the block cache
+     * @return the loaded dataset
+     * @throws IOException if an I/O error occurs or if the file is not a valid paged index file
+     */
+    public static Dataset openPaged(File pagedIndexFile, long cacheBytes) throws IOException {
+        LocalTime start = LocalTime.now();
+        PagedIndexFile index = PagedIndexFile.open(pagedIndexFile, cacheBytes);
+        LocalTime end = LocalTime.now();
+        WindowingMetrics.getInstance().recordLoad(Duration.between(start, end).toNanos(), 0, 0);
+        return new Dataset(index.getMinX(), index.getMaxX(), index.getMinY(), index.getMaxY(), null, null,
+                index.getVTree(), index.getHTree(), null, null, null, null, true,
+                Duration.between(start, end).toMillis(), 0, 0, null, index);
+    }
+
+    /**
+     * Returns a new dataset holding the segments of this one and the given segment. On the first update of a loaded
+     * dataset, the dynamic trees are built from its sorted segments, and are used for the queries of the following
+     * datasets.
+     *
+     * @param x1 the x-coordinate of the first point of the segment
+     * @param y1 the y-coordinate of the first point of the segment
+     * @param x2 the x-coordinate of the second point of the segment
+     * @param y2 the y-coordinate of the second point of the segment
+     * @return the new dataset, or null if the segment is not horizontal or vertical, or outside the window size
+     */
+    public Dataset insertSegment(double x1, double y1, double x2, double y2) {
+        Double[] segment = normalize(x1, y1, x2, y2, min_x, max_x, min_y, max_y);
+        if (segment == null) {
+            return null;
+        }
+        DynamicPrioritySearchTree vDynamicTree = getDynamicTree(true);
+        DynamicPrioritySearchTree hDynamicTree = getDynamicTree(false);
+        if (x1 == x2) {
+            vDynamicTree.insert(segment);
+        } else {
+            hDynamicTree.insert(segment);
+        }
+        return new Dataset(min_x, max_x, min_y, max_y, vTree, hTree, vIndexTree, hIndexTree, vDynamicTree,
+                hDynamicTree, vSortedSegments, hSortedSegments, isIndexed, readTime, sortTime, buildTime,
+                segmentsStamp, source);
+    }
+
+    /**
+     * Returns a new dataset holding the segments of this one but one segment equal to the given segment. On the first
+     * update of a loaded dataset, the dynamic trees are built from its sorted segments, and are used for the queries of
+     * the following datasets.
+     *
+     * @param x1 the x-coordinate of the first point of the segment
+     * @param y1 the y-coordinate of the first point of the segment
+     * @param x2 the x-coordinate of the second point of the segment
+     * @param y2 the y-coordinate of the second point of the segment
+     * @return the new dataset, or null if the segment was not found
+     */
+    public Dataset deleteSegment(double x1, double y1, double x2, double y2) {
+        Double[] segment = normalize(x1, y1, x2, y2, min_x, max_x, min_y, max_y);
+        if (segment == null) {
+            return null;
+        }
+        DynamicPrioritySearchTree vDynamicTree = getDynamicTree(true);
+        DynamicPrioritySearchTree hDynamicTree = getDynamicTree(false);
+        if (!(x1 == x2 ? vDynamicTree.delete(segment) : hDynamicTree.delete(segment))) {
+            return null;
+        }
+        return new Dataset(min_x, max_x, min_y, max_y, vTree, hTree, vIndexTree, hIndexTree, vDynamicTree,
+                hDynamicTree, vSortedSegments, hSortedSegments, isIndexed, readTime, sortTime, buildTime,
+                segmentsStamp, source);
+    }
+
+    /**
+     * Returns a copy of the vertical or horizontal dynamic tree, built from the sorted segments if there is none yet.
+     *
+     * @param isVertical flag indicating whether the vertical or the horizontal tree is returned
+     * @return a dynamic tree that can be updated without modifying this dataset
+     */
+    private DynamicPrioritySearchTree getDynamicTree(boolean isVertical) {
+        DynamicPrioritySearchTree dynamicTree = isVertical ? vDynamicTree : hDynamicTree;
+        if (dynamicTree != null) {
+            return dynamicTree.copy();
+        }
+        return new DynamicPrioritySearchTree(isVertical ? getVSortedSegments() : getHSortedSegments());
+    }
+
+    /**
+     * Normalizes a segment the same way the segments of the file are normalized before being put in the trees.
+     *
+     * @param x1    the x-coordinate of the first point of the segment
+     * @param y1    the y-coordinate of the first point of the segment
+     * @param x2    the x-coordinate of the second point of the segment
+     * @param y2    the y-coordinate of the second point of the segment
+     * @param min_x the minimum x-coordinate of the window size
+     * @param max_x the maximum x-coordinate of the window size
+     * @param min_y the minimum y-coordinate of the window size
+     * @param max_y the maximum y-coordinate of the window size
+     * @return the normalized segment, or null if it is not horizontal or vertical, or outside the window size
+     */
+    static Double[] normalize(double x1, double y1, double x2, double y2, double min_x, double max_x, double min_y,
+                              double max_y) {
+        if (Math.min(x1, x2) < min_x || Math.max(x1, x2) > max_x || Math.min(y1, y2) < min_y || Math.max(y1, y2) > max_y)
+            return null;
+        if (x1 == x2) {
+            return y1 < y2 ? new Double[]{y1, x1, y2, x2} : new Double[]{y2, x2, y1, x1};
+        } else if (y1 == y2) {
+            return x1 < x2 ? new Double[]{x1, y1, x2, y2} : new Double[]{x2, y2, x1, y1};
+        }
+        return null;
+    }
+
+    /**
+     * Writes the index file of the segments of the dataset as loaded, without the inserted or deleted segments. The
+     * trees held in implicit order are written as they are, without reading their segments back onto the heap. The
+     * index file records the length and modification time the segments file had when it was read, so that it is only
+     * used in place of the segments file while the segments file keeps them.
+     *
+     * @param indexFile the index file to write
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeIndex(File indexFile) throws IOException {
+        if (vIndexTree != null) {
+            IndexFile.write(indexFile, min_x, max_x, min_y, max_y, vIndexTree, hIndexTree, segmentsStamp);
+        } else {
+            IndexFile.write(indexFile, min_x, max_x, min_y, max_y, new FlatPrioritySearchTree(vSortedSegments),
+                    new FlatPrioritySearchTree(hSortedSegments), segmentsStamp);
+        }
+    }
+
+    /**
+     * Writes the paged index file of the segments of the dataset as loaded, without the inserted or deleted segments,
+     * from the trees held in implicit order if there are any.
+     *
+     * @param pagedIndexFile the paged index file to write
+     * @param levelsPerPage  the number of levels of the trees packed in each page
+     * @throws IOException if an I/O error occurs
+     */
+    public void writePagedIndex(File pagedIndexFile, int levelsPerPage) throws IOException {
+        if (vIndexTree != null) {
+            PagedIndexFile.write(pagedIndexFile, min_x, max_x, min_y, max_y, vIndexTree, hIndexTree, levelsPerPage);
+        } else {
+            PagedIndexFile.write(pagedIndexFile, min_x, max_x, min_y, max_y,
+                    new FlatPrioritySearchTree(vSortedSegments), new FlatPrioritySearchTree(hSortedSegments),
+                    levelsPerPage);
+        }
+    }
+
+    /**
+     * Returns whether the given window is within the window size of the dataset.
+     *
+     * @param bounds bounding box array consisting of bottom, top, left and right bounds
+     * @return true if the window is within the window size, false otherwise
+     */
+    public boolean contains(Double[] bounds) {
+        return bounds[0] >= min_y && bounds[1] <= max_y && bounds[2] >= min_x && bounds[3] <= max_x;
+    }
+
+    /**
+     * Searches the trees for the segments within the given window.
+     *
+     * @param bounds bounding box array consisting of bottom, top, left and right bounds
+     * @return an ArrayList of Double arrays containing the segments within the window
+     */
+    public ArrayList<Double[]> launchWindowing(Double[] bounds) {
+        if (vDynamicTree != null) {
+            return new WindowingAlgorithm().launchWindowing(vDynamicTree, hDynamicTree, bounds);
+        } else if (vTree == null) {
+            return new FlatWindowingAlgorithm().launchWindowing(vIndexTree, hIndexTree, bounds, getMaxBounds());
+        }
+        return new WindowingAlgorithm().launchParallelWindowing(vTree, hTree, bounds, getMaxBounds());
+    }
+
+    /**
+     * Searches the trees for the segments within the given window, pushing each of them to the given sink.
+     *
+     * @param bounds bounding box array consisting of bottom, top, left and right bounds
+     * @param sink   the sink receiving the segments within the window
+     */
+    public void launchWindowing(Double[] bounds, SegmentSink sink) {
+        if (vDynamicTree != null) {
+            new WindowingAlgorithm().launchWindowing(vDynamicTree, hDynamicTree, bounds, sink);
+        } else if (vTree == null) {
+            new FlatWindowingAlgorithm().launchWindowing(vIndexTree, hIndexTree, bounds, getMaxBounds(), sink);
+        } else {
+            new WindowingAlgorithm().launchWindowing(vTree, hTree, bounds, getMaxBounds(), sink);
+        }
+    }
+
+    /**
+     * Searches the trees for the segments within the given window, pushing each of them to the sink of the thread
+     * finding it. The trees built from the segments are searched in parallel, with a sink per thread taking part in
+     * the search, while the other trees are searched from the calling thread, with a single sink.
+     *
+     * @param bounds      bounding box array consisting of bottom, top, left and right bounds
+     * @param sinkFactory the factory creating the sink of each thread
+     * @param <S>         the type of the sinks
+     * @return the sinks which received the segments within the window, at least one
+     */
+    public <S extends SegmentSink> Collection<S> launchParallelWindowing(Double[] bounds, Supplier<S> sinkFactory) {
+        if (vDynamicTree == null && vTree != null) {
+            Collection<S> sinks = new WindowingAlgorithm().launchParallelWindowing(vTree, hTree, bounds,
+                    getMaxBounds(), sinkFactory);
+            if (!sinks.isEmpty()) {
+                return sinks;
+            }
+        }
+        S sink = sinkFactory.get();
+        launchWindowing(bounds, sink);
+        return Collections.singletonList(sink);
+    }
+
+    /**
+     * Searches the trees for the segments within each window of a batch. The trees built from the segments are
+     * traversed once for several windows at a time, by chunks of windows answered in parallel. The other trees, read
+     * from an index file or updated since the file was read, fall back to one search per window, the windows being
+     * answered in parallel.
+     *
+     * @param windows the windows, each one consisting of bottom, top, left and right bounds
+     * @return the segments within each window, as offset ranges into one shared buffer
+     */
+    public BatchResult launchBatchWindowing(Double[][] windows) {
+        if (vDynamicTree == null && vTree != null) {
+            return new WindowingAlgorithm().launchBatchWindowing(vTree, hTree, windows, getMaxBounds());
+        }
+        return BatchResult.of(ForkJoinPool.commonPool().invoke(ForkJoinTask.adapt(() -> {
+            List<ForkJoinTask<ArrayList<Double[]>>> searches = new ArrayList<>(windows.length);
+            for (Double[] window : windows) {
+                searches.add(ForkJoinTask.adapt(() -> launchWindowing(window)));
+            }
+            ForkJoinTask.invokeAll(searches);
+            List<ArrayList<Double[]>> segments = new ArrayList<>(windows.length);
+            for (ForkJoinTask<ArrayList<Double[]>> search : searches) {
+                segments.add(search.join());
+            }
+            return segments;
+        })));
+    }
+
+    /**
+     * Counts the segments within the given window without reporting them.
+     *
+     * @param bounds bounding box array consisting of bottom, top, left and right bounds
+     * @return the number of segments within the window
+     */
+    public long countWindow(Double[] bounds) {
+        if (vDynamicTree != null) {
+            return new WindowingAlgorithm().countWindow(vDynamicTree, hDynamicTree, bounds);
+        } else if (vTree == null) {
+            return new FlatWindowingAlgorithm().countWindow(vIndexTree, hIndexTree, bounds, getMaxBounds());
+        }
+        return new WindowingAlgorithm().countWindow(vTree, hTree, bounds, getMaxBounds());
+    }
+
+    /**
+     * Returns the maximum bounding box of the dataset.
+     *
+     * @return maximum bounding box array consisting of bottom, top, left and right bounds
+     */
+    private Double[] getMaxBounds() {
+        return new Double[]{min_y, max_y, min_x, max_x};
+    }
+
+    /**
+     * Returns a new list of the vertical segments sorted on their x-coordinate. If the trees were opened from an index
+     * file, the segments are read back from the tree. The segments are shared with the tree and must not be modified.
+     *
+     * @return the normalized vertical segments, sorted
+     */
+    public ArrayList<Double[]> getVSortedSegments() {
+        return vSortedSegments != null ? new ArrayList<>(vSortedSegments) : getSegments(vIndexTree);
+    }
+
+    /**
+     * Returns a new list of the horizontal segments sorted on their y-coordinate. If the trees were opened from an
+     * index file, the segments are read back from the tree. The segments are shared with the tree and must not be
+     * modified.
+     *
+     * @return the normalized horizontal segments, sorted
+     */
+    public ArrayList<Double[]> getHSortedSegments() {
+        return hSortedSegments != null ? new ArrayList<>(hSortedSegments) : getSegments(hIndexTree);
+    }
+
+    /**
+     * Reads back the normalized segments held by a tree stored in implicit order, and sorts them, the nodes being
+     * ordered on the start point of their segment.
+     *
+     * @param tree the tree
+     * @return the segments of the tree, sorted
+     */
+    private static ArrayList<Double[]> getSegments(ImplicitPrioritySearchTree tree) {
+        ArrayList<Double[]> treeSegments = new ArrayList<>(tree.getSize());
+        for (int i = 0; i < tree.getSize(); i++) {
+            treeSegments.add(new Double[]{tree.getLow(i), tree.getKey(i), tree.getHigh(i), tree.getKey(i)});
+        }
+        new Sort().sort(treeSegments);
+        return treeSegments;
+    }
+
+    /**
+     * Returns whether the trees were opened from an index file.
+     *
+     * @return true if the trees were opened from an index file, false if they were built from the segments
+     */
+    public boolean isIndexed() {
+        return isIndexed;
+    }
+
+    /**
+     * Returns whether the trees are held outside of the Java heap, either mapped from an index file or built into
+     * direct buffers.
+     *
+     * @return true if the trees are held outside of the heap, false if they are made of nodes on the heap
+     */
+    public boolean isOffHeap() {
+        return vIndexTree != null;
+    }
+
+    /**
+     * Returns whether the trees are stored in pages on disk, read on demand by the queries.
+     *
+     * @return true if the trees were opened from a paged index file, false otherwise
+     */
+    public boolean isPaged() {
+        return vIndexTree instanceof PagedPrioritySearchTree;
+    }
+
+    /**
+     * Returns the number of segments of the dataset.
+     *
+     * @return the number of segments
+     */
+    public int getSegmentsNumber() {
+        return segmentsNumber;
+    }
+
+    /**
+     * Returns the time spent reading the file, or opening the index file, in milliseconds.
+     *
+     * @return the time spent reading the file
+     */
+    public long getReadTime() {
+        return readTime;
+    }
+
+    /**
+     * Returns the time spent sorting the segments, in milliseconds.
+     *
+     * @return the time spent sorting the segments
+     */
+    public long getSortTime() {
+        return sortTime;
+    }
+
+    /**
+     * Returns the time spent building the trees, in milliseconds.
+     *
+     * @return the time spent building the trees
+     */
+    public long getBuildTime() {
+        return buildTime;
+    }
+
+    /**
+     * Returns the minimum x-coordinate of the window.
+     *
+     * @return the minimum x-coordinate of the window
+     */
+    public double getMinX() {
+        return min_x;
+    }
+
+    /**
+     * Returns the maximum x-coordinate of the window.
+     *
+     * @return the maximum x-coordinate of the window
+     */
+    public double getMaxX() {
+        return max_x;
+    }
+
+    /**
+     * Returns the minimum y-coordinate of the window.
+     *
+     * @return the minimum y-coordinate of the window
+     */
+    public double getMinY() {
+        return min_y;
+    }
+
+    /**
+     * Returns the maximum y-coordinate of the window.
+     *
+     * @return the maximum y-coordinate of the window
+     */
+    public double getMaxY() {
+        return max_y;
+    }
+
+    /**
+     * Closes the file the pages of the trees are read from, if the dataset was opened from a paged index file. Neither
+     * this dataset nor the datasets obtained by updating it can be searched once it is closed. Closing a dataset whose
+     * trees are held in memory does nothing.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (source != null) {
+            source.close();
+        }
+    }
+}
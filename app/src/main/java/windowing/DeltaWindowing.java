@@ -0,0 +1,100 @@
+package windowing;
+
+import java.util.ArrayList;
+import java.util.function.Function;
+
+/**
+ * This class computes the segments entering and leaving the result when a window moves or is resized.
+ * The part of the new window lying outside the previous one is covered by at most four strips, which are searched as
+ * windows of their own. A segment found in a strip enters the result if it does not cross the previous window, and is
+ * kept only for the first strip it crosses. The leaving segments are found the same way with both windows swapped.
+ */
+final class DeltaWindowing {
+    private DeltaWindowing() {
+    }
+
+    /**
+     * Computes the segments entering and leaving the result when the window changes from the previous one to the
+     * given one.
+     *
+     * @param previousBounds previous bounding box array consisting of bottom, top, left and right bounds
+     * @param bounds         bounding box array consisting of bottom, top, left and right bounds
+     * @param query          the windowing algorithm reporting the segments crossing a bounding box
+     * @return the segments entering and leaving the result
+     */
+    static WindowDelta launch(Double[] previousBounds, Double[] bounds, Function<Double[], ArrayList<Double[]>> query) {
+        return new WindowDelta(search(bounds, previousBounds, query), search(previousBounds, bounds, query), false);
+    }
+
+    /**
+     * Returns the segments crossing the given window but not the excluded one.
+     *
+     * @param bounds         bounding box array consisting of bottom, top, left and right bounds
+     * @param excludedBounds excluded bounding box array consisting of bottom, top, left and right bounds
+     * @param query          the windowing algorithm reporting the segments crossing a bounding box
+     * @return an ArrayList of Double arrays containing the segments
+     */
+    private static ArrayList<Double[]> search(Double[] bounds, Double[] excludedBounds,
+                                              Function<Double[], ArrayList<Double[]>> query) {
+        ArrayList<Double[]> strips = getStrips(bounds, excludedBounds);
+        ArrayList<Double[]> segments = new ArrayList<>();
+        for (int i = 0; i < strips.size(); i++) {
+            for (Double[] segment : query.apply(strips.get(i))) {
+                if (isFirstCrossedStrip(segment, strips, i) && !WindowingAlgorithm.isInWindow(segment, excludedBounds)) {
+                    segments.add(segment);
+                }
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Returns whether the given segment crosses none of the strips before the given one.
+     *
+     * @param segment the segment reported for the strip
+     * @param strips  the strips
+     * @param strip   the index of the strip the segment was reported for
+     * @return true if the segment crosses no previous strip, false otherwise
+     */
+    private static boolean isFirstCrossedStrip(Double[] segment, ArrayList<Double[]> strips, int strip) {
+        for (int i = 0; i < strip; i++) {
+            if (WindowingAlgorithm.isInWindow(segment, strips.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Covers the part of the given window lying outside the excluded one with closed strips: the strips below and
+     * above the intersection of both windows, then the strips on its left and right.
+     *
+     * @param bounds         bounding box array consisting of bottom, top, left and right bounds
+     * @param excludedBounds excluded bounding box array consisting of bottom, top, left and right bounds
+     * @return the strips, each one consisting of bottom, top, left and right bounds
+     */
+    private static ArrayList<Double[]> getStrips(Double[] bounds, Double[] excludedBounds) {
+        ArrayList<Double[]> strips = new ArrayList<>();
+        double bottom = Math.max(bounds[0], excludedBounds[0]);
+        double top = Math.min(bounds[1], excludedBounds[1]);
+        double left = Math.max(bounds[2], excludedBounds[2]);
+        double right = Math.min(bounds[3], excludedBounds[3]);
+        if (bottom > top || left > right) {
+            strips.add(bounds);
+            return strips;
+        }
+        if (bounds[0] < bottom) {
+            strips.add(new Double[]{bounds[0], bottom, bounds[2], bounds[3]});
+        }
+        if (bounds[1] > top) {
+            strips.add(new Double[]{top, bounds[1], bounds[2], bounds[3]});
+        }
+        if (bounds[2] < left) {
+            strips.add(new Double[]{bottom, top, bounds[2], left});
+        }
+        if (bounds[3] > right) {
+            strips.add(new Double[]{bottom, top, right, bounds[3]});
+        }
+        return strips;
+    }
+}
@@ -0,0 +1,188 @@
+package windowing;
+
+/**
+ * A DensityRaster counts the segments of a window crossing each pixel of an image of the window, as a level of detail
+ * for the windows holding too many segments to be drawn one by one.
+ * It receives the segments from a windowing algorithm as a sink, without any list of segments, and only marks where
+ * each segment starts and ends: a horizontal segment in the difference array of its row, and a vertical one in the
+ * difference array of its column. The counts are then summed along the rows and the columns, so that the cost of a
+ * segment does not depend on its length, and the cost of the image only depends on its size.
+ * The rows of the image go from the top to the bottom of the window.
+ */
+public final class DensityRaster implements SegmentSink {
+    private final double bottom, top, left, right;
+    private final int width, height;
+    /**
+     * The difference arrays of the rows, each one of width + 1 values, counting the horizontal segments.
+     */
+    private final int[] rowDifferences;
+    /**
+     * The difference arrays of the columns, each one of height + 1 values, counting the vertical segments.
+     */
+    private final int[] columnDifferences;
+    private long segmentsNumber;
+
+    /**
+     * Constructs an empty DensityRaster of the given window and size.
+     *
+     * @param bounds bounding box array consisting of bottom, top, left and right bounds
+     * @param width  the number of pixels of a row
+     * @param height the number of pixels of a column
+     * @throws IllegalArgumentException if the width or the height is not positive
+     */
+    public DensityRaster(Double[] bounds, int width, int height) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Invalid raster size: " + width + " x " + height);
+        }
+        this.bottom = bounds[0];
+        this.top = bounds[1];
+        this.left = bounds[2];
+        this.right = bounds[3];
+        this.width = width;
+        this.height = height;
+        this.rowDifferences = new int[height * (width + 1)];
+        this.columnDifferences = new int[width * (height + 1)];
+    }
+
+    /**
+     * Adds a horizontal or vertical segment to the raster, clipped to the window. A segment reduced to a point is
+     * counted in its pixel only.
+     *
+     * @param x1 the x-coordinate of the first point of the segment
+     * @param y1 the y-coordinate of the first point of the segment
+     * @param x2 the x-coordinate of the second point of the segment
+     * @param y2 the y-coordinate of the second point of the segment
+     */
+    @Override
+    public void accept(double x1, double y1, double x2, double y2) {
+        segmentsNumber++;
+        if (x1 == x2) {
+            int offset = getColumn(x1) * (height + 1);
+            columnDifferences[offset + getRow(Math.max(y1, y2))]++;
+            columnDifferences[offset + getRow(Math.min(y1, y2)) + 1]--;
+        } else {
+            int offset = getRow(y1) * (width + 1);
+            rowDifferences[offset + getColumn(Math.min(x1, x2))]++;
+            rowDifferences[offset + getColumn(Math.max(x1, x2)) + 1]--;
+        }
+    }
+
+    /**
+     * Adds the segments of the given raster of the same window and size to this raster.
+     *
+     * @param raster the raster of the same window and size
+     * @throws IllegalArgumentException if the raster is not of the same window and size
+     */
+    public void add(DensityRaster raster) {
+        if (raster.width != width || raster.height != height || raster.bottom != bottom || raster.top != top
+                || raster.left != left || raster.right != right) {
+            throw new IllegalArgumentException("Not a raster of the same window and size");
+        }
+        for (int i = 0; i < rowDifferences.length; i++) {
+            rowDifferences[i] += raster.rowDifferences[i];
+        }
+        for (int i = 0; i < columnDifferences.length; i++) {
+            columnDifferences[i] += raster.columnDifferences[i];
+        }
+        segmentsNumber += raster.segmentsNumber;
+    }
+
+    /**
+     * Returns the column of the pixels holding the given x-coordinate, the coordinates outside of the window being
+     * held by the first or last column.
+     *
+     * @param x the x-coordinate
+     * @return the column of the pixels
+     */
+    private int getColumn(double x) {
+        double column = Math.floor((x - left) / (right - left) * width);
+        return column >= width - 1 ? width - 1 : column > 0 ? (int) column : 0;
+    }
+
+    /**
+     * Returns the row of the pixels holding the given y-coordinate, the coordinates outside of the window being held
+     * by the first or last row.
+     *
+     * @param y the y-coordinate
+     * @return the row of the pixels, from the top of the window
+     */
+    private int getRow(double y) {
+        double row = Math.floor((top - y) / (top - bottom) * height);
+        return row >= height - 1 ? height - 1 : row > 0 ? (int) row : 0;
+    }
+
+    /**
+     * Returns the number of segments crossing each pixel, row by row from the top left pixel.
+     *
+     * @return the width * height counts of the pixels
+     */
+    public int[] getCounts() {
+        int[] counts = new int[width * height];
+        for (int row = 0; row < height; row++) {
+            int count = 0;
+            for (int column = 0; column < width; column++) {
+                count += rowDifferences[row * (width + 1) + column];
+                counts[row * width + column] = count;
+            }
+        }
+        for (int column = 0; column < width; column++) {
+            int count = 0;
+            for (int row = 0; row < height; row++) {
+                count += columnDifferences[column * (height + 1) + row];
+                counts[row * width + column] += count;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the pixels of the image of the raster in the given color, as ARGB values row by row from the top left
+     * pixel. The pixels crossed by no segment are transparent, and the opacity of the other ones grows with the
+     * logarithm of their count, so that the sparse areas remain visible next to the dense ones.
+     *
+     * @param rgb the color of the segments, as an RGB value
+     * @return the width * height ARGB values of the pixels
+     */
+    public int[] getArgbPixels(int rgb) {
+        int[] pixels = getCounts();
+        int maxCount = 0;
+        for (int count : pixels) {
+            maxCount = Math.max(maxCount, count);
+        }
+        double logMaxCount = Math.log1p(maxCount);
+        for (int i = 0; i < pixels.length; i++) {
+            if (pixels[i] > 0) {
+                int alpha = 64 + (int) Math.round(191 * Math.log1p(pixels[i]) / logMaxCount);
+                pixels[i] = (alpha << 24) | (rgb & 0xFFFFFF);
+            }
+        }
+        return pixels;
+    }
+
+    /**
+     * Returns the number of pixels of a row.
+     *
+     * @return the width of the raster
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the number of pixels of a column.
+     *
+     * @return the height of the raster
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the number of segments added to the raster.
+     *
+     * @return the number of segments
+     */
+    public long getSegmentsNumber() {
+        return segmentsNumber;
+    }
+}
@@ -0,0 +1,100 @@
+package windowing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * A DensitySink collects the segments of a window as long as they are few enough to be drawn one by one, and switches
+ * to a density raster of the window once there are more of them than a threshold, so that a window is searched once
+ * whatever the number of its segments. A window searched in parallel fills one sink per thread, merged once the search
+ * is done.
+ */
+final class DensitySink implements SegmentSink {
+    private final Double[] bounds;
+    private final int width, height;
+    private final long threshold;
+    private ArrayList<Double[]> segments = new ArrayList<>();
+    private DensityRaster raster;
+
+    /**
+     * Constructs a DensitySink for the given window.
+     *
+     * @param bounds    bounding box array consisting of bottom, top, left and right bounds
+     * @param width     the number of pixels of a row of the raster
+     * @param height    the number of pixels of a column of the raster
+     * @param threshold the maximum number of segments collected before switching to the raster
+     */
+    DensitySink(Double[] bounds, int width, int height, long threshold) {
+        this.bounds = bounds;
+        this.width = width;
+        this.height = height;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void accept(double x1, double y1, double x2, double y2) {
+        if (raster != null) {
+            raster.accept(x1, y1, x2, y2);
+        } else if (segments.size() < threshold) {
+            segments.add(new Double[]{x1, y1, x2, y2});
+        } else {
+            switchToRaster();
+            raster.accept(x1, y1, x2, y2);
+        }
+    }
+
+    /**
+     * Replaces the collected segments with a density raster holding them.
+     */
+    private void switchToRaster() {
+        raster = new DensityRaster(bounds, width, height);
+        for (Double[] segment : segments) {
+            raster.accept(segment[0], segment[1], segment[2], segment[3]);
+        }
+        segments = null;
+    }
+
+    /**
+     * Merges the given sinks of the same window into one, holding the segments of all of them: the collected segments
+     * if there are no more of them than the threshold, or else a density raster.
+     *
+     * @param sinks the sinks of the same window, at least one
+     * @return the merged sink, one of the given sinks
+     */
+    static DensitySink merge(Collection<DensitySink> sinks) {
+        DensitySink merged = null;
+        for (DensitySink sink : sinks) {
+            if (merged == null) {
+                merged = sink;
+            } else if (sink.raster != null) {
+                if (merged.raster == null) {
+                    merged.switchToRaster();
+                }
+                merged.raster.add(sink.raster);
+            } else {
+                for (Double[] segment : sink.segments) {
+                    merged.accept(segment[0], segment[1], segment[2], segment[3]);
+                }
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Returns the collected segments, if the threshold was not exceeded.
+     *
+     * @return the segments of the window, or null if the raster was filled instead
+     */
+    ArrayList<Double[]> getSegments() {
+        return segments;
+    }
+
+    /**
+     * Returns the density raster, if the threshold was exceeded.
+     *
+     * @return the density raster of the window, or null if the segments were collected instead
+     */
+    DensityRaster getRaster() {
+        return raster;
+    }
+}
@@ -0,0 +1,352 @@
+package windowing;
+
+import metrics.WindowingMetrics;
+import tree.ImplicitPrioritySearchTree;
+
+import java.util.ArrayList;
+
+/**
+ * This class implements the windowing algorithm on priority search trees stored in implicit (heap-index) order, such
+ * as the ones stored in primitive arrays or read from a mapped index file.
+ * It follows the same search as WindowingAlgorithm, with the bounds kept as primitive values, and uses the heap order
+ * of the trees to skip the subtrees whose leftmost segment starts after the right bound of the window. While counting,
+ * the subtrees whose segments are all within the window are counted from their size without being enumerated.
+ */
+public class FlatWindowingAlgorithm {
+    /**
+     * ArrayList containing reported segments after the algorithm is executed.
+     */
+    ArrayList<Double[]> reportedSegments;
+    /**
+     * The priority search tree currently searched.
+     */
+    private ImplicitPrioritySearchTree tree;
+    /**
+     * The bottom, top, left and right bounds of the window, in the coordinates of the tree currently searched.
+     */
+    private double bottom, top, left, right;
+    /**
+     * Flag indicating whether the tree currently searched is vertical or horizontal.
+     */
+    private boolean isVertical;
+    /**
+     * Sink receiving the reported segments instead of the list, or null to collect them in the list.
+     */
+    private SegmentSink sink;
+    /**
+     * Flag indicating whether the segments within the window are counted instead of being reported.
+     */
+    private boolean isCounting;
+    /**
+     * Number of segments within the window, while counting.
+     */
+    private long count;
+    /**
+     * Number of tree nodes visited by the search, published to the metrics with each query.
+     */
+    private long visitedNodes;
+    /**
+     * Number of segments pushed to the sink.
+     */
+    private long sunkSegments;
+    /**
+     * Number of pages read from the disk by the last search, for trees stored in pages on disk.
+     */
+    private long pageReads;
+
+    /**
+     * Constructs a new FlatWindowingAlgorithm object.
+     */
+    public FlatWindowingAlgorithm() {
+        reportedSegments = new ArrayList<>();
+    }
+
+    /**
+     * Launches the windowing algorithm on the given priority search trees, bounding boxes and maximum bounding boxes.
+     *
+     * @param vTree     vertical priority search tree
+     * @param hTree     horizontal priority search tree
+     * @param bounds    bounding box array consisting of bottom, top, left and right bounds
+     * @param maxBounds maximum bounding box array consisting of bottom, top, left and right bounds
+     * @return an ArrayList of Double arrays containing reported segments
+     */
+    public ArrayList<Double[]> launchWindowing(ImplicitPrioritySearchTree vTree,
+                                               ImplicitPrioritySearchTree hTree, Double[] bounds,
+                                               Double[] maxBounds) {
+        long start = System.nanoTime();
+        long nodes = search(vTree, hTree, bounds, maxBounds, sink);
+        WindowingMetrics.getInstance().recordQuery(System.nanoTime() - start, nodes,
+                sink != null ? sunkSegments : reportedSegments.size(), pageReads);
+        sunkSegments = 0;
+        return reportedSegments;
+    }
+
+    /**
+     * Launches the windowing algorithm on the given priority search trees, bounding boxes and maximum bounding boxes,
+     * pushing each reported segment to the given sink as it is found. Nothing is allocated per reported segment.
+     *
+     * @param vTree     vertical priority search tree
+     * @param hTree     horizontal priority search tree
+     * @param bounds    bounding box array consisting of bottom, top, left and right bounds
+     * @param maxBounds maximum bounding box array consisting of bottom, top, left and right bounds
+     * @param sink      the sink receiving the reported segments
+     */
+    public void launchWindowing(ImplicitPrioritySearchTree vTree, ImplicitPrioritySearchTree hTree, Double[] bounds,
+                                Double[] maxBounds, SegmentSink sink) {
+        this.sink = sink;
+        launchWindowing(vTree, hTree, bounds, maxBounds);
+    }
+
+    /**
+     * Counts the segments of the given priority search trees within the bounding box, without reporting them.
+     * Subtrees whose segments are all within the bounding box are counted from their size without being enumerated.
+     *
+     * @param vTree     vertical priority search tree
+     * @param hTree     horizontal priority search tree
+     * @param bounds    bounding box array consisting of bottom, top, left and right bounds
+     * @param maxBounds maximum bounding box array consisting of bottom, top, left and right bounds
+     * @return the number of segments within the bounding box
+     */
+    public long countWindow(ImplicitPrioritySearchTree vTree, ImplicitPrioritySearchTree hTree, Double[] bounds,
+                            Double[] maxBounds) {
+        long start = System.nanoTime();
+        isCounting = true;
+        count = 0;
+        long nodes = search(vTree, hTree, bounds, maxBounds, null);
+        WindowingMetrics.getInstance().recordQuery(System.nanoTime() - start, nodes, count, pageReads);
+        return count;
+    }
+
+    /**
+     * Makes the following searches count the segments within the window instead of reporting them, for the searches
+     * that are only a part of a count.
+     */
+    void startCounting() {
+        isCounting = true;
+        count = 0;
+    }
+
+    /**
+     * Returns the number of segments within the window counted by the searches since the counting started.
+     *
+     * @return the number of segments counted
+     */
+    long getCount() {
+        return count;
+    }
+
+    /**
+     * Searches the given priority search trees like launchWindowing, without recording the query in the metrics, for
+     * the searches that are only a part of a query.
+     *
+     * @param vTree     vertical priority search tree
+     * @param hTree     horizontal priority search tree
+     * @param bounds    bounding box array consisting of bottom, top, left and right bounds
+     * @param maxBounds maximum bounding box array consisting of bottom, top, left and right bounds
+     * @param sink      the sink receiving the reported segments, or null to collect them in the list
+     * @return the number of tree nodes visited by the search
+     */
+    long search(ImplicitPrioritySearchTree vTree, ImplicitPrioritySearchTree hTree, Double[] bounds,
+                Double[] maxBounds, SegmentSink sink) {
+        this.sink = sink;
+        long pageReads = vTree.getPageReads() + hTree.getPageReads();
+        windowing(hTree, bounds[0], bounds[1], bounds[2], bounds[3], maxBounds[0], maxBounds[1], false);
+        windowing(vTree, bounds[2], bounds[3], bounds[0], bounds[1], maxBounds[2], maxBounds[3], true);
+        this.pageReads = vTree.getPageReads() + hTree.getPageReads() - pageReads;
+        long nodes = visitedNodes;
+        visitedNodes = 0;
+        return nodes;
+    }
+
+    /**
+     * Returns the number of pages read from the disk by the last search, which is 0 unless the trees are stored in
+     * pages on disk.
+     *
+     * @return the number of pages read by the last search
+     */
+    public long getPageReads() {
+        return pageReads;
+    }
+
+    /**
+     * Calls the appropriate search function based on the bounding box's position relative to the maximum bounding box.
+     *
+     * @param tree       the priority search tree to be searched
+     * @param bottom     the bottom bound of the window
+     * @param top        the top bound of the window
+     * @param left       the left bound of the window
+     * @param right      the right bound of the window
+     * @param maxBottom  the bottom bound of the maximum window
+     * @param maxTop     the top bound of the maximum window
+     * @param isVertical flag indicating whether the search is vertical or horizontal
+     */
+    private void windowing(ImplicitPrioritySearchTree tree, double bottom, double top, double left,
+                           double right, double maxBottom, double maxTop, boolean isVertical) {
+        if (tree.getSize() == 0) {
+            return;
+        }
+        this.tree = tree;
+        this.bottom = bottom;
+        this.top = top;
+        this.left = left;
+        this.right = right;
+        this.isVertical = isVertical;
+        if (bottom == maxBottom) {
+            if (top == maxTop) {
+                searchInSubtree(0);
+            } else {
+                topBoundSearch(0);
+            }
+        } else {
+            if (top == maxTop) {
+                bottomBoundSearch(0);
+            } else {
+                searchVSplit(0);
+            }
+        }
+    }
+
+    /**
+     * Searches the given node and its subtrees when the bounding box spans across the median.
+     *
+     * @param node the index of the node to be searched
+     */
+    private void searchVSplit(int node) {
+        visitedNodes++;
+        if (tree.getLow(node) > right) {
+            return;
+        }
+        checkSegment(node);
+        if (tree.hasLeftChild(node)) {
+            if (tree.hasRightChild(node)) {
+                double median = tree.getMedian(node);
+                if ((median < bottom) || (median == bottom && tree.areEdgesNotEqual(node))) {
+                    searchVSplit(2 * node + 2);
+                } else if ((median > top) || (median == top && tree.areEdgesNotEqual(node))) {
+                    searchVSplit(2 * node + 1);
+                } else {
+                    topBoundSearch(2 * node + 2);
+                    bottomBoundSearch(2 * node + 1);
+                }
+            } else {
+                visitedNodes++;
+                checkSegment(2 * node + 1);
+            }
+        }
+    }
+
+    /**
+     * Searches the given node and its subtrees when the bounding box is above the median.
+     *
+     * @param node the index of the node to be searched
+     */
+    private void topBoundSearch(int node) {
+        visitedNodes++;
+        if (tree.getLow(node) > right) {
+            return;
+        }
+        checkSegment(node);
+        if (tree.hasLeftChild(node)) {
+            if (tree.hasRightChild(node)) {
+                double median = tree.getMedian(node);
+                if ((median > top) || (median == top && tree.areEdgesNotEqual(node))) {
+                    topBoundSearch(2 * node + 1);
+                } else {
+                    topBoundSearch(2 * node + 2);
+                    searchInSubtree(2 * node + 1);
+                }
+            } else {
+                visitedNodes++;
+                checkSegment(2 * node + 1);
+            }
+        }
+    }
+
+    /**
+     * Searches the given node and its subtrees when the bounding box is below the median.
+     *
+     * @param node the index of the node to be searched
+     */
+    private void bottomBoundSearch(int node) {
+        visitedNodes++;
+        if (tree.getLow(node) > right) {
+            return;
+        }
+        checkSegment(node);
+        if (tree.hasLeftChild(node)) {
+            if (tree.hasRightChild(node)) {
+                double median = tree.getMedian(node);
+                if ((median < bottom) || (median == bottom && tree.areEdgesNotEqual(node))) {
+                    bottomBoundSearch(2 * node + 2);
+                } else {
+                    bottomBoundSearch(2 * node + 1);
+                    searchInSubtree(2 * node + 2);
+                }
+            } else {
+                visitedNodes++;
+                checkSegment(2 * node + 1);
+            }
+        }
+    }
+
+    /**
+     * Searches the given node and its subtrees.
+     *
+     * @param node the index of the node to be searched
+     */
+    private void searchInSubtree(int node) {
+        visitedNodes++;
+        if (tree.getLow(node) > right) {
+            return;
+        }
+        if (isCounting && tree.getMaxStart(node) <= right && tree.getMinEnd(node) >= left) {
+            count += tree.getSubtreeSize(node);
+            return;
+        }
+        checkSegmentXAxis(node);
+        if (tree.hasLeftChild(node)) {
+            if (tree.hasRightChild(node)) {
+                searchInSubtree(2 * node + 2);
+            }
+            searchInSubtree(2 * node + 1);
+        }
+    }
+
+    /**
+     * Checks whether the segment of the given node is within the bounding box and reports it if it is.
+     *
+     * @param node the index of the node to be checked
+     */
+    private void checkSegment(int node) {
+        double key = tree.getKey(node);
+        if (key >= bottom && key <= top) {
+            checkSegmentXAxis(node);
+        }
+    }
+
+    /**
+     * Checks whether the segment of the given node crosses the left and right bounds of the bounding box and reports
+     * it if it does, to the sink if there is one or else to the reported segments, or counts it while counting.
+     *
+     * @param node the index of the node to be checked
+     */
+    private void checkSegmentXAxis(int node) {
+        if (tree.getLow(node) <= right && tree.getHigh(node) >= left) {
+            double key = tree.getKey(node);
+            if (isCounting) {
+                count++;
+            } else if (sink != null) {
+                sunkSegments++;
+                if (isVertical) {
+                    sink.accept(key, tree.getLow(node), key, tree.getHigh(node));
+                } else {
+                    sink.accept(tree.getLow(node), key, tree.getHigh(node), key);
+                }
+            } else if (isVertical) {
+                reportedSegments.add(new Double[]{key, tree.getLow(node), key, tree.getHigh(node)});
+            } else {
+                reportedSegments.add(new Double[]{tree.getLow(node), key, tree.getHigh(node), key});
+            }
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package windowing;
+
+import tree.BufferPrioritySearchTree;
+import tree.ImplicitPrioritySearchTree;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The IndexFile class reads and writes binary index files holding the window size and both priority search trees of a
+ * set of segments, so that they can be reopened without parsing, sorting and building them again.
+ * The file starts with a header made of a magic number, a version, the window size, the number of nodes of each tree,
+ * and the length and last modification time of the segments file the trees were built from, or -1 if unknown,
+ * followed by the horizontal then the vertical tree in the layout of BufferPrioritySearchTree. An index file kept next
+ * to a segments file is only used in place of it while the segments file keeps the length and modification time
+ * recorded in the header.
+ * The trees are opened by mapping the file in memory, and the windowing algorithm runs directly on the mapped buffers.
+ */
+public final class IndexFile {
+    /**
+     * The extension added to the name of a segments file to get the name of its index file.
+     */
+    public static final String EXTENSION = ".psti";
+    private static final int MAGIC = 0x50535449;
+    private static final int VERSION = 3;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES + 4 * Double.BYTES + 4 * Long.BYTES;
+    private static final int STAMP_OFFSET = HEADER_BYTES - 2 * Long.BYTES;
+
+    private final double min_x, max_x, min_y, max_y;
+    private final ImplicitPrioritySearchTree vTree, hTree;
+    private final SegmentsStamp segmentsStamp;
+
+    private IndexFile(double min_x, double max_x, double min_y, double max_y, ImplicitPrioritySearchTree vTree,
+                      ImplicitPrioritySearchTree hTree, SegmentsStamp segmentsStamp) {
+        this.min_x = min_x;
+        this.max_x = max_x;
+        this.min_y = min_y;
+        this.max_y = max_y;
+        this.vTree = vTree;
+        this.hTree = hTree;
+        this.segmentsStamp = segmentsStamp;
+    }
+
+    /**
+     * Returns whether the given file starts with the magic number of an index file.
+     *
+     * @param file the file to check
+     * @return true if the file is an index file, false otherwise
+     */
+    public static boolean isIndexFile(File file) {
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            return input.length() >= HEADER_BYTES && Integer.reverseBytes(input.readInt()) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the index file kept next to the given segments file, if it exists, is of the current version, and was
+     * built from the segments file as it is now, with the same length and last modification time.
+     *
+     * @param file the segments file
+     * @return the index file of the segments file, or null if there is no up-to-date index file
+     */
+    public static File getCachedIndex(File file) {
+        File indexFile = new File(file.getPath() + EXTENSION);
+        if (!indexFile.isFile()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    return null;
+                }
+            }
+            SegmentsStamp segmentsStamp = SegmentsStamp.read(header, STAMP_OFFSET);
+            if (header.getInt(0) == MAGIC && header.getInt(Integer.BYTES) == VERSION && segmentsStamp != null
+                    && segmentsStamp.matches(file)) {
+                return indexFile;
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes an index file holding the given window size and priority search trees.
+     * The file is written under a temporary name of its own in the same directory then renamed, so that a partially
+     * written index is never opened, even when several writers write the same index at once.
+     *
+     * @param file  the index file to write
+     * @param min_x the minimum x-coordinate of the window
+     * @param max_x the maximum x-coordinate of the window
+     * @param min_y the minimum y-coordinate of the window
+     * @param max_y the maximum y-coordinate of the window
+     * @param vTree the vertical priority search tree
+     * @param hTree the horizontal priority search tree
+     * @throws IOException if an I/O error occurs
+     */
+    public static void write(File file, double min_x, double max_x, double min_y, double max_y,
+                             ImplicitPrioritySearchTree vTree, ImplicitPrioritySearchTree hTree) throws IOException {
+        write(file, min_x, max_x, min_y, max_y, vTree, hTree, null);
+    }
+
+    /**
+     * Writes an index file holding the given window size and priority search trees, built from the segments file of
+     * the given stamp.
+     *
+     * @param file          the index file to write
+     * @param min_x         the minimum x-coordinate of the window
+     * @param max_x         the maximum x-coordinate of the window
+     * @param min_y         the minimum y-coordinate of the window
+     * @param max_y         the maximum y-coordinate of the window
+     * @param vTree         the vertical priority search tree
+     * @param hTree         the horizontal priority search tree
+     * @param segmentsStamp the stamp of the segments file the trees were built from, or null if unknown
+     * @throws IOException if an I/O error occurs
+     */
+    static void write(File file, double min_x, double max_x, double min_y, double max_y,
+                      ImplicitPrioritySearchTree vTree, ImplicitPrioritySearchTree hTree, SegmentsStamp segmentsStamp)
+            throws IOException {
+        Path temporaryFile = Files.createTempFile(file.getAbsoluteFile().getParentFile().toPath(), file.getName(),
+                ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION);
+                header.putDouble(min_x).putDouble(max_x).putDouble(min_y).putDouble(max_y);
+                header.putLong(hTree.getSize()).putLong(vTree.getSize());
+                header.putLong(segmentsStamp != null ? segmentsStamp.length : -1)
+                        .putLong(segmentsStamp != null ? segmentsStamp.lastModified : -1);
+                header.flip();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                BufferPrioritySearchTree.write(hTree, channel);
+                BufferPrioritySearchTree.write(vTree, channel);
+            }
+            Files.move(temporaryFile, file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * Opens an index file by mapping its trees in memory.
+     *
+     * @param file the index file to open
+     * @return the opened index file
+     * @throws IOException if an I/O error occurs or if the file is not a valid index file
+     */
+    public static IndexFile open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new IOException("Truncated index file");
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not an index file");
+            }
+            double min_x = header.getDouble();
+            double max_x = header.getDouble();
+            double min_y = header.getDouble();
+            double max_y = header.getDouble();
+            long hSize = header.getLong();
+            long vSize = header.getLong();
+            SegmentsStamp segmentsStamp = SegmentsStamp.read(header, STAMP_OFFSET);
+            if (hSize < 0 || vSize < 0 || hSize > Integer.MAX_VALUE || vSize > Integer.MAX_VALUE) {
+                throw new IOException("Invalid index file");
+            }
+            long hBytes = BufferPrioritySearchTree.getByteSize((int) hSize);
+            long vBytes = BufferPrioritySearchTree.getByteSize((int) vSize);
+            if (hBytes > Integer.MAX_VALUE || vBytes > Integer.MAX_VALUE
+                    || channel.size() < HEADER_BYTES + hBytes + vBytes) {
+                throw new IOException("Invalid index file");
+            }
+            ImplicitPrioritySearchTree hTree = new BufferPrioritySearchTree(
+                    channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, hBytes), (int) hSize);
+            ImplicitPrioritySearchTree vTree = new BufferPrioritySearchTree(
+                    channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + hBytes, vBytes), (int) vSize);
+            return new IndexFile(min_x, max_x, min_y, max_y, vTree, hTree, segmentsStamp);
+        }
+    }
+
+    /**
+     * Returns the minimum x-coordinate of the window.
+     *
+     * @return the minimum x-coordinate of the window
+     */
+    public double getMinX() {
+        return min_x;
+    }
+
+    /**
+     * Returns the maximum x-coordinate of the window.
+     *
+     * @return the maximum x-coordinate of the window
+     */
+    public double getMaxX() {
+        return max_x;
+    }
+
+    /**
+     * Returns the minimum y-coordinate of the window.
+     *
+     * @return the minimum y-coordinate of the window
+     */
+    public double getMinY() {
+        return min_y;
+    }
+
+    /**
+     * Returns the maximum y-coordinate of the window.
+     *
+     * @return the maximum y-coordinate of the window
+     */
+    public double getMaxY() {
+        return max_y;
+    }
+
+    /**
+     * Returns the vertical priority search tree, read from the mapped file.
+     *
+     * @return the vertical priority search tree
+     */
+    public ImplicitPrioritySearchTree getVTree() {
+        return vTree;
+    }
+
+    /**
+     * Returns the horizontal priority search tree, read from the mapped file.
+     *
+     * @return the horizontal priority search tree
+     */
+    public ImplicitPrioritySearchTree getHTree() {
+        return hTree;
+    }
+
+    /**
+     * Returns the stamp of the segments file the trees were built from.
+     *
+     * @return the stamp of the segments file, or null if unknown
+     */
+    SegmentsStamp getSegmentsStamp() {
+        return segmentsStamp;
+    }
+
+    /**
+     * The length and last modification time of a segments file, taken before reading it, telling whether an index
+     * file built from it still matches it.
+     */
+    static final class SegmentsStamp {
+        private final long length;
+        private final long lastModified;
+
+        private SegmentsStamp(long length, long lastModified) {
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * Takes the stamp of the given segments file.
+         *
+         * @param file the segments file
+         * @return the stamp of the file
+         */
+        static SegmentsStamp of(File file) {
+            return new SegmentsStamp(file.length(), file.lastModified());
+        }
+
+        /**
+         * Reads a stamp from the given header.
+         *
+         * @param header the header
+         * @param offset the position of the stamp in the header
+         * @return the stamp, or null if the header holds no stamp
+         */
+        private static SegmentsStamp read(ByteBuffer header, int offset) {
+            long length = header.getLong(offset);
+            long lastModified = header.getLong(offset + Long.BYTES);
+            return length >= 0 && lastModified >= 0 ? new SegmentsStamp(length, lastModified) : null;
+        }
+
+        /**
+         * Returns whether the given segments file still has the length and last modification time of this stamp.
+         *
+         * @param file the segments file
+         * @return true if the file matches the stamp, false otherwise
+         */
+        boolean matches(File file) {
+            return file.length() == length && file.lastModified() == lastModified;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package windowing;
+
+import tree.BlockCache;
+import tree.ImplicitPrioritySearchTree;
+import tree.PagedPrioritySearchTree;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The PagedIndexFile class reads and writes paged index files, which hold the window size and both priority search
+ * trees of a set of segments in fixed-size pages, for the datasets larger than the memory.
+ * The file starts with a header made of a magic number, a version, the number of levels of a page, the window size and
+ * the number of nodes of each tree, padded to the size of a page, followed by the pages of the horizontal then the
+ * vertical tree in the layout of PagedPrioritySearchTree. The trees are opened without reading any page: the pages are
+ * read on demand by the queries, through a block cache shared by both trees and bounded by a byte budget, until the
+ * file is closed.
+ */
+public final class PagedIndexFile implements Closeable {
+    /**
+     * The extension added to the name of a segments file to get the name of its paged index file.
+     */
+    public static final String EXTENSION = ".pstp";
+    /**
+     * The byte budget of the block cache when none is given.
+     */
+    public static final long DEFAULT_CACHE_BYTES = 64L << 20;
+    private static final int MAGIC = 0x50535450;
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES + 4 * Double.BYTES + 2 * Long.BYTES;
+
+    private final double min_x, max_x, min_y, max_y;
+    private final ImplicitPrioritySearchTree vTree, hTree;
+    private final BlockCache cache;
+    private final FileChannel channel;
+
+    private PagedIndexFile(double min_x, double max_x, double min_y, double max_y, ImplicitPrioritySearchTree vTree,
+                           ImplicitPrioritySearchTree hTree, BlockCache cache, FileChannel channel) {
+        this.min_x = min_x;
+        this.max_x = max_x;
+        this.min_y = min_y;
+        this.max_y = max_y;
+        this.vTree = vTree;
+        this.hTree = hTree;
+        this.cache = cache;
+        this.channel = channel;
+    }
+
+    /**
+     * Returns whether the given file starts with the magic number of a paged index file.
+     *
+     * @param file the file to check
+     * @return true if the file is a paged index file, false otherwise
+     */
+    public static boolean isPagedIndexFile(File file) {
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            return input.length() >= HEADER_BYTES && Integer.reverseBytes(input.readInt()) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes a paged index file holding the given window size and priority search trees.
+     * The file is written under a temporary name of its own in the same directory then renamed, so that a partially
+     * written index is never opened, even when several writers write the same index at once.
+     *
+     * @param file          the paged index file to write
+     * @param min_x         the minimum x-coordinate of the window
+     * @param max_x         the maximum x-coordinate of the window
+     * @param min_y         the minimum y-coordinate of the window
+     * @param max_y         the maximum y-coordinate of the window
+     * @param vTree         the vertical priority search tree
+     * @param hTree         the horizontal priority search tree
+     * @param levelsPerPage the number of levels of a page
+     * @throws IOException if an I/O error occurs
+     */
+    public static void write(File file, double min_x, double max_x, double min_y, double max_y,
+                             ImplicitPrioritySearchTree vTree, ImplicitPrioritySearchTree hTree, int levelsPerPage)
+            throws IOException {
+        int pageBytes = PagedPrioritySearchTree.getPageBytes(levelsPerPage);
+        Path temporaryFile = Files.createTempFile(file.getAbsoluteFile().getParentFile().toPath(), file.getName(),
+                ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(pageBytes).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(levelsPerPage).putInt(0);
+                header.putDouble(min_x).putDouble(max_x).putDouble(min_y).putDouble(max_y);
+                header.putLong(hTree.getSize()).putLong(vTree.getSize());
+                header.clear();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                PagedPrioritySearchTree.write(hTree, levelsPerPage, channel);
+                PagedPrioritySearchTree.write(vTree, levelsPerPage, channel);
+            }
+            Files.move(temporaryFile, file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * Opens a paged index file. The file is kept open for the pages of its trees until it is closed.
+     *
+     * @param file        the paged index file to open
+     * @param cacheBytes  the byte budget of the block cache shared by both trees
+     * @return the opened paged index file
+     * @throws IOException if an I/O error occurs or if the file is not a valid paged index file
+     */
+    public static PagedIndexFile open(File file, long cacheBytes) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new IOException("Truncated paged index file");
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a paged index file");
+            }
+            int levelsPerPage = header.getInt();
+            header.getInt();
+            double min_x = header.getDouble();
+            double max_x = header.getDouble();
+            double min_y = header.getDouble();
+            double max_y = header.getDouble();
+            long hSize = header.getLong();
+            long vSize = header.getLong();
+            if (levelsPerPage < 1 || levelsPerPage > PagedPrioritySearchTree.MAX_LEVELS_PER_PAGE || hSize < 0
+                    || vSize < 0 || hSize > Integer.MAX_VALUE || vSize > Integer.MAX_VALUE) {
+                throw new IOException("Invalid paged index file");
+            }
+            int pageBytes = PagedPrioritySearchTree.getPageBytes(levelsPerPage);
+            long hBytes = PagedPrioritySearchTree.getByteSize((int) hSize, levelsPerPage);
+            long vBytes = PagedPrioritySearchTree.getByteSize((int) vSize, levelsPerPage);
+            if (channel.size() < pageBytes + hBytes + vBytes) {
+                throw new IOException("Invalid paged index file");
+            }
+            BlockCache cache = new BlockCache(pageBytes, cacheBytes);
+            ImplicitPrioritySearchTree hTree = new PagedPrioritySearchTree(channel, pageBytes, (int) hSize,
+                    levelsPerPage, cache);
+            ImplicitPrioritySearchTree vTree = new PagedPrioritySearchTree(channel, pageBytes + hBytes, (int) vSize,
+                    levelsPerPage, cache);
+            return new PagedIndexFile(min_x, max_x, min_y, max_y, vTree, hTree, cache, channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the minimum x-coordinate of the window.
+     *
+     * @return the minimum x-coordinate of the window
+     */
+    public double getMinX() {
+        return min_x;
+    }
+
+    /**
+     * Returns the maximum x-coordinate of the window.
+     *
+     * @return the maximum x-coordinate of the window
+     */
+    public double getMaxX() {
+        return max_x;
+    }
+
+    /**
+     * Returns the minimum y-coordinate of the window.
+     *
+     * @return the minimum y-coordinate of the window
+     */
+    public double getMinY() {
+        return min_y;
+    }
+
+    /**
+     * Returns the maximum y-coordinate of the window.
+     *
+     * @return the maximum y-coordinate of the window
+     */
+    public double getMaxY() {
+        return max_y;
+    }
+
+    /**
+     * Returns the vertical priority search tree, read from the pages of the file.
+     *
+     * @return the vertical tree
+     */
+    public ImplicitPrioritySearchTree getVTree() {
+        return vTree;
+    }
+
+    /**
+     * Returns the horizontal priority search tree, read from the pages of the file.
+     *
+     * @return the horizontal tree
+     */
+    public ImplicitPrioritySearchTree getHTree() {
+        return hTree;
+    }
+
+    /**
+     * Returns the block cache shared by both trees.
+     *
+     * @return the block cache
+     */
+    public BlockCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Closes the file. The pages of the trees that are not in the block cache can no longer be read.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
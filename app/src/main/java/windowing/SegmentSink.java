@@ -0,0 +1,18 @@
+package windowing;
+
+/**
+ * A SegmentSink receives the segments reported by a windowing algorithm one at a time, as primitive coordinates, so
+ * that they can be consumed without being collected in a list first.
+ */
+@FunctionalInterface
+public interface SegmentSink {
+    /**
+     * Receives a reported segment.
+     *
+     * @param x1 the x-coordinate of the first point of the segment
+     * @param y1 the y-coordinate of the first point of the segment
+     * @param x2 the x-coordinate of the second point of the segment
+     * @param y2 the y-coordinate of the second point of the segment
+     */
+    void accept(double x1, double y1, double x2, double y2);
+}
@@ -0,0 +1,34 @@
+package windowing;
+
+import java.util.ArrayList;
+
+/**
+ * The SegmentsDisplay interface represents what the segments requested through Windowing are displayed on, so that
+ * the windowing does not depend on the graphical interface.
+ */
+public interface SegmentsDisplay {
+    /**
+     * Displays the given segments in place of the previously displayed ones.
+     *
+     * @param segments an ArrayList of Double arrays containing the segments, each one as x1, y1, x2 and y2
+     */
+    void drawLines(ArrayList<Double[]> segments);
+
+    /**
+     * Displays the density of the segments of a window in place of the previously displayed segments, for the windows
+     * holding too many segments to be drawn one by one. It is only called when getWindowPixels returns the size of the
+     * window.
+     *
+     * @param raster the density raster of the window, the size of the window on the display
+     */
+    void drawDensity(DensityRaster raster);
+
+    /**
+     * Returns the size in pixels of the chosen window on the display, for its density raster.
+     *
+     * @return the width and height of the window in pixels, or null if the display only draws segments
+     */
+    default int[] getWindowPixels() {
+        return null;
+    }
+}
@@ -0,0 +1,330 @@
+package windowing;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * The SegmentsFile class reads and writes binary segments files, a compact alternative to the text segments files
+ * that is read without any parsing.
+ * The file starts with a header made of a magic number, a version, the size of the stored values, the window size and
+ * the number of segments of each orientation, followed by the horizontal then the vertical segments. The segments are
+ * stored normalized as in the trees, as fixed-width records of their lowest coordinate, their key and their highest
+ * coordinate, each one as a float or as a double. Reading a section maps it in memory and copies it with bulk reads.
+ */
+public final class SegmentsFile {
+    /**
+     * The extension of binary segments files.
+     */
+    public static final String EXTENSION = ".segb";
+    private static final int MAGIC = 0x42474553;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES + 4 * Double.BYTES + 2 * Long.BYTES;
+    private static final int RECORD_VALUES = 3;
+    private static final int BLOCK_RECORDS = 1 << 16;
+    private static final long MAX_MAPPED_RECORDS = 1 << 26;
+
+    private final double min_x, max_x, min_y, max_y;
+    private final ArrayList<Double[]> vSegments, hSegments;
+
+    private SegmentsFile(double min_x, double max_x, double min_y, double max_y, ArrayList<Double[]> vSegments,
+                         ArrayList<Double[]> hSegments) {
+        this.min_x = min_x;
+        this.max_x = max_x;
+        this.min_y = min_y;
+        this.max_y = max_y;
+        this.vSegments = vSegments;
+        this.hSegments = hSegments;
+    }
+
+    /**
+     * Returns whether the given file starts with the magic number of a binary segments file.
+     *
+     * @param file the file to check
+     * @return true if the file is a binary segments file, false otherwise
+     */
+    public static boolean isSegmentsFile(File file) {
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            return input.length() >= HEADER_BYTES && Integer.reverseBytes(input.readInt()) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns whether all the coordinates of the given segments are exactly representable as floats, so that they can
+     * be stored as floats without any loss.
+     *
+     * @param vSegments the normalized vertical segments
+     * @param hSegments the normalized horizontal segments
+     * @return true if every coordinate is exactly representable as a float, false otherwise
+     */
+    public static boolean isFloatExact(ArrayList<Double[]> vSegments, ArrayList<Double[]> hSegments) {
+        return isFloatExact(vSegments) && isFloatExact(hSegments);
+    }
+
+    /**
+     * Returns whether all the coordinates of the given segments are exactly representable as floats.
+     *
+     * @param segments the normalized segments
+     * @return true if every coordinate is exactly representable as a float, false otherwise
+     */
+    private static boolean isFloatExact(ArrayList<Double[]> segments) {
+        for (Double[] segment : segments) {
+            for (int i = 0; i < RECORD_VALUES; i++) {
+                if (segment[i].floatValue() != segment[i]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Converts a text segments file into a binary segments file. The coordinates are stored as floats if they are all
+     * exactly representable as floats, or if floats are requested, and as doubles otherwise.
+     *
+     * @param textFile   the text segments file to convert
+     * @param binaryFile the binary segments file to write
+     * @param isFloat    flag indicating whether the coordinates must be stored as floats even if some are rounded, or
+     *                   null to choose the most compact lossless size
+     * @return true if the coordinates were stored as floats, false if they were stored as doubles
+     * @throws IOException if an I/O error occurs, if the text file is not a valid segments file, or if it contains a
+     *                     segment that is neither horizontal nor vertical
+     */
+    public static boolean convert(File textFile, File binaryFile, Boolean isFloat) throws IOException {
+        SegmentsParser parser = SegmentsParser.parse(textFile);
+        boolean useFloat = isFloat != null ? isFloat : isFloatExact(parser.getVSegments(), parser.getHSegments());
+        write(binaryFile, parser.getMinX(), parser.getMaxX(), parser.getMinY(), parser.getMaxY(),
+                parser.getVSegments(), parser.getHSegments(), useFloat);
+        return useFloat;
+    }
+
+    /**
+     * Writes a binary segments file holding the given window size and normalized segments.
+     * The file is written under a temporary name of its own in the same directory then renamed, so that a partially
+     * written file is never read, even when several writers write the same file at once.
+     *
+     * @param file      the binary segments file to write
+     * @param min_x     the minimum x-coordinate of the window
+     * @param max_x     the maximum x-coordinate of the window
+     * @param min_y     the minimum y-coordinate of the window
+     * @param max_y     the maximum y-coordinate of the window
+     * @param vSegments the normalized vertical segments
+     * @param hSegments the normalized horizontal segments
+     * @param isFloat   flag indicating whether the coordinates are stored as floats instead of doubles
+     * @throws IOException if an I/O error occurs
+     */
+    public static void write(File file, double min_x, double max_x, double min_y, double max_y,
+                             ArrayList<Double[]> vSegments, ArrayList<Double[]> hSegments, boolean isFloat)
+            throws IOException {
+        Path temporaryFile = Files.createTempFile(file.getAbsoluteFile().getParentFile().toPath(), file.getName(),
+                ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(isFloat ? Float.BYTES : Double.BYTES).putInt(0);
+                header.putDouble(min_x).putDouble(max_x).putDouble(min_y).putDouble(max_y);
+                header.putLong(hSegments.size()).putLong(vSegments.size());
+                header.flip();
+                writeFully(channel, header);
+                int valueBytes = isFloat ? Float.BYTES : Double.BYTES;
+                ByteBuffer block = ByteBuffer.allocate(BLOCK_RECORDS * RECORD_VALUES * valueBytes)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                writeSection(channel, block, hSegments, isFloat);
+                writeSection(channel, block, vSegments, isFloat);
+            }
+            Files.move(temporaryFile, file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * Writes the records of the given segments, one block at a time.
+     *
+     * @param channel  the channel of the file
+     * @param block    the buffer holding a block of records
+     * @param segments the normalized segments
+     * @param isFloat  flag indicating whether the coordinates are stored as floats instead of doubles
+     * @throws IOException if an I/O error occurs
+     */
+    private static void writeSection(FileChannel channel, ByteBuffer block, ArrayList<Double[]> segments,
+                                     boolean isFloat) throws IOException {
+        block.clear();
+        for (Double[] segment : segments) {
+            if (!block.hasRemaining()) {
+                block.flip();
+                writeFully(channel, block);
+                block.clear();
+            }
+            for (int i = 0; i < RECORD_VALUES; i++) {
+                if (isFloat) {
+                    block.putFloat(segment[i].floatValue());
+                } else {
+                    block.putDouble(segment[i]);
+                }
+            }
+        }
+        block.flip();
+        writeFully(channel, block);
+    }
+
+    /**
+     * Writes the remaining bytes of the given buffer.
+     *
+     * @param channel the channel of the file
+     * @param buffer  the buffer to write
+     * @throws IOException if an I/O error occurs
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Reads a binary segments file.
+     *
+     * @param file the binary segments file to read
+     * @return the read window size and segments
+     * @throws IOException if an I/O error occurs or if the file is not a valid binary segments file
+     */
+    public static SegmentsFile read(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new IOException("Truncated segments file");
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a binary segments file");
+            }
+            int valueBytes = header.getInt();
+            header.getInt();
+            double min_x = header.getDouble();
+            double max_x = header.getDouble();
+            double min_y = header.getDouble();
+            double max_y = header.getDouble();
+            long hSize = header.getLong();
+            long vSize = header.getLong();
+            if ((valueBytes != Float.BYTES && valueBytes != Double.BYTES) || hSize < 0 || vSize < 0
+                    || hSize > Integer.MAX_VALUE || vSize > Integer.MAX_VALUE
+                    || channel.size() < HEADER_BYTES + (hSize + vSize) * RECORD_VALUES * valueBytes) {
+                throw new IOException("Invalid segments file");
+            }
+            ArrayList<Double[]> hSegments = readSection(channel, HEADER_BYTES, (int) hSize, valueBytes);
+            ArrayList<Double[]> vSegments = readSection(channel,
+                    HEADER_BYTES + hSize * RECORD_VALUES * valueBytes, (int) vSize, valueBytes);
+            return new SegmentsFile(min_x, max_x, min_y, max_y, vSegments, hSegments);
+        }
+    }
+
+    /**
+     * Reads the records of a section, mapping at most MAX_MAPPED_RECORDS records at a time and copying them into
+     * primitive arrays with bulk reads.
+     *
+     * @param channel    the channel of the file
+     * @param offset     the offset of the section in the file
+     * @param size       the number of records of the section
+     * @param valueBytes the size of a stored value
+     * @return the normalized segments of the section
+     * @throws IOException if an I/O error occurs
+     */
+    private static ArrayList<Double[]> readSection(FileChannel channel, long offset, int size, int valueBytes)
+            throws IOException {
+        ArrayList<Double[]> segments = new ArrayList<>(size);
+        float[] floats = valueBytes == Float.BYTES ? new float[BLOCK_RECORDS * RECORD_VALUES] : null;
+        double[] doubles = valueBytes == Double.BYTES ? new double[BLOCK_RECORDS * RECORD_VALUES] : null;
+        long recordBytes = (long) RECORD_VALUES * valueBytes;
+        for (long first = 0; first < size; first += MAX_MAPPED_RECORDS) {
+            int records = (int) Math.min(MAX_MAPPED_RECORDS, size - first);
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset + first * recordBytes,
+                    records * recordBytes).order(ByteOrder.LITTLE_ENDIAN);
+            FloatBuffer floatBuffer = floats != null ? mapped.asFloatBuffer() : null;
+            DoubleBuffer doubleBuffer = doubles != null ? mapped.asDoubleBuffer() : null;
+            for (int start = 0; start < records; start += BLOCK_RECORDS) {
+                int length = Math.min(BLOCK_RECORDS, records - start) * RECORD_VALUES;
+                if (floats != null) {
+                    floatBuffer.get(floats, 0, length);
+                    for (int i = 0; i < length; i += RECORD_VALUES) {
+                        segments.add(new Double[]{(double) floats[i], (double) floats[i + 1],
+                                (double) floats[i + 2], (double) floats[i + 1]});
+                    }
+                } else {
+                    doubleBuffer.get(doubles, 0, length);
+                    for (int i = 0; i < length; i += RECORD_VALUES) {
+                        segments.add(new Double[]{doubles[i], doubles[i + 1], doubles[i + 2], doubles[i + 1]});
+                    }
+                }
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Returns the minimum x-coordinate of the window.
+     *
+     * @return the minimum x-coordinate of the window
+     */
+    public double getMinX() {
+        return min_x;
+    }
+
+    /**
+     * Returns the maximum x-coordinate of the window.
+     *
+     * @return the maximum x-coordinate of the window
+     */
+    public double getMaxX() {
+        return max_x;
+    }
+
+    /**
+     * Returns the minimum y-coordinate of the window.
+     *
+     * @return the minimum y-coordinate of the window
+     */
+    public double getMinY() {
+        return min_y;
+    }
+
+    /**
+     * Returns the maximum y-coordinate of the window.
+     *
+     * @return the maximum y-coordinate of the window
+     */
+    public double getMaxY() {
+        return max_y;
+    }
+
+    /**
+     * Returns the normalized vertical segments, in the order they were written.
+     *
+     * @return the vertical segments
+     */
+    public ArrayList<Double[]> getVSegments() {
+        return vSegments;
+    }
+
+    /**
+     * Returns the normalized horizontal segments, in the order they were written.
+     *
+     * @return the horizontal segments
+     */
+    public ArrayList<Double[]> getHSegments() {
+        return hSegments;
+    }
+}
@@ -0,0 +1,353 @@
+package windowing;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * The SegmentsParser class parses segments files by mapping them in memory and reading their bytes directly into
+ * doubles, without creating a String for each number. The file is split into chunks at line boundaries, which are
+ * parsed in parallel on the common pool, then the segments of the chunks are gathered in the order of the file.
+ * The numbers are parsed as doubles, exactly as Double.parseDouble would, instead of being rounded to floats first.
+ * The file starts with the window size, followed by one segment per line, each one made of four numbers separated by
+ * whitespace. The segments are normalized as in the trees: vertical segments as {y1, x1, y2, x2} and horizontal ones as
+ * {x1, y1, x2, y2}, both with their lowest coordinate first.
+ */
+final class SegmentsParser {
+    private static final long MIN_CHUNK_BYTES = 1 << 20;
+    private static final long MAX_CHUNK_BYTES = 1 << 28;
+    private static final int MAX_FAST_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private final double min_x, max_x, min_y, max_y;
+    private final ArrayList<Double[]> vSegments, hSegments;
+
+    private SegmentsParser(double[] bounds, ArrayList<Double[]> vSegments, ArrayList<Double[]> hSegments) {
+        this.min_x = bounds[0];
+        this.max_x = bounds[1];
+        this.min_y = bounds[2];
+        this.max_y = bounds[3];
+        this.vSegments = vSegments;
+        this.hSegments = hSegments;
+    }
+
+    /**
+     * Parses the given segments file.
+     *
+     * @param file the segments file
+     * @return the parsed window size and segments
+     * @throws IOException if an I/O error occurs, if the file is not a valid segments file, or if it contains a
+     *                     segment that is neither horizontal nor vertical
+     */
+    static SegmentsParser parse(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long[] boundaries = getBoundaries(channel);
+            List<Callable<Chunk>> tasks = new ArrayList<>();
+            for (int i = 0; i < boundaries.length - 1; i++) {
+                long start = boundaries[i];
+                long end = boundaries[i + 1];
+                boolean isFirst = i == 0;
+                tasks.add(() -> new Chunk(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start), isFirst));
+            }
+            List<Chunk> chunks = new ArrayList<>();
+            for (Future<Chunk> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+                chunks.add(getChunk(future));
+            }
+            int vSize = 0, hSize = 0;
+            for (Chunk chunk : chunks) {
+                vSize += chunk.vSegments.size();
+                hSize += chunk.hSegments.size();
+            }
+            ArrayList<Double[]> vSegments = new ArrayList<>(vSize);
+            ArrayList<Double[]> hSegments = new ArrayList<>(hSize);
+            for (Chunk chunk : chunks) {
+                vSegments.addAll(chunk.vSegments);
+                hSegments.addAll(chunk.hSegments);
+            }
+            return new SegmentsParser(chunks.get(0).bounds, vSegments, hSegments);
+        }
+    }
+
+    /**
+     * Splits the file into chunks, each one ending at the end of a line, so that the parallelism of the common pool is
+     * used while no chunk is too small to be worth a task or too large to be mapped.
+     *
+     * @param channel the channel of the file
+     * @return the offsets of the start of each chunk, followed by the size of the file
+     * @throws IOException if an I/O error occurs
+     */
+    private static long[] getBoundaries(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long chunksNumber = Math.max((size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES,
+                Math.min(size / MIN_CHUNK_BYTES, 4L * ForkJoinPool.getCommonPoolParallelism()));
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        for (long i = 1; i < chunksNumber; i++) {
+            long position = Math.max(size * i / chunksNumber, boundaries.get(boundaries.size() - 1));
+            long lineEnd = -1;
+            while (lineEnd == -1 && position < size) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                for (int j = 0; j < read && lineEnd == -1; j++) {
+                    if (buffer.get(j) == '\n') {
+                        lineEnd = position + j + 1;
+                    }
+                }
+                position += Math.max(read, 0);
+            }
+            if (lineEnd == -1) {
+                break;
+            }
+            if (lineEnd > boundaries.get(boundaries.size() - 1)) {
+                boundaries.add(lineEnd);
+            }
+        }
+        if (boundaries.get(boundaries.size() - 1) < size || size == 0) {
+            boundaries.add(size);
+        }
+        long[] offsets = new long[boundaries.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = boundaries.get(i);
+        }
+        return offsets;
+    }
+
+    /**
+     * Returns the chunk parsed by a task, rethrowing the exception of the task if it failed. The pool wraps the
+     * exceptions of the tasks, so the IOException is looked for among the causes.
+     *
+     * @param future the future of the task
+     * @return the parsed chunk
+     * @throws IOException if the task failed
+     */
+    private static Chunk getChunk(Future<Chunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+            }
+            throw new IOException("Invalid segments file", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing", e);
+        }
+    }
+
+    /**
+     * Returns the minimum x-coordinate of the window size.
+     *
+     * @return the minimum x-coordinate of the window size
+     */
+    double getMinX() {
+        return min_x;
+    }
+
+    /**
+     * Returns the maximum x-coordinate of the window size.
+     *
+     * @return the maximum x-coordinate of the window size
+     */
+    double getMaxX() {
+        return max_x;
+    }
+
+    /**
+     * Returns the minimum y-coordinate of the window size.
+     *
+     * @return the minimum y-coordinate of the window size
+     */
+    double getMinY() {
+        return min_y;
+    }
+
+    /**
+     * Returns the maximum y-coordinate of the window size.
+     *
+     * @return the maximum y-coordinate of the window size
+     */
+    double getMaxY() {
+        return max_y;
+    }
+
+    /**
+     * Returns the normalized vertical segments, in the order of the file.
+     *
+     * @return the vertical segments
+     */
+    ArrayList<Double[]> getVSegments() {
+        return vSegments;
+    }
+
+    /**
+     * Returns the normalized horizontal segments, in the order of the file.
+     *
+     * @return the horizontal segments
+     */
+    ArrayList<Double[]> getHSegments() {
+        return hSegments;
+    }
+
+    /**
+     * A chunk of the file, made of whole lines, and the segments parsed from it.
+     */
+    private static final class Chunk {
+        private final MappedByteBuffer buffer;
+        private final int limit;
+        private final double[] bounds = new double[4];
+        private final ArrayList<Double[]> vSegments = new ArrayList<>();
+        private final ArrayList<Double[]> hSegments = new ArrayList<>();
+        private int position;
+
+        /**
+         * Parses a chunk of the file.
+         *
+         * @param buffer  the mapped bytes of the chunk
+         * @param isFirst flag indicating whether the chunk is the first one, starting with the window size
+         * @throws IOException if the chunk is not made of valid segments
+         */
+        private Chunk(MappedByteBuffer buffer, boolean isFirst) throws IOException {
+            this.buffer = buffer;
+            this.limit = buffer.limit();
+            if (isFirst) {
+                for (int i = 0; i < 4; i++) {
+                    if (!skipWhitespace()) {
+                        throw new IOException("Invalid segments file");
+                    }
+                    bounds[i] = parseNumber();
+                }
+            }
+            while (skipWhitespace()) {
+                double x1 = parseNumber();
+                double y1 = nextNumber();
+                double x2 = nextNumber();
+                double y2 = nextNumber();
+                if (x1 == x2) {
+                    if (y1 < y2) {
+                        vSegments.add(new Double[]{y1, x1, y2, x2});
+                    } else {
+                        vSegments.add(new Double[]{y2, x2, y1, x1});
+                    }
+                } else if (y1 == y2) {
+                    if (x1 < x2) {
+                        hSegments.add(new Double[]{x1, y1, x2, y2});
+                    } else {
+                        hSegments.add(new Double[]{x2, y2, x1, y1});
+                    }
+                } else {
+                    throw new IOException("Not a segment");
+                }
+            }
+        }
+
+        /**
+         * Skips the whitespace at the current position.
+         *
+         * @return true if a number follows, false if the end of the chunk is reached
+         */
+        private boolean skipWhitespace() {
+            while (position < limit && isWhitespace(buffer.get(position))) {
+                position++;
+            }
+            return position < limit;
+        }
+
+        /**
+         * Parses the next number of the segment being read.
+         *
+         * @return the parsed number
+         * @throws IOException if the chunk ends before the number
+         */
+        private double nextNumber() throws IOException {
+            if (!skipWhitespace()) {
+                throw new IOException("Invalid segments file");
+            }
+            return parseNumber();
+        }
+
+        /**
+         * Parses the number at the current position. Numbers of at most 15 significant digits with a small exponent,
+         * which are all the numbers of usual segments files, are computed directly from their digits, and are exactly
+         * rounded as such. Any other number is handed to Double.parseDouble.
+         *
+         * @return the parsed number
+         * @throws IOException if the token at the current position is not a number
+         */
+        private double parseNumber() throws IOException {
+            int start = position;
+            boolean isNegative = false;
+            byte current = buffer.get(position);
+            if (current == '-' || current == '+') {
+                isNegative = current == '-';
+                position++;
+            }
+            long digits = 0;
+            int digitsNumber = 0, exponent = 0;
+            boolean isFast = true, hasDigits = false, isFraction = false;
+            while (position < limit) {
+                current = buffer.get(position);
+                if (current >= '0' && current <= '9') {
+                    hasDigits = true;
+                    if (digitsNumber > 0 || current != '0') {
+                        digitsNumber++;
+                    }
+                    if (digitsNumber <= MAX_FAST_DIGITS) {
+                        digits = digits * 10 + (current - '0');
+                        if (isFraction) {
+                            exponent--;
+                        }
+                    } else if (!isFraction) {
+                        exponent++;
+                        isFast = false;
+                    } else {
+                        isFast = false;
+                    }
+                } else if (current == '.' && !isFraction) {
+                    isFraction = true;
+                } else if (isWhitespace(current)) {
+                    break;
+                } else {
+                    isFast = false;
+                }
+                position++;
+            }
+            if (isFast && hasDigits && Math.abs(exponent) < POWERS_OF_TEN.length) {
+                double value = exponent < 0 ? digits / POWERS_OF_TEN[-exponent] : digits * POWERS_OF_TEN[exponent];
+                return isNegative ? -value : value;
+            }
+            byte[] token = new byte[position - start];
+            for (int i = 0; i < token.length; i++) {
+                token[i] = buffer.get(start + i);
+            }
+            try {
+                return Double.parseDouble(new String(token, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid segments file", e);
+            }
+        }
+
+        /**
+         * Returns whether the given byte is whitespace.
+         *
+         * @param value the byte
+         * @return true if the byte is a space, a tab, a line feed, a carriage return or a form feed
+         */
+        private static boolean isWhitespace(byte value) {
+            return value == ' ' || value == '\n' || value == '\r' || value == '\t' || value == '\f';
+        }
+    }
+}
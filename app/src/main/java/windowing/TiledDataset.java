@@ -0,0 +1,639 @@
+package windowing;
+
+import metrics.WindowingMetrics;
+import tree.FlatPrioritySearchTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * The TiledDataset class splits the window size of a dataset into a grid of tiles, each one holding its own pair of
+ * priority search trees, so that the tiles of a large window are searched in parallel, and an update only rebuilds the
+ * tile of the updated segment.
+ * <p>
+ * Each segment has a home tile: a horizontal segment the tile of the row of its key and of the column of its left end,
+ * and a vertical one the tile of the column of its key and of the row of its bottom end. The tiles the segment crosses
+ * after its home tile, on the right of a horizontal segment or above a vertical one, also hold it in crossing trees of
+ * their own. A window only searches the tiles it intersects: the home trees of all of them, the horizontal crossing
+ * trees of its first column and the vertical crossing trees of its first row. A segment is thus found once, by the
+ * first tile of the window it reaches, without being filtered. Each tile spans from its lower edges, included, to its
+ * upper edges, excluded, but for the tiles of the last column or row, which also hold their upper edge.
+ * <p>
+ * The rows and columns of tiles inside the window skip the checks of its bounds, and the searches of the tiles of a
+ * window are spread over the cores. An update rebuilds the trees of the tiles of the updated segment only, instead of
+ * the trees of the whole dataset.
+ * <p>
+ * Like a dataset, a tiled dataset is never modified: inserting or deleting a segment returns a new tiled dataset, which
+ * shares with the previous one all the tiles but the rebuilt one.
+ */
+public final class TiledDataset {
+    /**
+     * The trees of a tile: the horizontal and vertical segments it is the home tile of, then the horizontal and
+     * vertical segments crossing it from their home tile.
+     */
+    private static final int H_HOME = 0, V_HOME = 1, H_CROSSING = 2, V_CROSSING = 3, TREES = 4;
+    /**
+     * The tree searched for the orientation of segments a tile search does not look for.
+     */
+    private static final FlatPrioritySearchTree EMPTY_TREE = new FlatPrioritySearchTree(new ArrayList<>());
+    private final double min_x, max_x, min_y, max_y;
+    private final int columns, rows;
+    /**
+     * The x-coordinates of the edges of the columns, from min_x to max_x.
+     */
+    private final double[] xEdges;
+    /**
+     * The y-coordinates of the edges of the rows, from min_y to max_y.
+     */
+    private final double[] yEdges;
+    /**
+     * The tiles, row by row.
+     */
+    private final Tile[] tiles;
+    private final int segmentsNumber;
+
+    private TiledDataset(double min_x, double max_x, double min_y, double max_y, int columns, int rows, Tile[] tiles,
+                         int segmentsNumber) {
+        this.min_x = min_x;
+        this.max_x = max_x;
+        this.min_y = min_y;
+        this.max_y = max_y;
+        this.columns = columns;
+        this.rows = rows;
+        this.xEdges = getEdges(min_x, max_x, columns);
+        this.yEdges = getEdges(min_y, max_y, rows);
+        this.tiles = tiles;
+        this.segmentsNumber = segmentsNumber;
+    }
+
+    /**
+     * Splits the segments of the given dataset into a grid of tiles of the same size, and builds the trees of the
+     * tiles in parallel.
+     *
+     * @param dataset the dataset
+     * @param columns the number of columns of the grid
+     * @param rows    the number of rows of the grid
+     * @return the tiled dataset
+     * @throws IllegalArgumentException if the number of columns or rows is not positive
+     */
+    public static TiledDataset build(Dataset dataset, int columns, int rows) {
+        if (columns < 1 || rows < 1) {
+            throw new IllegalArgumentException("Invalid number of tiles: " + columns + " x " + rows);
+        }
+        TiledDataset tiledDataset = new TiledDataset(dataset.getMinX(), dataset.getMaxX(), dataset.getMinY(),
+                dataset.getMaxY(), columns, rows, new Tile[columns * rows], dataset.getSegmentsNumber());
+        List<List<ArrayList<Double[]>>> segments = new ArrayList<>(columns * rows);
+        for (int i = 0; i < columns * rows; i++) {
+            List<ArrayList<Double[]>> tileSegments = new ArrayList<>(TREES);
+            for (int tree = 0; tree < TREES; tree++) {
+                tileSegments.add(new ArrayList<>());
+            }
+            segments.add(tileSegments);
+        }
+        for (Double[] segment : dataset.getVSortedSegments()) {
+            tiledDataset.forEachTile(segment, true, (tile, tree) -> segments.get(tile).get(tree).add(segment));
+        }
+        for (Double[] segment : dataset.getHSortedSegments()) {
+            tiledDataset.forEachTile(segment, false, (tile, tree) -> segments.get(tile).get(tree).add(segment));
+        }
+        Tile[] tiles = tiledDataset.tiles;
+        fanOut(tiles.length, i -> tiles[i] = new Tile(segments.get(i)));
+        return tiledDataset;
+    }
+
+    /**
+     * Returns the edges splitting the given range into cells of the same size.
+     *
+     * @param min   the start of the range
+     * @param max   the end of the range
+     * @param cells the number of cells
+     * @return the cells + 1 edges, from the start to the end of the range
+     */
+    private static double[] getEdges(double min, double max, int cells) {
+        double[] edges = new double[cells + 1];
+        for (int i = 0; i < cells; i++) {
+            edges[i] = min + (max - min) * i / cells;
+        }
+        edges[cells] = max;
+        return edges;
+    }
+
+    /**
+     * Returns the cell holding the given value, the values outside of the edges being held by the first or last cell.
+     *
+     * @param edges the edges of the cells
+     * @param value the value
+     * @return the index of the cell
+     */
+    private static int getCell(double[] edges, double value) {
+        int last = edges.length - 2;
+        double cell = Math.floor((value - edges[0]) / (edges[last + 1] - edges[0]) * (last + 1));
+        int index = cell >= last ? last : cell > 0 ? (int) cell : 0;
+        while (index > 0 && value < edges[index]) {
+            index--;
+        }
+        while (index < last && value >= edges[index + 1]) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Runs the given action for each tile holding the given normalized segment, from its home tile to the tile of its
+     * high end: the tiles of the row of its key, from the column of its low x-coordinate, for a horizontal segment, and
+     * the tiles of the column of its key, from the row of its low y-coordinate, for a vertical one.
+     *
+     * @param segment    the normalized segment
+     * @param isVertical flag indicating whether the segment is vertical or horizontal
+     * @param action     the action run with the index of each tile and the index of the tree holding the segment in it
+     */
+    private void forEachTile(Double[] segment, boolean isVertical, TileAction action) {
+        int home, last, step;
+        if (isVertical) {
+            int column = getCell(xEdges, segment[1]);
+            home = getCell(yEdges, segment[0]) * columns + column;
+            last = getCell(yEdges, segment[2]) * columns + column;
+            step = columns;
+        } else {
+            int row = getCell(yEdges, segment[1]);
+            home = row * columns + getCell(xEdges, segment[0]);
+            last = row * columns + getCell(xEdges, segment[2]);
+            step = 1;
+        }
+        action.accept(home, isVertical ? V_HOME : H_HOME);
+        for (int tile = home + step; tile <= last; tile += step) {
+            action.accept(tile, isVertical ? V_CROSSING : H_CROSSING);
+        }
+    }
+
+    /**
+     * Runs the given action for each index from 0 to the given number, in parallel on the common pool.
+     *
+     * @param size   the number of indexes
+     * @param action the action run for each index
+     */
+    private static void fanOut(int size, IntConsumer action) {
+        if (size == 1) {
+            action.accept(0);
+        } else if (size > 1) {
+            ForkJoinPool.commonPool().invoke(new FanOutTask(action, 0, size));
+        }
+    }
+
+    /**
+     * Returns a new tiled dataset holding the segments of this one and the given segment, in which only the tiles
+     * holding the segment are rebuilt.
+     *
+     * @param x1 the x-coordinate of the first point of the segment
+     * @param y1 the y-coordinate of the first point of the segment
+     * @param x2 the x-coordinate of the second point of the segment
+     * @param y2 the y-coordinate of the second point of the segment
+     * @return the new tiled dataset, or null if the segment is not horizontal or vertical, or outside the window size
+     */
+    public TiledDataset insertSegment(double x1, double y1, double x2, double y2) {
+        Double[] segment = Dataset.normalize(x1, y1, x2, y2, min_x, max_x, min_y, max_y);
+        if (segment == null) {
+            return null;
+        }
+        Tile[] newTiles = tiles.clone();
+        List<int[]> updates = new ArrayList<>();
+        forEachTile(segment, x1 == x2, (tile, tree) -> updates.add(new int[]{tile, tree}));
+        fanOut(updates.size(), i -> {
+            int[] update = updates.get(i);
+            newTiles[update[0]] = tiles[update[0]].insert(segment, update[1]);
+        });
+        return new TiledDataset(min_x, max_x, min_y, max_y, columns, rows, newTiles, segmentsNumber + 1);
+    }
+
+    /**
+     * Returns a new tiled dataset holding the segments of this one but one segment equal to the given segment, in which
+     * only the tiles holding the segment are rebuilt.
+     *
+     * @param x1 the x-coordinate of the first point of the segment
+     * @param y1 the y-coordinate of the first point of the segment
+     * @param x2 the x-coordinate of the second point of the segment
+     * @param y2 the y-coordinate of the second point of the segment
+     * @return the new tiled dataset, or null if the segment was not found
+     */
+    public TiledDataset deleteSegment(double x1, double y1, double x2, double y2) {
+        Double[] segment = Dataset.normalize(x1, y1, x2, y2, min_x, max_x, min_y, max_y);
+        if (segment == null) {
+            return null;
+        }
+        List<int[]> updates = new ArrayList<>();
+        forEachTile(segment, x1 == x2, (tile, tree) -> updates.add(new int[]{tile, tree,
+                tiles[tile].indexOf(segment, tree)}));
+        if (updates.get(0)[2] < 0) {
+            return null;
+        }
+        Tile[] newTiles = tiles.clone();
+        fanOut(updates.size(), i -> {
+            int[] update = updates.get(i);
+            newTiles[update[0]] = tiles[update[0]].delete(update[2], update[1]);
+        });
+        return new TiledDataset(min_x, max_x, min_y, max_y, columns, rows, newTiles, segmentsNumber - 1);
+    }
+
+    /**
+     * Returns whether the given window is within the window size of the dataset.
+     *
+     * @param bounds bounding box array consisting of bottom, top, left and right bounds
+     * @return true if the window is within the window size, false otherwise
+     */
+    public boolean contains(Double[] bounds) {
+        return bounds[0] >= min_y && bounds[1] <= max_y && bounds[2] >= min_x && bounds[3] <= max_x;
+    }
+
+    /**
+     * Searches the tiles intersecting the given window for the segments within it, in parallel.
+     *
+     * @param bounds bounding box array consisting of bottom, top, left and right bounds
+     * @return an ArrayList of Double arrays containing the segments within the window
+     */
+    public ArrayList<Double[]> launchWindowing(Double[] bounds) {
+        long start = System.nanoTime();
+        int[] searches = getSearches(bounds);
+        int chunks = getChunks(searches.length);
+        List<ArrayList<Double[]>> chunksSegments = new ArrayList<>(Collections.nCopies(chunks, null));
+        long[] nodes = new long[chunks];
+        fanOut(chunks, i -> {
+            ArrayList<Double[]> segments = new ArrayList<>();
+            nodes[i] = search(searches, i, chunks, bounds, new FlatWindowingAlgorithm(),
+                    (x1, y1, x2, y2) -> segments.add(new Double[]{x1, y1, x2, y2}));
+            chunksSegments.set(i, segments);
+        });
+        ArrayList<Double[]> reportedSegments = chunksSegments.get(0);
+        for (int i = 1; i < chunks; i++) {
+            reportedSegments.addAll(chunksSegments.get(i));
+        }
+        WindowingMetrics.getInstance().recordQuery(System.nanoTime() - start, Arrays.stream(nodes).sum(),
+                reportedSegments.size());
+        return reportedSegments;
+    }
+
+    /**
+     * Searches the tiles intersecting the given window one after the other, pushing each segment within the window to
+     * the given sink from the calling thread.
+     *
+     * @param bounds bounding box array consisting of bottom, top, left and right bounds
+     * @param sink   the sink receiving the segments within the window
+     */
+    public void launchWindowing(Double[] bounds, SegmentSink sink) {
+        long start = System.nanoTime();
+        long[] count = new long[1];
+        long nodes = search(getSearches(bounds), 0, 1, bounds, new FlatWindowingAlgorithm(), (x1, y1, x2, y2) -> {
+            count[0]++;
+            sink.accept(x1, y1, x2, y2);
+        });
+        WindowingMetrics.getInstance().recordQuery(System.nanoTime() - start, nodes, count[0]);
+    }
+
+    /**
+     * Searches the tiles for the segments within each window of a batch, the windows being answered one after the
+     * other, each one searching its tiles in parallel.
+     *
+     * @param windows the windows, each one consisting of bottom, top, left and right bounds
+     * @return the segments within each window, as offset ranges into one shared buffer
+     */
+    public BatchResult launchBatchWindowing(Double[][] windows) {
+        List<ArrayList<Double[]>> segments = new ArrayList<>(windows.length);
+        for (Double[] window : windows) {
+            segments.add(launchWindowing(window));
+        }
+        return BatchResult.of(segments);
+    }
+
+    /**
+     * Counts the segments within the given window without reporting them, searching the tiles intersecting the window
+     * in parallel. The subtrees whose segments are all within the window are counted from their size.
+     *
+     * @param bounds bounding box array consisting of bottom, top, left and right bounds
+     * @return the number of segments within the window
+     */
+    public long countWindow(Double[] bounds) {
+        long start = System.nanoTime();
+        int[] searches = getSearches(bounds);
+        int chunks = getChunks(searches.length);
+        long[] counts = new long[chunks];
+        long[] nodes = new long[chunks];
+        fanOut(chunks, i -> {
+            FlatWindowingAlgorithm algorithm = new FlatWindowingAlgorithm();
+            algorithm.startCounting();
+            nodes[i] = search(searches, i, chunks, bounds, algorithm, null);
+            counts[i] = algorithm.getCount();
+        });
+        long count = Arrays.stream(counts).sum();
+        WindowingMetrics.getInstance().recordQuery(System.nanoTime() - start, Arrays.stream(nodes).sum(), count);
+        return count;
+    }
+
+    /**
+     * Returns the searches needed to find the segments within the given window, each one being the index of a tile
+     * times TREES plus the index of the searched tree of the tile. Only the tiles intersecting the window are searched:
+     * their home trees, the horizontal crossing trees of the first column and the vertical crossing trees of the first
+     * row, leaving out the empty trees.
+     *
+     * @param bounds bounding box array consisting of bottom, top, left and right bounds
+     * @return the searches, row by row
+     */
+    private int[] getSearches(Double[] bounds) {
+        int firstColumn = getCell(xEdges, bounds[2]), lastColumn = getCell(xEdges, bounds[3]);
+        int firstRow = getCell(yEdges, bounds[0]), lastRow = getCell(yEdges, bounds[1]);
+        int[] searches = new int[(lastRow - firstRow + 1) * (lastColumn - firstColumn + 1) * TREES];
+        int i = 0;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int tile = row * columns + column;
+                for (int tree = 0; tree < TREES; tree++) {
+                    if ((tree != H_CROSSING || column == firstColumn) && (tree != V_CROSSING || row == firstRow)
+                            && !tiles[tile].isEmpty(tree)) {
+                        searches[i++] = tile * TREES + tree;
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(searches, i);
+    }
+
+    /**
+     * Returns the number of chunks in which the given number of searches are split to be run in parallel.
+     *
+     * @param searches the number of searches
+     * @return the number of chunks
+     */
+    private static int getChunks(int searches) {
+        return Math.max(1, Math.min(searches, ForkJoinPool.getCommonPoolParallelism()));
+    }
+
+    /**
+     * Runs the searches of the given chunk of searches for the segments within the given window.
+     * Each search clips the window to the rows or columns of the keys of its tile, and gives them as the maximum window
+     * of its tree, so that the bounds of the window beyond the tile are not checked.
+     *
+     * @param searches  the searches, as returned by getSearches
+     * @param chunk     the index of the chunk
+     * @param chunks    the number of chunks
+     * @param bounds    bounding box array consisting of bottom, top, left and right bounds
+     * @param algorithm the algorithm running the searches, counting the segments if it was asked to
+     * @param sink      the sink receiving the segments within the window, or null while counting
+     * @return the number of tree nodes visited by the searches
+     */
+    private long search(int[] searches, int chunk, int chunks, Double[] bounds, FlatWindowingAlgorithm algorithm,
+                        SegmentSink sink) {
+        long nodes = 0;
+        int end = (int) ((long) searches.length * (chunk + 1) / chunks);
+        for (int i = (int) ((long) searches.length * chunk / chunks); i < end; i++) {
+            Tile tile = tiles[searches[i] / TREES];
+            int tree = searches[i] % TREES;
+            int column = searches[i] / TREES % columns;
+            int row = searches[i] / TREES / columns;
+            if (tree == H_HOME || tree == H_CROSSING) {
+                Double[] maxBounds = new Double[]{yEdges[row], yEdges[row + 1], min_x, max_x};
+                Double[] tileBounds = new Double[]{Math.max(bounds[0], maxBounds[0]),
+                        Math.min(bounds[1], maxBounds[1]), bounds[2], bounds[3]};
+                nodes += algorithm.search(EMPTY_TREE, tile.trees[tree], tileBounds, maxBounds, sink);
+            } else {
+                Double[] maxBounds = new Double[]{min_y, max_y, xEdges[column], xEdges[column + 1]};
+                Double[] tileBounds = new Double[]{bounds[0], bounds[1], Math.max(bounds[2], maxBounds[2]),
+                        Math.min(bounds[3], maxBounds[3])};
+                nodes += algorithm.search(tile.trees[tree], EMPTY_TREE, tileBounds, maxBounds, sink);
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Returns the number of columns of the grid.
+     *
+     * @return the number of columns
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Returns the number of rows of the grid.
+     *
+     * @return the number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of segments of the dataset.
+     *
+     * @return the number of segments
+     */
+    public int getSegmentsNumber() {
+        return segmentsNumber;
+    }
+
+    /**
+     * Returns the minimum x-coordinate of the window.
+     *
+     * @return the minimum x-coordinate of the window
+     */
+    public double getMinX() {
+        return min_x;
+    }
+
+    /**
+     * Returns the maximum x-coordinate of the window.
+     *
+     * @return the maximum x-coordinate of the window
+     */
+    public double getMaxX() {
+        return max_x;
+    }
+
+    /**
+     * Returns the minimum y-coordinate of the window.
+     *
+     * @return the minimum y-coordinate of the window
+     */
+    public double getMinY() {
+        return min_y;
+    }
+
+    /**
+     * Returns the maximum y-coordinate of the window.
+     *
+     * @return the maximum y-coordinate of the window
+     */
+    public double getMaxY() {
+        return max_y;
+    }
+
+    /**
+     * A tile of the grid: the sorted segments of each of its trees and the trees, never modified once built.
+     */
+    private static final class Tile {
+        private final List<ArrayList<Double[]>> segments;
+        private final FlatPrioritySearchTree[] trees;
+
+        /**
+         * Builds the trees of a tile from its segments.
+         *
+         * @param segments the normalized segments of each tree of the tile, sorted
+         */
+        Tile(List<ArrayList<Double[]>> segments) {
+            this.segments = segments;
+            this.trees = new FlatPrioritySearchTree[TREES];
+            for (int tree = 0; tree < TREES; tree++) {
+                trees[tree] = build(segments.get(tree));
+            }
+        }
+
+        private Tile(List<ArrayList<Double[]>> segments, FlatPrioritySearchTree[] trees) {
+            this.segments = segments;
+            this.trees = trees;
+        }
+
+        /**
+         * Builds a tree from the given sorted segments, recording its construction in the metrics.
+         *
+         * @param sortedSegments the normalized segments, sorted
+         * @return the tree
+         */
+        private static FlatPrioritySearchTree build(ArrayList<Double[]> sortedSegments) {
+            long start = System.nanoTime();
+            FlatPrioritySearchTree tree = new FlatPrioritySearchTree(sortedSegments);
+            WindowingMetrics.getInstance().recordTreeBuild(System.nanoTime() - start);
+            return tree;
+        }
+
+        /**
+         * Returns whether the given tree of the tile holds no segment.
+         *
+         * @param tree the index of the tree
+         * @return true if the tree is empty, false otherwise
+         */
+        boolean isEmpty(int tree) {
+            return segments.get(tree).isEmpty();
+        }
+
+        /**
+         * Returns a new tile holding the segments of this one and the given segment in the given tree, after the
+         * segments of equal key.
+         *
+         * @param segment the normalized segment
+         * @param tree    the index of the tree holding the segment
+         * @return the rebuilt tile
+         */
+        Tile insert(Double[] segment, int tree) {
+            ArrayList<Double[]> treeSegments = new ArrayList<>(segments.get(tree));
+            int low = 0, high = treeSegments.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (treeSegments.get(middle)[1] <= segment[1]) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            treeSegments.add(low, segment);
+            return rebuild(tree, treeSegments);
+        }
+
+        /**
+         * Returns the index of a segment equal to the given segment in the sorted segments of the given tree, searching
+         * only the segments of equal key.
+         *
+         * @param segment the normalized segment
+         * @param tree    the index of the tree
+         * @return the index of the segment, or -1 if it was not found
+         */
+        int indexOf(Double[] segment, int tree) {
+            ArrayList<Double[]> treeSegments = segments.get(tree);
+            int low = 0, high = treeSegments.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (treeSegments.get(middle)[1] < segment[1]) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            for (int i = low; i < treeSegments.size() && treeSegments.get(i)[1] <= segment[1]; i++) {
+                if (Arrays.equals(treeSegments.get(i), segment)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Returns a new tile holding the segments of this one but the segment at the given index of the given tree.
+         *
+         * @param index the index of the segment in the sorted segments of the tree, as returned by indexOf
+         * @param tree  the index of the tree
+         * @return the rebuilt tile
+         */
+        Tile delete(int index, int tree) {
+            ArrayList<Double[]> treeSegments = new ArrayList<>(segments.get(tree));
+            treeSegments.remove(index);
+            return rebuild(tree, treeSegments);
+        }
+
+        /**
+         * Returns a new tile sharing the trees of this one but the given tree, rebuilt from the given segments.
+         *
+         * @param tree         the index of the rebuilt tree
+         * @param treeSegments the normalized segments of the rebuilt tree, sorted
+         * @return the new tile
+         */
+        private Tile rebuild(int tree, ArrayList<Double[]> treeSegments) {
+            List<ArrayList<Double[]>> newSegments = new ArrayList<>(segments);
+            newSegments.set(tree, treeSegments);
+            FlatPrioritySearchTree[] newTrees = trees.clone();
+            newTrees[tree] = build(treeSegments);
+            return new Tile(newSegments, newTrees);
+        }
+    }
+
+    /**
+     * An action run for a tile holding a segment.
+     */
+    @FunctionalInterface
+    private interface TileAction {
+        /**
+         * Runs the action for a tile holding the segment.
+         *
+         * @param tile the index of the tile
+         * @param tree the index of the tree of the tile holding the segment
+         */
+        void accept(int tile, int tree);
+    }
+
+    /**
+     * A task running an action for a range of indexes, splitting it in two until a single index remains.
+     */
+    private static final class FanOutTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final IntConsumer action;
+        private final int start;
+        private final int end;
+
+        FanOutTask(IntConsumer action, int start, int end) {
+            this.action = action;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > 1) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new FanOutTask(action, start, middle), new FanOutTask(action, middle, end));
+            } else {
+                action.accept(start);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package windowing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The WindowCache class keeps the segments reported for the most recently requested windows, so that requesting a
+ * window again does not search the trees again.
+ * The windows are kept in least recently used order, and the least recently used ones are evicted once the estimated
+ * memory used by the cached segments goes above a maximum. A window lying inside a cached window is answered by
+ * filtering the segments of the smallest cached window containing it.
+ */
+public final class WindowCache {
+    /**
+     * The default maximum number of bytes used by the cached segments.
+     */
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    /**
+     * The estimated number of bytes used by one cached segment: its reference in the list, its array and its four
+     * Double objects.
+     */
+    static final long SEGMENT_BYTES = 8 + 32 + 4 * 16;
+
+    private final long maxBytes;
+    private final LinkedHashMap<List<Double>, ArrayList<Double[]>> windows = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    /**
+     * Constructs a new WindowCache object.
+     *
+     * @param maxBytes the maximum number of bytes used by the cached segments
+     */
+    public WindowCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the segments reported for the given window, either cached for the window itself or filtered from the
+     * smallest cached window containing it. Filtered segments are cached for the window.
+     *
+     * @param bounds bounding box array consisting of bottom, top, left and right bounds
+     * @return a new ArrayList of Double arrays containing the segments of the window, or null if no cached window
+     * contains it
+     */
+    public synchronized ArrayList<Double[]> get(Double[] bounds) {
+        List<Double> key = Arrays.asList(bounds.clone());
+        ArrayList<Double[]> segments = windows.get(key);
+        if (segments != null) {
+            return new ArrayList<>(segments);
+        }
+        List<Double> container = null;
+        for (Map.Entry<List<Double>, ArrayList<Double[]>> entry : windows.entrySet()) {
+            if (contains(entry.getKey(), bounds)
+                    && (segments == null || entry.getValue().size() < segments.size())) {
+                container = entry.getKey();
+                segments = entry.getValue();
+            }
+        }
+        if (segments == null) {
+            return null;
+        }
+        windows.get(container);
+        ArrayList<Double[]> filteredSegments = new ArrayList<>();
+        for (Double[] segment : segments) {
+            if (WindowingAlgorithm.isInWindow(segment, bounds)) {
+                filteredSegments.add(segment);
+            }
+        }
+        put(bounds, filteredSegments);
+        return new ArrayList<>(filteredSegments);
+    }
+
+    /**
+     * Caches the segments reported for the given window, evicting the least recently used windows if the cache goes
+     * above its maximum size. Nothing is cached if the segments alone are above the maximum size.
+     *
+     * @param bounds   bounding box array consisting of bottom, top, left and right bounds
+     * @param segments the segments reported for the window
+     */
+    public synchronized void put(Double[] bounds, ArrayList<Double[]> segments) {
+        long segmentsBytes = segments.size() * SEGMENT_BYTES;
+        if (segmentsBytes > maxBytes) {
+            return;
+        }
+        ArrayList<Double[]> previousSegments = windows.put(Arrays.asList(bounds.clone()), new ArrayList<>(segments));
+        if (previousSegments != null) {
+            bytes -= previousSegments.size() * SEGMENT_BYTES;
+        }
+        bytes += segmentsBytes;
+        Iterator<ArrayList<Double[]>> iterator = windows.values().iterator();
+        while (bytes > maxBytes) {
+            bytes -= iterator.next().size() * SEGMENT_BYTES;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Removes all the cached windows.
+     */
+    public synchronized void clear() {
+        windows.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Returns the number of cached windows.
+     *
+     * @return the number of cached windows
+     */
+    public synchronized int size() {
+        return windows.size();
+    }
+
+    /**
+     * Returns the estimated number of bytes used by the cached segments.
+     *
+     * @return the estimated number of bytes used by the cached segments
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns whether the first window contains the second one.
+     *
+     * @param container bounding box list consisting of bottom, top, left and right bounds
+     * @param bounds    bounding box array consisting of bottom, top, left and right bounds
+     * @return true if the first window contains the second one, false otherwise
+     */
+    private static boolean contains(List<Double> container, Double[] bounds) {
+        return container.get(0) <= bounds[0] && container.get(1) >= bounds[1] && container.get(2) <= bounds[2]
+                && container.get(3) >= bounds[3];
+    }
+}
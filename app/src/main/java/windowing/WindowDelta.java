@@ -0,0 +1,55 @@
+package windowing;
+
+import java.util.ArrayList;
+
+/**
+ * The WindowDelta class holds the difference between the results of two windows: the segments crossing the new window
+ * but not the previous one, which enter the result, and the segments crossing the previous window but not the new
+ * one, which leave it.
+ */
+public final class WindowDelta {
+    private final ArrayList<Double[]> enteringSegments;
+    private final ArrayList<Double[]> leavingSegments;
+    private final boolean isComplete;
+
+    /**
+     * Constructs a new WindowDelta object.
+     *
+     * @param enteringSegments the segments entering the result
+     * @param leavingSegments  the segments leaving the result
+     * @param isComplete       flag indicating whether the entering segments are the whole result of the new window
+     */
+    WindowDelta(ArrayList<Double[]> enteringSegments, ArrayList<Double[]> leavingSegments, boolean isComplete) {
+        this.enteringSegments = enteringSegments;
+        this.leavingSegments = leavingSegments;
+        this.isComplete = isComplete;
+    }
+
+    /**
+     * Returns the segments crossing the new window but not the previous one.
+     *
+     * @return an ArrayList of Double arrays containing the entering segments
+     */
+    public ArrayList<Double[]> getEnteringSegments() {
+        return enteringSegments;
+    }
+
+    /**
+     * Returns the segments crossing the previous window but not the new one.
+     *
+     * @return an ArrayList of Double arrays containing the leaving segments
+     */
+    public ArrayList<Double[]> getLeavingSegments() {
+        return leavingSegments;
+    }
+
+    /**
+     * Returns whether there was no previous result to update, in which case the entering segments are the whole
+     * result of the new window and replace any displayed segment.
+     *
+     * @return true if the entering segments are the whole result of the new window, false otherwise
+     */
+    public boolean isComplete() {
+        return isComplete;
+    }
+}
@@ -1,45 +1,57 @@
 package windowing;
 
-import gui.Gui;
-import tools.SegmentsList;
-import tools.Sort;
-import tree.PrioritySearchTree;
+import metrics.WindowingMetrics;
 
 import java.io.File;
+import java.io.IOException;
 import java.time.Duration;
 import java.time.LocalTime;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
 /**
- * The Windowing class represents the main class of the application. It is responsible for parsing the input file,
- * storing the segments, constructing the vertical and horizontal priority search trees, and calling the windowing
- * algorithm to find the segments that intersect the chosen window.
+ * The Windowing class represents the main class of the application. It is responsible for loading the dataset of the
+ * input file, keeping the chosen window, and calling the windowing algorithm to find the segments that intersect the
+ * chosen window, which are then displayed.
+ * The loaded dataset is published as an immutable snapshot through an atomic reference: a request works on the
+ * snapshot it started with and takes no lock, while a reload or an update builds a new snapshot and swaps it in. The
+ * dataset replaced by a reload is closed once the last request running on it is done.
  */
 public final class Windowing {
+    /**
+     * The number of segments of a window above which its density is displayed instead of its segments, when none is
+     * given.
+     */
+    public static final long DEFAULT_DENSITY_THRESHOLD = 20_000;
+    private static final double DEFAULT_MIN = -1000, DEFAULT_MAX = 1000;
     private static Windowing instance;
-    private static PrioritySearchTree vTree, hTree;
-    private final Gui gui;
-    private ArrayList<Double[]> segments = new ArrayList<>();
-    private double min_x, max_x, min_y, max_y;
-    private double chosen_min_x, chosen_max_x, chosen_min_y, chosen_max_y;
+    private final SegmentsDisplay display;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(null, new Lease()));
+    private final AtomicReference<Double[]> chosenBounds = new AtomicReference<>(
+            new Double[]{DEFAULT_MIN, DEFAULT_MAX, DEFAULT_MIN, DEFAULT_MAX});
+    private volatile boolean isOffHeap;
+    private volatile boolean isWritingIndex;
+    private volatile long densityThreshold = DEFAULT_DENSITY_THRESHOLD;
 
-    private Windowing(Gui gui) {
-        this.gui = gui;
-        this.min_x = -1000;
-        this.max_x = 1000;
-        this.min_y = -1000;
-        this.max_y = 1000;
+    private Windowing(SegmentsDisplay display) {
+        this.display = display;
     }
 
     /**
-     * Initializes the Windowing instance with the given Gui object.
+     * Initializes the Windowing instance with the given display, and publishes the metrics over JMX.
      *
-     * @param gui the Gui object to use
+     * @param display the display of the requested segments
      */
-    public static void init(Gui gui) {
-        if (instance == null)
-            instance = new Windowing(gui);
+    public static synchronized void init(SegmentsDisplay display) {
+        if (instance == null) {
+            instance = new Windowing(display);
+            WindowingMetrics.register();
+        }
     }
 
     /**
@@ -47,75 +59,102 @@ public final class Windowing {
      *
      * @return the Windowing instance
      */
-    public static Windowing getInstance() {
+    public static synchronized Windowing getInstance() {
         return instance;
     }
 
     /**
-     * Reads and parses the input file.
+     * Reads and parses the input file, then swaps the new dataset in. If the file is an index file, or if an
+     * up-to-date index file exists next to it, the trees are opened from the index file instead. Otherwise, if index
+     * writing is turned on, an index file is written next to the input file in the background once the trees are
+     * built. The requests running on the previous dataset are not affected, and its cached windows are dropped along
+     * with it. The previous dataset is closed once the last of them is done.
      *
      * @param file the input file
      * @return a message indicating the window size and number of segments, or null if an error occurred
      */
     public String readFile(File file) {
+        Dataset dataset;
         try {
-            LocalTime start = LocalTime.now();
-            Scanner input = new Scanner(file);
-            min_x = Float.parseFloat(input.next());
-            max_x = Float.parseFloat(input.next());
-            min_y = Float.parseFloat(input.next());
-            max_y = Float.parseFloat(input.next());
-            chosen_min_x = min_x;
-            chosen_max_x = max_x;
-            chosen_min_y = min_y;
-            chosen_max_y = max_y;
-
-            ArrayList<Double[]> vArrayList = new ArrayList<>();
-            ArrayList<Double[]> hArrayList = new ArrayList<>();
-            segments = new ArrayList<>();
-
-            while (input.hasNext()) {
-                double x1 = Float.parseFloat(input.next());
-                double y1 = Float.parseFloat(input.next());
-                double x2 = Float.parseFloat(input.next());
-                double y2 = Float.parseFloat(input.next());
-                segments.add(new Double[]{x1, y1, x2, y2});
-                if (x1 == x2) {
-                    if (y1 < y2) {
-                        vArrayList.add(new Double[]{y1, x1, y2, x2});
-                    } else {
-                        vArrayList.add(new Double[]{y2, x2, y1, x1});
-                    }
-                } else if (y1 == y2) {
-                    if (x1 < x2) {
-                        hArrayList.add(new Double[]{x1, y1, x2, y2});
-                    } else {
-                        hArrayList.add(new Double[]{x2, y2, x1, y1});
-                    }
-                } else {
-                    System.out.println("Not a segment");
-                    return null;
-                }
-            }
-            input.close();
-            LocalTime step1 = LocalTime.now();
-            Sort sort = new Sort();
-            sort.quickSort(vArrayList, 0, vArrayList.size() - 1);
-            sort.quickSort(hArrayList, 0, hArrayList.size() - 1);
-            SegmentsList vSegments = new SegmentsList(vArrayList);
-            SegmentsList hSegments = new SegmentsList(hArrayList);
-            LocalTime step2 = LocalTime.now();
-            Windowing.vTree = new PrioritySearchTree(vSegments);
-            Windowing.hTree = new PrioritySearchTree(hSegments);
-            LocalTime end = LocalTime.now();
-            System.out.println("Time to read the file: " + Duration.between(start, step1).toMillis() + " ms | " +
-                    "Time to sort the segments: " + Duration.between(step1, step2).toMillis() + " ms | " +
-                    "Time to create Tree: " + Duration.between(step2, end).toMillis() + " ms");
-            return "Window Size: [" + min_x + ", " + max_x + "] x [" + min_y + ", " + max_y + "], Number of segments: "
-                    + segments.size() + "";
+            dataset = Dataset.read(file, isOffHeap);
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+            return null;
         } catch (Exception e) {
             return null;
         }
+        if (dataset.isIndexed()) {
+            System.out.println("Time to open the index: " + dataset.getReadTime() + " ms");
+        } else {
+            System.out.println("Time to read the file: " + dataset.getReadTime() + " ms | " +
+                    "Time to sort the segments: " + dataset.getSortTime() + " ms | " +
+                    "Time to create Tree: " + dataset.getBuildTime() + " ms");
+            if (isWritingIndex) {
+                writeIndex(dataset, new File(file.getPath() + IndexFile.EXTENSION));
+            }
+        }
+        Snapshot previous = snapshot.getAndSet(new Snapshot(dataset, new Lease()));
+        previous.lease.retire(previous.dataset);
+        chosenBounds.set(new Double[]{dataset.getMinY(), dataset.getMaxY(), dataset.getMinX(), dataset.getMaxX()});
+        return "Window Size: [" + dataset.getMinX() + ", " + dataset.getMaxX() + "] x [" + dataset.getMinY() + ", "
+                + dataset.getMaxY() + "], Number of segments: " + dataset.getSegmentsNumber() + "";
+    }
+
+    /**
+     * Sets whether the trees of the next files read are kept in direct buffers, outside of the Java heap.
+     *
+     * @param isOffHeap flag indicating whether the trees are kept outside of the heap
+     */
+    public void setOffHeap(boolean isOffHeap) {
+        this.isOffHeap = isOffHeap;
+    }
+
+    /**
+     * Sets whether an index file is written next to the next segments files read, so that reading them again opens
+     * the index instead of parsing them. Index writing is off by default.
+     *
+     * @param isWritingIndex flag indicating whether index files are written
+     */
+    public void setWriteIndex(boolean isWritingIndex) {
+        this.isWritingIndex = isWritingIndex;
+    }
+
+    /**
+     * Sets the number of segments of a window above which its density is displayed instead of its segments, if the
+     * display supports it.
+     *
+     * @param densityThreshold the maximum number of segments drawn one by one
+     */
+    public void setDensityThreshold(long densityThreshold) {
+        this.densityThreshold = densityThreshold;
+    }
+
+    /**
+     * Reads the input file in the background like readFile, while the current dataset keeps answering the requests
+     * until the new one is swapped in.
+     *
+     * @param file the input file
+     * @return a future completed with the message of readFile once the new dataset is swapped in
+     */
+    public CompletableFuture<String> readFileInBackground(File file) {
+        return CompletableFuture.supplyAsync(() -> readFile(file));
+    }
+
+    /**
+     * Writes the index file of the given dataset in the background. Failing to write it only means the next reading
+     * of the input file will not be able to skip the parsing.
+     *
+     * @param dataset   the dataset
+     * @param indexFile the index file to write
+     */
+    private static void writeIndex(Dataset dataset, File indexFile) {
+        ForkJoinPool.commonPool().execute(() -> {
+            try {
+                dataset.writeIndex(indexFile);
+            } catch (IOException e) {
+                System.out.println("Index file not written: " + e.getMessage());
+            }
+        });
     }
 
     /**
@@ -128,35 +167,197 @@ public final class Windowing {
      * @return The method returns true if the chosen window is within the window size, and false otherwise.
      */
     public boolean choseSize(double chosen_min_x, double chosen_max_x, double chosen_min_y, double chosen_max_y) {
-        if (chosen_min_x < min_x || chosen_max_x > max_x || chosen_min_y < min_y || chosen_max_y > max_y)
+        if (chosen_min_x < getMinX() || chosen_max_x > getMaxX() || chosen_min_y < getMinY() || chosen_max_y > getMaxY())
             return false;
-        this.chosen_min_x = chosen_min_x;
-        this.chosen_max_x = chosen_max_x;
-        this.chosen_min_y = chosen_min_y;
-        this.chosen_max_y = chosen_max_y;
+        chosenBounds.set(new Double[]{chosen_min_y, chosen_max_y, chosen_min_x, chosen_max_x});
         return true;
     }
 
     /**
      * The function requests and displays line segments within a specified window using a windowing
-     * algorithm.
+     * algorithm. The segments of recently requested windows are cached, and a window lying inside a cached window is
+     * answered from the cached segments without searching the trees. A window holding more segments than the density
+     * threshold is displayed as a density raster the size of the window on the display instead: the segments are
+     * collected until the threshold is reached, then the search goes on filling the raster, in a single pass. The trees
+     * are searched in parallel as for a window without density, each thread filling its own sink, merged once the
+     * search is done.
      *
      * @return The method is returning a string that contains information about the window size and the
      * number of reported segments.
      */
     public String requestLines() {
         LocalTime  start = LocalTime.now();
-        segments = new WindowingAlgorithm().launchWindowing(vTree, hTree,
-                new Double[]{chosen_min_y, chosen_max_y, chosen_min_x, chosen_max_x},
-                new Double[]{min_y, max_y, min_x, max_x});
+        Snapshot snapshot = acquire();
+        try {
+            return requestLines(snapshot, start);
+        } finally {
+            snapshot.lease.release();
+        }
+    }
+
+    /**
+     * Requests and displays the segments within the chosen window from the given snapshot, like requestLines.
+     *
+     * @param snapshot the snapshot answering the request, acquired by the caller
+     * @param start    the time the request started
+     * @return the information about the window size and the number of reported segments
+     */
+    private String requestLines(Snapshot snapshot, LocalTime start) {
+        Double[] bounds = chosenBounds.get();
+        ArrayList<Double[]> segments = snapshot.cache.get(bounds);
+        int[] pixels = display.getWindowPixels();
+        if (segments == null && pixels != null && snapshot.dataset != null) {
+            int width = Math.max(1, pixels[0]);
+            int height = Math.max(1, pixels[1]);
+            DensitySink sink = DensitySink.merge(snapshot.dataset.launchParallelWindowing(bounds,
+                    () -> new DensitySink(bounds, width, height, densityThreshold)));
+            DensityRaster raster = sink.getRaster();
+            if (raster != null) {
+                snapshot.requestedBounds.set(null);
+                LocalTime end = LocalTime.now();
+                System.out.println("Time to windowing (density of seg: " + raster.getSegmentsNumber() + "): "
+                        + Duration.between(start, end).toMillis() + " ms");
+                display.drawDensity(raster);
+                return "Window Size: [" + getMinX() + ", " + getMaxX() + "] x [" + getMinY() + ", " + getMaxY() +
+                        "], Number of reported segments: " + raster.getSegmentsNumber() + " (density)";
+            }
+            segments = sink.getSegments();
+            snapshot.cache.put(bounds, segments);
+        }
+        if (segments == null) {
+            segments = snapshot.search(bounds);
+            snapshot.cache.put(bounds, segments);
+        }
+        snapshot.requestedBounds.set(bounds);
         LocalTime end = LocalTime.now();
         System.out.println("Time to windowing (nb of seg: " + segments.size() + "): "
                 + Duration.between(start, end).toMillis() + " ms");
-        gui.drawLines(segments);
-        return "Window Size: [" + min_x + ", " + max_x + "] x [" + min_y + ", " + max_y +
+        display.drawLines(segments);
+        return "Window Size: [" + getMinX() + ", " + getMaxX() + "] x [" + getMinY() + ", " + getMaxY() +
                 "], Number of reported segments: " + segments.size() + "";
     }
 
+    /**
+     * Requests the segments entering and leaving the result since the last requested window, when the chosen window
+     * has been moved or resized. Only the strips of both windows lying outside the other one are searched. The chosen
+     * window becomes the last requested window.
+     *
+     * @return the segments entering and leaving the result, complete if no window was requested since the data changed
+     */
+    public WindowDelta requestDelta() {
+        Snapshot snapshot = acquire();
+        try {
+            Double[] bounds = chosenBounds.get();
+            Double[] requestedBounds = snapshot.requestedBounds.getAndSet(bounds);
+            if (requestedBounds == null) {
+                return new WindowDelta(snapshot.search(bounds), new ArrayList<>(), true);
+            }
+            return DeltaWindowing.launch(requestedBounds, bounds, snapshot::search);
+        } finally {
+            snapshot.lease.release();
+        }
+    }
+
+    /**
+     * Counts the segments within the given window without reporting them.
+     *
+     * @param min_x the minimum x-coordinate of the window
+     * @param max_x the maximum x-coordinate of the window
+     * @param min_y the minimum y-coordinate of the window
+     * @param max_y the maximum y-coordinate of the window
+     * @return the number of segments within the window, or -1 if the window is not within the window size
+     */
+    public long countWindow(double min_x, double max_x, double min_y, double max_y) {
+        Snapshot snapshot = acquire();
+        try {
+            Dataset dataset = snapshot.dataset;
+            Double[] bounds = new Double[]{min_y, max_y, min_x, max_x};
+            if (dataset == null || !dataset.contains(bounds))
+                return -1;
+            return dataset.countWindow(bounds);
+        } finally {
+            snapshot.lease.release();
+        }
+    }
+
+    /**
+     * Inserts a segment in the data without rebuilding the trees. On the first update since the file was read, the
+     * dynamic trees are built from the sorted segments, and are used for the following requests.
+     *
+     * @param x1 the x-coordinate of the first point of the segment
+     * @param y1 the y-coordinate of the first point of the segment
+     * @param x2 the x-coordinate of the second point of the segment
+     * @param y2 the y-coordinate of the second point of the segment
+     * @return true if the segment was inserted, false if it is not horizontal or vertical, or outside the window size
+     */
+    public boolean insertSegment(double x1, double y1, double x2, double y2) {
+        return update(dataset -> dataset.insertSegment(x1, y1, x2, y2));
+    }
+
+    /**
+     * Deletes a segment from the data without rebuilding the trees. On the first update since the file was read, the
+     * dynamic trees are built from the sorted segments, and are used for the following requests.
+     *
+     * @param x1 the x-coordinate of the first point of the segment
+     * @param y1 the y-coordinate of the first point of the segment
+     * @param x2 the x-coordinate of the second point of the segment
+     * @param y2 the y-coordinate of the second point of the segment
+     * @return true if the segment was deleted, false if it was not found
+     */
+    public boolean deleteSegment(double x1, double y1, double x2, double y2) {
+        return update(dataset -> dataset.deleteSegment(x1, y1, x2, y2));
+    }
+
+    /**
+     * Swaps in the dataset obtained by updating the current one. If another update or a reload swapped a dataset in
+     * meanwhile, the update is applied again to that dataset.
+     *
+     * @param update the update, returning the updated dataset, or null if the dataset is left unchanged
+     * @return true if an updated dataset was swapped in, false otherwise
+     */
+    private boolean update(UnaryOperator<Dataset> update) {
+        Snapshot current;
+        Snapshot updated;
+        do {
+            current = acquire();
+            Dataset dataset;
+            try {
+                dataset = current.dataset != null ? update.apply(current.dataset) : null;
+            } finally {
+                current.lease.release();
+            }
+            if (dataset == null) {
+                return false;
+            }
+            updated = new Snapshot(dataset, current.lease);
+        } while (!snapshot.compareAndSet(current, updated));
+        return true;
+    }
+
+    /**
+     * Acquires the current snapshot for a request, so that its dataset is not closed before the request releases it.
+     *
+     * @return the current snapshot, to be released by the request once done
+     */
+    private Snapshot acquire() {
+        while (true) {
+            Snapshot current = snapshot.get();
+            current.lease.acquire();
+            if (snapshot.get().lease == current.lease) {
+                return current;
+            }
+            current.lease.release();
+        }
+    }
+
+    /**
+     * Returns the dataset currently answering the requests. The dataset is closed once another file is read.
+     *
+     * @return the current dataset, or null if no file was read
+     */
+    public Dataset getDataset() {
+        return snapshot.get().dataset;
+    }
 
     /**
      * The function returns the value of the variable `chosen_min_x`.
@@ -164,7 +365,7 @@ public final class Windowing {
      * @return The value of the variable `chosen_min_x`.
      */
     public double getChosenMinX() {
-        return chosen_min_x;
+        return chosenBounds.get()[2];
     }
 
     /**
@@ -173,7 +374,7 @@ public final class Windowing {
      * @return The value of the variable `chosen_max_x`.
      */
     public double getChosenMaxX() {
-        return chosen_max_x;
+        return chosenBounds.get()[3];
     }
 
     /**
@@ -182,7 +383,7 @@ public final class Windowing {
      * @return The value of the variable `chosen_min_y`.
      */
     public double getChosenMinY() {
-        return chosen_min_y;
+        return chosenBounds.get()[0];
     }
 
     /**
@@ -191,7 +392,7 @@ public final class Windowing {
      * @return The value of the variable `chosen_max_y`.
      */
     public double getChosenMaxY() {
-        return chosen_max_y;
+        return chosenBounds.get()[1];
     }
 
     /**
@@ -200,7 +401,8 @@ public final class Windowing {
      * @return The value of the variable `min_x`.
      */
     public double getMinX() {
-        return min_x;
+        Dataset dataset = snapshot.get().dataset;
+        return dataset != null ? dataset.getMinX() : DEFAULT_MIN;
     }
 
     /**
@@ -209,7 +411,8 @@ public final class Windowing {
      * @return The value of the variable `max_x`.
      */
     public double getMaxX() {
-        return max_x;
+        Dataset dataset = snapshot.get().dataset;
+        return dataset != null ? dataset.getMaxX() : DEFAULT_MAX;
     }
 
     /**
@@ -218,7 +421,8 @@ public final class Windowing {
      * @return The value of the variable `min_y`.
      */
     public double getMinY() {
-        return min_y;
+        Dataset dataset = snapshot.get().dataset;
+        return dataset != null ? dataset.getMinY() : DEFAULT_MIN;
     }
 
     /**
@@ -227,15 +431,95 @@ public final class Windowing {
      * @return The value of the variable `max_y`.
      */
     public double getMaxY() {
-        return max_y;
+        Dataset dataset = snapshot.get().dataset;
+        return dataset != null ? dataset.getMaxY() : DEFAULT_MAX;
     }
 
     /**
-     * The function returns the number of segments.
+     * The function returns the number of segments of the current dataset.
      *
      * @return The number of segments.
      */
     public double getSegmentsSize() {
-        return segments.size();
+        Dataset dataset = snapshot.get().dataset;
+        return dataset != null ? dataset.getSegmentsNumber() : 0;
+    }
+
+    /**
+     * A dataset along with the state depending on it: the cache of its windows and its last requested window. A new
+     * snapshot is created each time a dataset is swapped in, so that this state is never shared between datasets.
+     * The snapshots of the datasets obtained by updating a dataset share its lease, since they share its file.
+     */
+    private static final class Snapshot {
+        private final Dataset dataset;
+        private final Lease lease;
+        private final WindowCache cache = new WindowCache(WindowCache.DEFAULT_MAX_BYTES);
+        private final AtomicReference<Double[]> requestedBounds = new AtomicReference<>();
+
+        private Snapshot(Dataset dataset, Lease lease) {
+            this.dataset = dataset;
+            this.lease = lease;
+        }
+
+        /**
+         * Searches the dataset for the segments within the given window.
+         *
+         * @param bounds bounding box array consisting of bottom, top, left and right bounds
+         * @return an ArrayList of Double arrays containing the segments within the window, empty if no file was read
+         */
+        private ArrayList<Double[]> search(Double[] bounds) {
+            return dataset != null ? dataset.launchWindowing(bounds) : new ArrayList<>();
+        }
+    }
+
+    /**
+     * The count of the requests running on the datasets read from a file and on their updates. Once another file is
+     * read, the lease is retired, and the dataset is closed as soon as no request runs on it anymore.
+     */
+    private static final class Lease {
+        private final AtomicInteger requests = new AtomicInteger();
+        private final AtomicBoolean isClosed = new AtomicBoolean();
+        private volatile Dataset retiredDataset;
+
+        /**
+         * Counts a request starting on the datasets of the lease.
+         */
+        private void acquire() {
+            requests.incrementAndGet();
+        }
+
+        /**
+         * Counts a request done with the datasets of the lease, closing the retired dataset if it was the last one.
+         */
+        private void release() {
+            if (requests.decrementAndGet() == 0) {
+                closeIfRetired();
+            }
+        }
+
+        /**
+         * Retires the lease once its last dataset is replaced by the dataset of another file, closing the dataset if no
+         * request runs on it.
+         *
+         * @param dataset the last dataset of the lease, or null if no file was read
+         */
+        private void retire(Dataset dataset) {
+            retiredDataset = dataset;
+            closeIfRetired();
+        }
+
+        /**
+         * Closes the retired dataset if no request runs on it, and if it was not closed yet.
+         */
+        private void closeIfRetired() {
+            Dataset dataset = retiredDataset;
+            if (dataset != null && requests.get() == 0 && isClosed.compareAndSet(false, true)) {
+                try {
+                    dataset.close();
+                } catch (IOException e) {
+                    System.out.println("Dataset not closed: " + e.getMessage());
+                }
+            }
+        }
     }
 }
@@ -1,20 +1,60 @@
 package windowing;
 
+import metrics.WindowingMetrics;
+import tree.DynamicNode;
+import tree.DynamicPrioritySearchTree;
 import tree.Node;
 import tree.PrioritySearchTree;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
 
 /**
  * This class implements the windowing algorithm for 2D range searching in a priority search tree.
  * It launches the algorithm with given bounding boxes, maximum bounding boxes and priority search trees.
  */
 public class WindowingAlgorithm {
+    /**
+     * The number of segments above which a subtree enumerated in parallel mode is split into fork-join tasks.
+     */
+    public static final int PARALLEL_THRESHOLD = 4096;
     /**
      * ArrayList containing reported segments after the algorithm is executed.
      */
     ArrayList<Double[]> reportedSegments;
+    /**
+     * Sink receiving the reported segments instead of the list, or null to collect them in the list.
+     */
+    private SegmentSink sink;
+    /**
+     * Supplier of the sink of the calling thread in parallel mode with sinks, or null to use the sink as it is.
+     */
+    private Supplier<SegmentSink> threadSinks;
+    /**
+     * Flag indicating whether the reported segments are only counted.
+     */
+    private boolean isCounting;
+    /**
+     * Number of reported segments when they are only counted.
+     */
+    private long count;
+    /**
+     * Flag indicating whether large subtrees are enumerated in parallel.
+     */
+    private boolean isParallel;
+    /**
+     * Number of tree nodes visited by the search, published to the metrics with each query.
+     */
+    private long visitedNodes;
+    /**
+     * Number of segments pushed to the sink.
+     */
+    private long sunkSegments;
 
     /**
      * Constructs a new WindowingAlgorithm object.
@@ -34,14 +74,248 @@ public class WindowingAlgorithm {
      */
     public ArrayList<Double[]> launchWindowing(PrioritySearchTree vTree, PrioritySearchTree hTree, Double[] bounds,
                                                Double[] maxBounds) {
+        long start = System.nanoTime();
         Double[] hMaxBounds = new Double[]{maxBounds[0], maxBounds[1]};
         Double[] vMaxBounds = new Double[]{maxBounds[2], maxBounds[3]};
         Double[] vBounds = new Double[]{bounds[2], bounds[3], bounds[0], bounds[1]};
         windowing(hTree, bounds, hMaxBounds, false);
         windowing(vTree, vBounds, vMaxBounds, true);
+        recordQuery(start);
         return reportedSegments;
     }
 
+    /**
+     * Launches the windowing algorithm on the given priority search trees, bounding boxes and maximum bounding boxes,
+     * in parallel on the common pool. Both trees are searched concurrently, and the enumeration of subtrees larger
+     * than PARALLEL_THRESHOLD segments is split into fork-join tasks, each one reporting to its own list.
+     * The reported segments are the same as in launchWindowing, but not necessarily in the same order.
+     *
+     * @param vTree     vertical priority search tree
+     * @param hTree     horizontal priority search tree
+     * @param bounds    bounding box array consisting of bottom, top, left and right bounds
+     * @param maxBounds maximum bounding box array consisting of bottom, top, left and right bounds
+     * @return an ArrayList of Double arrays containing reported segments
+     */
+    public ArrayList<Double[]> launchParallelWindowing(PrioritySearchTree vTree, PrioritySearchTree hTree,
+                                                       Double[] bounds, Double[] maxBounds) {
+        long start = System.nanoTime();
+        Double[] hMaxBounds = new Double[]{maxBounds[0], maxBounds[1]};
+        Double[] vMaxBounds = new Double[]{maxBounds[2], maxBounds[3]};
+        Double[] vBounds = new Double[]{bounds[2], bounds[3], bounds[0], bounds[1]};
+        isParallel = true;
+        WindowingAlgorithm vAlgorithm = createForkedAlgorithm();
+        ForkJoinPool.commonPool().invoke(ForkJoinTask.adapt(() -> {
+            ForkJoinTask<?> vTask = ForkJoinTask.adapt(() -> {
+                vAlgorithm.useThreadSink();
+                vAlgorithm.windowing(vTree, vBounds, vMaxBounds, true);
+            }).fork();
+            useThreadSink();
+            windowing(hTree, bounds, hMaxBounds, false);
+            vTask.join();
+            merge(vAlgorithm);
+        }));
+        recordQuery(start);
+        return reportedSegments;
+    }
+
+    /**
+     * Launches the windowing algorithm on the given priority search trees, bounding boxes and maximum bounding boxes,
+     * in parallel on the common pool like launchParallelWindowing, pushing each reported segment to the sink of the
+     * thread finding it. The sinks are created by the given factory, one per thread taking part in the search, so that
+     * none of them is called concurrently, and are left to the caller to merge.
+     *
+     * @param vTree       vertical priority search tree
+     * @param hTree       horizontal priority search tree
+     * @param bounds      bounding box array consisting of bottom, top, left and right bounds
+     * @param maxBounds   maximum bounding box array consisting of bottom, top, left and right bounds
+     * @param sinkFactory the factory creating the sink of each thread
+     * @param <S>         the type of the sinks
+     * @return the sinks which received the reported segments
+     */
+    public <S extends SegmentSink> Collection<S> launchParallelWindowing(PrioritySearchTree vTree,
+                                                                        PrioritySearchTree hTree, Double[] bounds,
+                                                                        Double[] maxBounds, Supplier<S> sinkFactory) {
+        ConcurrentHashMap<Thread, S> sinks = new ConcurrentHashMap<>();
+        threadSinks = () -> sinks.computeIfAbsent(Thread.currentThread(), thread -> sinkFactory.get());
+        launchParallelWindowing(vTree, hTree, bounds, maxBounds);
+        return sinks.values();
+    }
+
+    /**
+     * Creates a new WindowingAlgorithm object in the same mode as this one, with its own list of reported segments.
+     *
+     * @return the new WindowingAlgorithm object
+     */
+    private WindowingAlgorithm createForkedAlgorithm() {
+        WindowingAlgorithm algorithm = new WindowingAlgorithm();
+        algorithm.isParallel = isParallel;
+        algorithm.isCounting = isCounting;
+        algorithm.threadSinks = threadSinks;
+        return algorithm;
+    }
+
+    /**
+     * Pushes the segments reported from now on to the sink of the calling thread, in parallel mode with sinks. Called
+     * at the start of each task, a task running on a single thread.
+     */
+    private void useThreadSink() {
+        if (threadSinks != null) {
+            sink = threadSinks.get();
+        }
+    }
+
+    /**
+     * Adds the results of the given forked algorithm, once its task is done, to the results of this one.
+     *
+     * @param algorithm the forked algorithm
+     */
+    private void merge(WindowingAlgorithm algorithm) {
+        reportedSegments.addAll(algorithm.reportedSegments);
+        count += algorithm.count;
+        visitedNodes += algorithm.visitedNodes;
+        sunkSegments += algorithm.sunkSegments;
+    }
+
+    /**
+     * Launches the windowing algorithm on the given priority search trees, bounding boxes and maximum bounding boxes,
+     * pushing each reported segment to the given sink as it is found. Nothing is allocated per reported segment.
+     *
+     * @param vTree     vertical priority search tree
+     * @param hTree     horizontal priority search tree
+     * @param bounds    bounding box array consisting of bottom, top, left and right bounds
+     * @param maxBounds maximum bounding box array consisting of bottom, top, left and right bounds
+     * @param sink      the sink receiving the reported segments
+     */
+    public void launchWindowing(PrioritySearchTree vTree, PrioritySearchTree hTree, Double[] bounds,
+                                Double[] maxBounds, SegmentSink sink) {
+        this.sink = sink;
+        launchWindowing(vTree, hTree, bounds, maxBounds);
+    }
+
+    /**
+     * Launches the windowing algorithm on the given priority search trees for a whole batch of bounding boxes at once.
+     * The bounding boxes traverse the common upper levels of the trees together, and are answered in parallel chunks
+     * on the common pool.
+     *
+     * @param vTree     vertical priority search tree
+     * @param hTree     horizontal priority search tree
+     * @param windows   bounding box arrays, each one consisting of bottom, top, left and right bounds
+     * @param maxBounds maximum bounding box array consisting of bottom, top, left and right bounds
+     * @return the reported segments of each bounding box, as offset ranges into one shared buffer
+     */
+    public BatchResult launchBatchWindowing(PrioritySearchTree vTree, PrioritySearchTree hTree, Double[][] windows,
+                                            Double[] maxBounds) {
+        return BatchWindowing.launch(vTree, hTree, windows, maxBounds, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the segments entering and leaving the result when the bounding box changes from the previous one to the
+     * given one. Only the strips of each bounding box lying outside the other one are searched.
+     *
+     * @param vTree          vertical priority search tree
+     * @param hTree          horizontal priority search tree
+     * @param previousBounds previous bounding box array consisting of bottom, top, left and right bounds
+     * @param bounds         bounding box array consisting of bottom, top, left and right bounds
+     * @param maxBounds      maximum bounding box array consisting of bottom, top, left and right bounds
+     * @return the segments entering and leaving the result
+     */
+    public WindowDelta launchDeltaWindowing(PrioritySearchTree vTree, PrioritySearchTree hTree,
+                                            Double[] previousBounds, Double[] bounds, Double[] maxBounds) {
+        return DeltaWindowing.launch(previousBounds, bounds,
+                strip -> new WindowingAlgorithm().launchWindowing(vTree, hTree, strip, maxBounds));
+    }
+
+    /**
+     * Counts the segments of the given priority search trees within the bounding box, without reporting them.
+     * Subtrees whose segments are all within the bounding box are counted from their size without being enumerated.
+     *
+     * @param vTree     vertical priority search tree
+     * @param hTree     horizontal priority search tree
+     * @param bounds    bounding box array consisting of bottom, top, left and right bounds
+     * @param maxBounds maximum bounding box array consisting of bottom, top, left and right bounds
+     * @return the number of segments within the bounding box
+     */
+    public long countWindow(PrioritySearchTree vTree, PrioritySearchTree hTree, Double[] bounds, Double[] maxBounds) {
+        isCounting = true;
+        count = 0;
+        launchWindowing(vTree, hTree, bounds, maxBounds);
+        return count;
+    }
+
+    /**
+     * Counts the segments of the given dynamic priority search trees within the bounding box, without reporting them.
+     *
+     * @param vTree  vertical dynamic priority search tree
+     * @param hTree  horizontal dynamic priority search tree
+     * @param bounds bounding box array consisting of bottom, top, left and right bounds
+     * @return the number of segments within the bounding box
+     */
+    public long countWindow(DynamicPrioritySearchTree vTree, DynamicPrioritySearchTree hTree, Double[] bounds) {
+        isCounting = true;
+        count = 0;
+        launchWindowing(vTree, hTree, bounds);
+        return count;
+    }
+
+    /**
+     * Launches the windowing algorithm on the given dynamic priority search trees and bounding box.
+     *
+     * @param vTree  vertical dynamic priority search tree
+     * @param hTree  horizontal dynamic priority search tree
+     * @param bounds bounding box array consisting of bottom, top, left and right bounds
+     * @return an ArrayList of Double arrays containing reported segments
+     */
+    public ArrayList<Double[]> launchWindowing(DynamicPrioritySearchTree vTree, DynamicPrioritySearchTree hTree,
+                                               Double[] bounds) {
+        long start = System.nanoTime();
+        Double[] vBounds = new Double[]{bounds[2], bounds[3], bounds[0], bounds[1]};
+        searchDynamicTree(hTree.getHead(), bounds, false);
+        searchDynamicTree(vTree.getHead(), vBounds, true);
+        recordQuery(start);
+        return reportedSegments;
+    }
+
+    /**
+     * Launches the windowing algorithm on the given dynamic priority search trees and bounding box, pushing each
+     * reported segment to the given sink as it is found.
+     *
+     * @param vTree  vertical dynamic priority search tree
+     * @param hTree  horizontal dynamic priority search tree
+     * @param bounds bounding box array consisting of bottom, top, left and right bounds
+     * @param sink   the sink receiving the reported segments
+     */
+    public void launchWindowing(DynamicPrioritySearchTree vTree, DynamicPrioritySearchTree hTree, Double[] bounds,
+                                SegmentSink sink) {
+        this.sink = sink;
+        launchWindowing(vTree, hTree, bounds);
+    }
+
+    /**
+     * Publishes the duration of the query started at the given time to the metrics, along with the number of nodes
+     * it visited and of segments it reported.
+     *
+     * @param start the start time of the query, as given by System.nanoTime
+     */
+    private void recordQuery(long start) {
+        WindowingMetrics.getInstance().recordQuery(System.nanoTime() - start, visitedNodes,
+                isCounting ? count : sink != null ? sunkSegments : reportedSegments.size());
+        visitedNodes = 0;
+        sunkSegments = 0;
+    }
+
+    /**
+     * Returns whether the given reported segment crosses the bounding box, which is the condition under which the
+     * windowing algorithm reports a segment.
+     *
+     * @param segment the segment, as reported by the windowing algorithm
+     * @param bounds  bounding box array consisting of bottom, top, left and right bounds
+     * @return true if the segment crosses the bounding box, false otherwise
+     */
+    static boolean isInWindow(Double[] segment, Double[] bounds) {
+        return Math.min(segment[1], segment[3]) <= bounds[1] && Math.max(segment[1], segment[3]) >= bounds[0]
+                && Math.min(segment[0], segment[2]) <= bounds[3] && Math.max(segment[0], segment[2]) >= bounds[2];
+    }
+
     /**
      * Calls the appropriate search function based on the bounding box's position relative to the maximum bounding box.
      *
@@ -75,6 +349,7 @@ public class WindowingAlgorithm {
      * @param isVertical flag indicating whether the search is vertical or horizontal
      */
     private void searchVSplit(Node node, Double[] bounds, boolean isVertical) {
+        visitedNodes++;
         checkSegment(node.getSegment(), bounds, isVertical);
         if (node.hasLeftChild()) {
             if (node.hasRightChild()) {
@@ -87,6 +362,7 @@ public class WindowingAlgorithm {
                     bottomBoundSearch(node.getLeftChild(), bounds, isVertical);
                 }
             } else {
+                visitedNodes++;
                 checkSegment(node.getLeftChild().getSegment(), bounds, isVertical);
             }
         }
@@ -100,6 +376,7 @@ public class WindowingAlgorithm {
      * @param isVertical flag indicating whether the search is vertical or horizontal
      */
     private void topBoundSearch(Node node, Double[] bounds, boolean isVertical) {
+        visitedNodes++;
         checkSegment(node.getSegment(), bounds, isVertical);
         if (node.hasLeftChild()) {
             if (node.hasRightChild()) {
@@ -110,6 +387,7 @@ public class WindowingAlgorithm {
                     searchInSubtree(node.getLeftChild(), bounds, isVertical);
                 }
             } else {
+                visitedNodes++;
                 checkSegment(node.getLeftChild().getSegment(), bounds, isVertical);
             }
         }
@@ -123,6 +401,7 @@ public class WindowingAlgorithm {
      * @param isVertical flag indicating whether the search is vertical or horizontal
      */
     private void bottomBoundSearch(Node node, Double[] bounds, boolean isVertical) {
+        visitedNodes++;
         checkSegment(node.getSegment(), bounds, isVertical);
         if (node.hasLeftChild()) {
             if (node.hasRightChild()) {
@@ -133,19 +412,42 @@ public class WindowingAlgorithm {
                     searchInSubtree(node.getRightChild(), bounds, isVertical);
                 }
             } else {
+                visitedNodes++;
                 checkSegment(node.getLeftChild().getSegment(), bounds, isVertical);
             }
         }
     }
 
     /**
-     * Searches the given node and its subtrees.
+     * Searches the given node and its subtrees. The subtree is skipped if its leftmost segment starts after the
+     * bounding box, and only its size is counted if all its segments are within the bounding box while counting.
+     * In parallel mode, the right subtree of a large subtree is searched in a forked task.
      *
      * @param node       the node to be searched
      * @param bounds     bounding box array consisting of bottom, top, left and right bounds
      * @param isVertical flag indicating whether the search is vertical or horizontal
      */
     private void searchInSubtree(Node node, Double[] bounds, boolean isVertical) {
+        visitedNodes++;
+        if (node.getSegment()[0] > bounds[3]) {
+            return;
+        }
+        if (isCounting && node.getMaxStart() <= bounds[3] && node.getMinEnd() >= bounds[2]) {
+            count += node.getSize();
+            return;
+        }
+        if (isParallel && node.getSize() > PARALLEL_THRESHOLD) {
+            checkSegmentXAxis(node.getSegment(), bounds, isVertical);
+            WindowingAlgorithm rightAlgorithm = createForkedAlgorithm();
+            ForkJoinTask<?> rightTask = ForkJoinTask.adapt(() -> {
+                rightAlgorithm.useThreadSink();
+                rightAlgorithm.searchInSubtree(node.getRightChild(), bounds, isVertical);
+            }).fork();
+            searchInSubtree(node.getLeftChild(), bounds, isVertical);
+            rightTask.join();
+            merge(rightAlgorithm);
+            return;
+        }
         checkSegmentXAxis(node.getSegment(), bounds, isVertical);
         if (node.hasLeftChild()) {
             if (node.hasRightChild()) {
@@ -155,6 +457,32 @@ public class WindowingAlgorithm {
         }
     }
 
+    /**
+     * Searches the given node of a dynamic priority search tree and its subtrees, skipping the subtrees that are
+     * entirely below or above the bounding box, or that only hold segments starting after it.
+     *
+     * @param node       the node to be searched, or null
+     * @param bounds     bounding box array consisting of bottom, top, left and right bounds
+     * @param isVertical flag indicating whether the search is vertical or horizontal
+     */
+    private void searchDynamicTree(DynamicNode node, Double[] bounds, boolean isVertical) {
+        if (node == null) {
+            return;
+        }
+        visitedNodes++;
+        if (node.getMinStart() > bounds[3]) {
+            return;
+        }
+        Double[] segment = node.getSegment();
+        if (segment[1] >= bounds[0]) {
+            searchDynamicTree(node.getLeftChild(), bounds, isVertical);
+        }
+        checkSegment(segment, bounds, isVertical);
+        if (segment[1] <= bounds[1]) {
+            searchDynamicTree(node.getRightChild(), bounds, isVertical);
+        }
+    }
+
     /**
      * Checks whether the given segment is within the bounding box and adds it to the reported segments if it is.
      *
@@ -169,7 +497,9 @@ public class WindowingAlgorithm {
     }
 
     /**
-     * Checks whether the given segment is within the bounding box and adds it to the reported segments if it is.
+     * Checks whether the given segment is within the bounding box and reports it if it is: by counting it while
+     * counting, to the sink if there is one, or else to the reported segments. A copy of the segment is reported, so
+     * that the shared tree cannot be modified through the reported segments.
      *
      * @param segment    the segment to be checked
      * @param bounds     bounding box array consisting of bottom, top, left and right bounds
@@ -177,10 +507,19 @@ public class WindowingAlgorithm {
      */
     private void checkSegmentXAxis(Double[] segment, Double[] bounds, boolean isVertical) {
         if (segment[0] <= bounds[3] && segment[2] >= bounds[2]) {
-            if (isVertical) {
+            if (isCounting) {
+                count++;
+            } else if (sink != null) {
+                sunkSegments++;
+                if (isVertical) {
+                    sink.accept(segment[1], segment[0], segment[3], segment[2]);
+                } else {
+                    sink.accept(segment[0], segment[1], segment[2], segment[3]);
+                }
+            } else if (isVertical) {
                 reportedSegments.add(new Double[]{segment[1], segment[0], segment[3], segment[2]});
             } else {
-                reportedSegments.add(segment);
+                reportedSegments.add(new Double[]{segment[0], segment[1], segment[2], segment[3]});
             }
         }
     }
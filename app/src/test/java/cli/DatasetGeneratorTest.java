@@ -0,0 +1,51 @@
+package cli;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import windowing.Dataset;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+
+class DatasetGeneratorTest {
+    @Test
+    public void generateTest() throws IOException {
+        for (DatasetGenerator.Distribution distribution : DatasetGenerator.Distribution.values()) {
+            for (DatasetGenerator.LengthDistribution lengthDistribution : DatasetGenerator.LengthDistribution.values()) {
+                DatasetGenerator generator = new DatasetGenerator(5000, new double[]{-100, 100.5, -50, 50},
+                        distribution, 4, 10, 1, 300, lengthDistribution, 0.25, 7);
+                File file = File.createTempFile("generated", ".txt");
+                try {
+                    try (Writer writer = new FileWriter(file)) {
+                        generator.write(writer);
+                    }
+                    Dataset dataset = Dataset.parse(file);
+                    Assertions.assertEquals(5000, dataset.getSegmentsNumber());
+                    Assertions.assertEquals(100, dataset.getMaxX());
+                    Assertions.assertEquals(5000, dataset.countWindow(new Double[]{-50.0, 50.0, -100.0, 100.0}));
+                    ArrayList<Double[]> vSegments = dataset.getVSortedSegments();
+                    Assertions.assertTrue(vSegments.size() > 1000 && vSegments.size() < 1500);
+                    if (distribution == DatasetGenerator.Distribution.GRID) {
+                        for (Double[] segment : vSegments) {
+                            Assertions.assertTrue(segment[1] % 10 == 0);
+                            Assertions.assertTrue((segment[2] - segment[0]) % 10 == 0);
+                        }
+                    }
+                } finally {
+                    Assertions.assertTrue(file.delete());
+                }
+            }
+        }
+        StringWriter first = new StringWriter();
+        StringWriter second = new StringWriter();
+        new DatasetGenerator(100, new double[]{0, 10, 0, 10}, DatasetGenerator.Distribution.CLUSTERED, 2, 1, 1, 5,
+                DatasetGenerator.LengthDistribution.EXPONENTIAL, 0.5, 3).write(first);
+        new DatasetGenerator(100, new double[]{0, 10, 0, 10}, DatasetGenerator.Distribution.CLUSTERED, 2, 1, 1, 5,
+                DatasetGenerator.LengthDistribution.EXPONENTIAL, 0.5, 3).write(second);
+        Assertions.assertEquals(first.toString(), second.toString());
+    }
+}
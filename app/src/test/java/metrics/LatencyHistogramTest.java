@@ -0,0 +1,55 @@
+package metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class LatencyHistogramTest {
+    @Test
+    public void bucketsTest() {
+        for (long value = 0; value < 100_000; value++) {
+            int index = LatencyHistogram.getIndex(value);
+            Assertions.assertTrue(value <= LatencyHistogram.getUpperBound(index));
+            Assertions.assertTrue(index == 0 || value > LatencyHistogram.getUpperBound(index - 1));
+        }
+        Assertions.assertEquals(Long.MAX_VALUE, LatencyHistogram.getUpperBound(LatencyHistogram.getIndex(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void percentileTest() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                int first = thread;
+                results.add(executor.submit(() -> {
+                    for (long value = first + 1; value <= 100_000; value += 4) {
+                        histogram.record(value * 1000);
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assertions.assertEquals(100_000, histogram.getCount());
+        Assertions.assertEquals(100_000_000, histogram.getMax());
+        Assertions.assertEquals(50_000_500, histogram.getMean(), 1e-6);
+        for (double percentile : new double[]{0.01, 0.5, 0.9, 0.99, 1}) {
+            double expected = percentile * 100_000_000;
+            long actual = histogram.getPercentile(percentile);
+            Assertions.assertTrue(actual >= expected && actual <= expected * 1.125, percentile + ": " + actual);
+        }
+        histogram.reset();
+        Assertions.assertEquals(0, histogram.getCount());
+        Assertions.assertEquals(0, histogram.getPercentile(0.5));
+    }
+}
@@ -0,0 +1,79 @@
+package server;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import windowing.Dataset;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class QueryServerTest {
+    @Test
+    public void concurrentQueriesTest() throws Exception {
+        File file = File.createTempFile("windowing", ".txt");
+        try {
+            try (PrintWriter writer = new PrintWriter(file)) {
+                writer.println("-100.0 100.0 -50.0 50.0");
+                for (int i = 0; i < 100; i++) {
+                    double start = i * 37 % 100 - 50;
+                    writer.println(start + " " + (i - 50) + " " + (start + 50) + " " + (i - 50));
+                    writer.println((i - 50) + " " + (start / 2) + " " + (i - 50) + " " + (start / 2 + 10));
+                }
+            }
+            Dataset dataset = Dataset.parse(file);
+            QueryServer server = new QueryServer(() -> dataset, 0);
+            server.start();
+            ExecutorService clients = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<?>> results = new ArrayList<>();
+                for (int i = 0; i < 40; i++) {
+                    double min_x = i * 4 - 100;
+                    double min_y = i - 50;
+                    results.add(clients.submit(() -> {
+                        String query = "?min_x=" + min_x + "&max_x=" + (min_x + 30) + "&min_y=" + min_y + "&max_y="
+                                + (min_y + 10);
+                        long count = dataset.countWindow(new Double[]{min_y, min_y + 10, min_x, min_x + 30});
+                        Assertions.assertEquals(count + "\n", request(server, "/count" + query, 200));
+                        String[] lines = request(server, "/segments" + query, 200).split("\n");
+                        Assertions.assertEquals(String.valueOf(count), lines[0]);
+                        Assertions.assertEquals(count + 1, lines.length);
+                        return null;
+                    }));
+                }
+                for (Future<?> result : results) {
+                    result.get();
+                }
+                request(server, "/count?min_x=-200&max_x=0&min_y=0&max_y=1", 400);
+                request(server, "/count?min_x=0&max_x=1&min_y=0", 400);
+            } finally {
+                clients.shutdown();
+                server.stop(0);
+            }
+        } finally {
+            Assertions.assertTrue(file.delete());
+        }
+    }
+
+    private String request(QueryServer server, String path, int status) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path)
+                .openConnection();
+        try {
+            Assertions.assertEquals(status, connection.getResponseCode());
+            try (InputStream input = status == 200 ? connection.getInputStream() : connection.getErrorStream()) {
+                return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package tools;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+class SegmentsListTest {
+    @Test
+    public void toArrayTest(){
+        ArrayList<Double[]> arrayList = new ArrayList<>();
+        for (int i = 0; i < 1000; i++){
+            arrayList.add(new Double[]{(double) i, (double) i, (double) i + 1, (double) i});
+        }
+        SegmentsList list = new SegmentsList(arrayList);
+        Assertions.assertEquals(arrayList.size(), list.size());
+        for (int i = 0; i < arrayList.size(); i += 17){
+            Assertions.assertSame(arrayList.get(i), list.get(i));
+        }
+        Assertions.assertArrayEquals(arrayList.toArray(), list.toArray());
+        Assertions.assertNotSame(list.toArray(), list.toArray());
+    }
+
+    @Test
+    public void emptyListTest(){
+        SegmentsList list = new SegmentsList(new ArrayList<>());
+        Assertions.assertEquals(0, list.size());
+        Assertions.assertEquals(0, list.toArray().length);
+    }
+}
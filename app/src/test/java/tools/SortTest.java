@@ -4,18 +4,45 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Random;
 
 class SortTest {
     @Test
-    public void quickSortTest(){
+    public void sortTest(){
         Sort sort = new Sort();
         ArrayList<Double[]> list = createList();
-        sort.quickSort(list, 0, list.size()-1);
+        sort.sort(list, 0, list.size()-1);
         for (int i = 0; i < list.size()-1; i++){
             Assertions.assertTrue(list.get(i)[1] <= list.get(i+1)[1]);
         }
     }
 
+    @Test
+    public void stableSortTest(){
+        Sort sort = new Sort();
+        ArrayList<Double[]> list = new ArrayList<>();
+        Random random = new Random(5);
+        for (int i = 0; i < 100_000; i++){
+            double key = i < 50_000 ? random.nextInt(20) - 10 : i % 2 == 0 ? -0.0 : 0.0;
+            list.add(new Double[]{(double) i, key, (double) i, key});
+        }
+        list.add(new Double[]{-1.0, Double.NEGATIVE_INFINITY, -1.0, Double.NEGATIVE_INFINITY});
+        sort.sort(list);
+        Assertions.assertEquals(Double.NEGATIVE_INFINITY, list.get(0)[1].doubleValue());
+        for (int i = 0; i < list.size()-1; i++){
+            Assertions.assertTrue(list.get(i)[1] <= list.get(i+1)[1]);
+            if (list.get(i)[1].equals(list.get(i+1)[1]) || list.get(i)[1] == 0 && list.get(i+1)[1] == 0){
+                Assertions.assertTrue(list.get(i)[0] < list.get(i+1)[0]);
+            }
+        }
+
+        ArrayList<Double[]> sorted = new ArrayList<>(list);
+        sort.sort(list);
+        for (int i = 0; i < list.size(); i++){
+            Assertions.assertSame(sorted.get(i), list.get(i));
+        }
+    }
+
     private ArrayList<Double[]> createList(){
         ArrayList<Double[]> list = new ArrayList<>();
         Double[] segment1 = new Double[]{167.0, 203.0, -894.0, 203.0};
@@ -0,0 +1,84 @@
+package tree;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+class DynamicPrioritySearchTreeTest {
+    @Test
+    public void insertAndDeleteTest() {
+        Random random = new Random(0);
+        ArrayList<Double[]> segments = new ArrayList<>();
+        DynamicPrioritySearchTree tree = new DynamicPrioritySearchTree();
+        for (int i = 0; i < 2000; i++) {
+            double x = random.nextInt(50);
+            Double[] segment = new Double[]{x, (double) random.nextInt(50), x + random.nextInt(10), 0.0};
+            segment[3] = segment[1];
+            segments.add(segment);
+            tree.insert(segment);
+        }
+        isItABalancedTree(tree.getHead());
+        for (int i = 0; i < 1000; i++) {
+            Double[] segment = segments.remove(random.nextInt(segments.size()));
+            Assertions.assertTrue(tree.delete(new Double[]{segment[0], segment[1], segment[2], segment[3]}));
+        }
+        Assertions.assertFalse(tree.delete(new Double[]{-1.0, -1.0, 0.0, -1.0}));
+        Assertions.assertEquals(segments.size(), tree.getSize());
+        Assertions.assertEquals(segments.size(), isItABalancedTree(tree.getHead()));
+    }
+
+    @Test
+    public void createTreeTest() {
+        ArrayList<Double[]> arrayList = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            arrayList.add(new Double[]{(double) (i * 7 % 13), (double) i, 20.0, (double) i});
+        }
+        DynamicPrioritySearchTree tree = new DynamicPrioritySearchTree(arrayList);
+        Assertions.assertEquals(100, tree.getSize());
+        Assertions.assertEquals(100, isItABalancedTree(tree.getHead()));
+    }
+
+    @Test
+    public void copyTest() {
+        ArrayList<Double[]> arrayList = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            arrayList.add(new Double[]{(double) (i * 7 % 13), (double) i, 20.0, (double) i});
+        }
+        DynamicPrioritySearchTree tree = new DynamicPrioritySearchTree(arrayList);
+        DynamicPrioritySearchTree copy = tree.copy();
+        for (int i = 0; i < 50; i++) {
+            copy.insert(new Double[]{-1.0, i + 0.5, 0.0, i + 0.5});
+            Assertions.assertTrue(copy.delete(new Double[]{(double) (i * 7 % 13), (double) i, 20.0, (double) i}));
+        }
+        Assertions.assertEquals(100, copy.getSize());
+        Assertions.assertEquals(100, isItABalancedTree(copy.getHead()));
+        Assertions.assertEquals(100, tree.getSize());
+        Assertions.assertEquals(100, isItABalancedTree(tree.getHead()));
+        Assertions.assertEquals(0.0, tree.getHead().getMinStart());
+        Assertions.assertEquals(-1.0, copy.getHead().getMinStart());
+    }
+
+    private int isItABalancedTree(DynamicNode node) {
+        if (node == null) {
+            return 0;
+        }
+        double minStart = node.getSegment()[0];
+        int leftHeight = 0;
+        int rightHeight = 0;
+        if (node.hasLeftChild()) {
+            Assertions.assertTrue(node.getLeftChild().getSegment()[1] <= node.getSegment()[1]);
+            minStart = Math.min(minStart, node.getLeftChild().getMinStart());
+            leftHeight = node.getLeftChild().getHeight();
+        }
+        if (node.hasRightChild()) {
+            Assertions.assertTrue(node.getRightChild().getSegment()[1] >= node.getSegment()[1]);
+            minStart = Math.min(minStart, node.getRightChild().getMinStart());
+            rightHeight = node.getRightChild().getHeight();
+        }
+        Assertions.assertEquals(minStart, node.getMinStart());
+        Assertions.assertTrue(Math.abs(leftHeight - rightHeight) <= 1);
+        return 1 + isItABalancedTree(node.getLeftChild()) + isItABalancedTree(node.getRightChild());
+    }
+}
@@ -3,8 +3,11 @@ package tree;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import tools.SegmentsList;
+import tools.Sort;
 
 import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 class PrioritySearchTreeTest {
     @Test
@@ -15,6 +18,44 @@ class PrioritySearchTreeTest {
         isItATree(tree.getHead());
     }
 
+    @Test
+    public void createTreeFromSortedListTest() {
+        ArrayList<Double[]> arrayList = createList();
+        PrioritySearchTree listTree = new PrioritySearchTree(new SegmentsList(arrayList));
+        PrioritySearchTree tree = new PrioritySearchTree(arrayList);
+        isItATree(tree.getHead());
+        isTheSameTree(listTree.getHead(), tree.getHead());
+    }
+
+    @Test
+    public void createTreeInParallelTest() {
+        Random random = new Random(0);
+        ArrayList<Double[]> arrayList = new ArrayList<>();
+        for (int i = 0; i < 3 * PrioritySearchTree.PARALLEL_THRESHOLD; i++) {
+            double y = random.nextInt(2000) - 1000;
+            double x = random.nextInt(1900) - 1000;
+            arrayList.add(new Double[]{x, y, x + random.nextInt(100), y});
+        }
+        new Sort().sort(arrayList);
+        PrioritySearchTree tree = new PrioritySearchTree(arrayList);
+        PrioritySearchTree parallelTree = new PrioritySearchTree(arrayList, ForkJoinPool.commonPool());
+        isItATree(parallelTree.getHead());
+        isTheSameTree(tree.getHead(), parallelTree.getHead());
+    }
+
+    private void isTheSameTree(Node expected, Node node){
+        Assertions.assertEquals(expected.getSegment(), node.getSegment());
+        Assertions.assertEquals(expected.getMedian(), node.getMedian());
+        Assertions.assertEquals(expected.hasLeftChild(), node.hasLeftChild());
+        Assertions.assertEquals(expected.hasRightChild(), node.hasRightChild());
+        if (node.hasLeftChild()){
+            isTheSameTree(expected.getLeftChild(), node.getLeftChild());
+        }
+        if (node.hasRightChild()){
+            isTheSameTree(expected.getRightChild(), node.getRightChild());
+        }
+    }
+
     private void isItATree(Node node){
         if (node.hasLeftChild()){
             if (node.hasRightChild()){
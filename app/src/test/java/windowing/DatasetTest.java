@@ -0,0 +1,120 @@
+package windowing;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Random;
+
+class DatasetTest {
+    @Test
+    public void parseAndOpenTest() throws IOException {
+        File file = File.createTempFile("windowing", ".txt");
+        File indexFile = new File(file.getPath() + IndexFile.EXTENSION);
+        try {
+            try (PrintWriter writer = new PrintWriter(file)) {
+                writer.println("-100.0 100.0 -50.0 50.0");
+                for (int i = 0; i < 100; i++) {
+                    double start = i * 37 % 100 - 50;
+                    writer.println((start + 50) + " " + (i - 50) + " " + start + " " + (i - 50));
+                    writer.println((i - 50) + " " + (start / 2) + " " + (i - 50) + " " + (start / 2 - 10));
+                }
+            }
+            Dataset dataset = Dataset.read(file);
+            Assertions.assertFalse(dataset.isIndexed());
+            Assertions.assertEquals(200, dataset.getSegmentsNumber());
+            Assertions.assertEquals(-100.0, dataset.getMinX());
+            Assertions.assertEquals(50.0, dataset.getMaxY());
+            dataset.writeIndex(indexFile);
+            Dataset indexedDataset = Dataset.read(file);
+            Assertions.assertTrue(indexedDataset.isIndexed());
+            Assertions.assertEquals(200, indexedDataset.getSegmentsNumber());
+            Double[][] windows = new Double[][]{
+                    {-50.0, 50.0, -100.0, 100.0},
+                    {-10.0, 20.0, -30.0, 5.0},
+                    {0.0, 0.0, 0.0, 0.0}};
+            for (Double[] bounds : windows) {
+                ArrayList<Double[]> segments = dataset.launchWindowing(bounds);
+                for (Double[] segment : segments) {
+                    Assertions.assertTrue(WindowingAlgorithm.isInWindow(segment, bounds));
+                }
+                Assertions.assertEquals(segments.size(), dataset.countWindow(bounds));
+                Assertions.assertEquals(segments.size(), indexedDataset.launchWindowing(bounds).size());
+                Assertions.assertEquals(segments.size(), indexedDataset.countWindow(bounds));
+            }
+            Assertions.assertFalse(dataset.contains(new Double[]{-60.0, 50.0, -100.0, 100.0}));
+            Assertions.assertTrue(file.setLastModified(file.lastModified() - 60_000));
+            Assertions.assertNull(IndexFile.getCachedIndex(file));
+            Assertions.assertFalse(Dataset.read(file).isIndexed());
+        } finally {
+            Assertions.assertTrue(file.delete());
+            Assertions.assertTrue(indexFile.delete());
+        }
+    }
+
+    @Test
+    public void parseOffHeapTest() throws IOException {
+        File file = File.createTempFile("windowing", ".txt");
+        try {
+            try (PrintWriter writer = new PrintWriter(file)) {
+                writer.println("-100.0 100.0 -50.0 50.0");
+                for (int i = 0; i < 1000; i++) {
+                    double start = i * 37 % 100 - 50;
+                    writer.println((start + 50) + " " + (i % 100 - 50) + " " + start + " " + (i % 100 - 50));
+                    writer.println((i % 100 - 50) + " " + (start / 2) + " " + (i % 100 - 50) + " " + (start / 2 - 10));
+                }
+            }
+            Dataset dataset = Dataset.parse(file);
+            Dataset offHeapDataset = Dataset.parse(file, true);
+            Assertions.assertFalse(dataset.isOffHeap());
+            Assertions.assertTrue(offHeapDataset.isOffHeap());
+            Assertions.assertFalse(offHeapDataset.isIndexed());
+            Assertions.assertEquals(2000, offHeapDataset.getSegmentsNumber());
+            Double[][] windows = new Double[][]{
+                    {-50.0, 50.0, -100.0, 100.0},
+                    {-10.0, 20.0, -30.0, 5.0},
+                    {0.0, 0.0, 0.0, 0.0}};
+            for (Double[] bounds : windows) {
+                Assertions.assertEquals(dataset.countWindow(bounds), offHeapDataset.countWindow(bounds));
+                Assertions.assertEquals(dataset.launchWindowing(bounds).size(),
+                        offHeapDataset.launchWindowing(bounds).size());
+            }
+            Dataset updatedDataset = offHeapDataset.insertSegment(0, 0, 10, 0);
+            Assertions.assertEquals(offHeapDataset.countWindow(windows[0]) + 1, updatedDataset.countWindow(windows[0]));
+        } finally {
+            Assertions.assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void batchWindowingTest() throws IOException {
+        Dataset dataset = TestSegments.createDataset(3000, 51, 300);
+        Dataset updatedDataset = dataset.insertSegment(-900.0, 10.0, 900.0, 10.0);
+        TiledDataset tiledDataset = TiledDataset.build(dataset, 4, 4);
+        Random random = new Random(52);
+        Double[][] windows = new Double[200][];
+        for (int i = 0; i < windows.length; i++) {
+            double bottom = random.nextInt(2000) - 1000;
+            double left = random.nextInt(2000) - 1000;
+            windows[i] = new Double[]{bottom, Math.min(1000.0, bottom + random.nextInt(500)), left,
+                    Math.min(1000.0, left + random.nextInt(500))};
+        }
+        isTheSameBatch(dataset, dataset.launchBatchWindowing(windows), windows);
+        isTheSameBatch(updatedDataset, updatedDataset.launchBatchWindowing(windows), windows);
+        isTheSameBatch(dataset, tiledDataset.launchBatchWindowing(windows), windows);
+    }
+
+    private void isTheSameBatch(Dataset dataset, BatchResult result, Double[][] windows) {
+        Assertions.assertEquals(windows.length, result.getWindowsNumber());
+        for (int i = 0; i < windows.length; i++) {
+            ArrayList<Double[]> expected = dataset.launchWindowing(windows[i]);
+            ArrayList<Double[]> segments = result.getSegments(i);
+            expected.sort(TestSegments.ORDER);
+            segments.sort(TestSegments.ORDER);
+            Assertions.assertArrayEquals(expected.toArray(), segments.toArray());
+        }
+    }
+}
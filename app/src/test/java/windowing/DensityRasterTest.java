@@ -0,0 +1,109 @@
+package windowing;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+class DensityRasterTest {
+    @Test
+    public void countsTest() {
+        DensityRaster raster = new DensityRaster(new Double[]{0.0, 10.0, 0.0, 10.0}, 10, 5);
+        raster.accept(0.0, 9.5, 10.0, 9.5);
+        raster.accept(3.5, 0.0, 3.5, 10.0);
+        raster.accept(7.0, 1.0, 2.0, 1.0);
+        raster.accept(-5.0, 5.0, 4.0, 5.0);
+        raster.accept(6.0, 6.0, 6.0, 6.0);
+        Assertions.assertEquals(5, raster.getSegmentsNumber());
+        int[] counts = raster.getCounts();
+        Assertions.assertEquals(50, counts.length);
+        int[][] expected = new int[][]{
+                {1, 1, 1, 2, 1, 1, 1, 1, 1, 1},
+                {0, 0, 0, 1, 0, 0, 0, 0, 0, 0},
+                {1, 1, 1, 2, 1, 0, 1, 0, 0, 0},
+                {0, 0, 0, 1, 0, 0, 0, 0, 0, 0},
+                {0, 0, 1, 2, 1, 1, 1, 1, 0, 0}};
+        for (int row = 0; row < 5; row++) {
+            for (int column = 0; column < 10; column++) {
+                Assertions.assertEquals(expected[row][column], counts[row * 10 + column]);
+            }
+        }
+        int[] pixels = raster.getArgbPixels(0x336699);
+        Assertions.assertEquals(0, pixels[10]);
+        Assertions.assertEquals(0x336699, pixels[0] & 0xFFFFFF);
+        Assertions.assertEquals(255, pixels[3] >>> 24);
+        Assertions.assertTrue(pixels[0] >>> 24 < pixels[3] >>> 24);
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new DensityRaster(new Double[]{0.0, 10.0, 0.0, 10.0}, 0, 5));
+    }
+
+    @Test
+    public void densitySinkTest() {
+        Double[] bounds = new Double[]{0.0, 10.0, 0.0, 10.0};
+        DensitySink sink = new DensitySink(bounds, 10, 10, 2);
+        sink.accept(1.0, 1.0, 2.0, 1.0);
+        sink.accept(3.0, 1.0, 3.0, 5.0);
+        Assertions.assertNull(sink.getRaster());
+        Assertions.assertEquals(2, sink.getSegments().size());
+        sink.accept(4.0, 4.0, 4.0, 4.0);
+        Assertions.assertNull(sink.getSegments());
+        Assertions.assertEquals(3, sink.getRaster().getSegmentsNumber());
+        DensityRaster expected = new DensityRaster(bounds, 10, 10);
+        expected.accept(1.0, 1.0, 2.0, 1.0);
+        expected.accept(3.0, 1.0, 3.0, 5.0);
+        expected.accept(4.0, 4.0, 4.0, 4.0);
+        Assertions.assertArrayEquals(expected.getCounts(), sink.getRaster().getCounts());
+    }
+
+    @Test
+    public void datasetDensityTest() throws IOException {
+        Dataset dataset = TestSegments.createDataset(5000, 31, 500);
+        Double[] bounds = new Double[]{-500.0, 500.0, -200.0, 800.0};
+        DensityRaster raster = new DensityRaster(bounds, 100, 100);
+        dataset.launchWindowing(bounds, raster);
+        Assertions.assertEquals(dataset.countWindow(bounds), raster.getSegmentsNumber());
+        DensityRaster expected = new DensityRaster(bounds, 100, 100);
+        for (Double[] segment : dataset.launchWindowing(bounds)) {
+            expected.accept(segment[0], segment[1], segment[2], segment[3]);
+        }
+        Assertions.assertArrayEquals(expected.getCounts(), raster.getCounts());
+    }
+
+    @Test
+    public void mergeSinksTest() {
+        Double[] bounds = new Double[]{0.0, 10.0, 0.0, 10.0};
+        DensitySink first = new DensitySink(bounds, 10, 10, 2);
+        first.accept(1.0, 1.0, 2.0, 1.0);
+        DensitySink second = new DensitySink(bounds, 10, 10, 2);
+        second.accept(3.0, 1.0, 3.0, 5.0);
+        DensitySink merged = DensitySink.merge(Arrays.asList(first, second));
+        Assertions.assertEquals(2, merged.getSegments().size());
+        DensitySink third = new DensitySink(bounds, 10, 10, 2);
+        third.accept(4.0, 4.0, 4.0, 4.0);
+        third.accept(5.0, 4.0, 6.0, 4.0);
+        third.accept(7.0, 2.0, 7.0, 3.0);
+        merged = DensitySink.merge(Arrays.asList(merged, third));
+        Assertions.assertNull(merged.getSegments());
+        Assertions.assertEquals(5, merged.getRaster().getSegmentsNumber());
+        DensityRaster expected = new DensityRaster(bounds, 10, 10);
+        expected.accept(1.0, 1.0, 2.0, 1.0);
+        expected.accept(3.0, 1.0, 3.0, 5.0);
+        expected.accept(4.0, 4.0, 4.0, 4.0);
+        expected.accept(5.0, 4.0, 6.0, 4.0);
+        expected.accept(7.0, 2.0, 7.0, 3.0);
+        Assertions.assertArrayEquals(expected.getCounts(), merged.getRaster().getCounts());
+    }
+
+    @Test
+    public void parallelDensityTest() throws IOException {
+        Dataset dataset = TestSegments.createDataset(40000, 37, 500);
+        Double[] bounds = new Double[]{-800.0, 800.0, -800.0, 800.0};
+        DensitySink sink = DensitySink.merge(dataset.launchParallelWindowing(bounds,
+                () -> new DensitySink(bounds, 100, 100, 1000)));
+        DensityRaster expected = new DensityRaster(bounds, 100, 100);
+        dataset.launchWindowing(bounds, expected);
+        Assertions.assertEquals(expected.getSegmentsNumber(), sink.getRaster().getSegmentsNumber());
+        Assertions.assertArrayEquals(expected.getCounts(), sink.getRaster().getCounts());
+    }
+}
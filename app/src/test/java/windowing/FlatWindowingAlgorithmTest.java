@@ -0,0 +1,89 @@
+package windowing;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import tools.Sort;
+import tree.BufferPrioritySearchTree;
+import tree.FlatPrioritySearchTree;
+import tree.PrioritySearchTree;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+class FlatWindowingAlgorithmTest {
+    Double[] maxBounds;
+
+    @Test
+    public void launchWindowingTest(){
+        ArrayList<Double[]> hArrayList = TestSegments.createHList();
+        ArrayList<Double[]> vArrayList = TestSegments.createVList();
+        Sort sort = new Sort();
+        sort.sort(hArrayList);
+        sort.sort(vArrayList);
+        PrioritySearchTree hTree = new PrioritySearchTree(hArrayList);
+        PrioritySearchTree vTree = new PrioritySearchTree(vArrayList);
+        FlatPrioritySearchTree hFlatTree = new FlatPrioritySearchTree(hArrayList);
+        FlatPrioritySearchTree vFlatTree = new FlatPrioritySearchTree(vArrayList);
+        maxBounds = new Double[]{-1000.0, 1000.0, -1000.0, 1000.0};
+        Double[] bounds1 = new Double[]{-222.3, 560.0, -600.0, 1000.0};
+        Double[] bounds2 = new Double[]{-252.6, -160.0, 600.0, 1000.0};
+        Double[] bounds3 = new Double[]{722.3, 1000.0, -1000.0, 1000.0};
+        Double[] bounds4 = new Double[]{429.3, 963.0, -1000.0, 500.0};
+        Double[] bounds5 = new Double[]{-1000.0, 1000.0, -1000.0, 1000.0};
+        checkSegments(vTree, hTree, vFlatTree, hFlatTree, bounds1);
+        checkSegments(vTree, hTree, vFlatTree, hFlatTree, bounds2);
+        checkSegments(vTree, hTree, vFlatTree, hFlatTree, bounds3);
+        checkSegments(vTree, hTree, vFlatTree, hFlatTree, bounds4);
+        checkSegments(vTree, hTree, vFlatTree, hFlatTree, bounds5);
+    }
+
+    @Test
+    public void countWindowTest(){
+        ArrayList<Double[]> hArrayList = TestSegments.createList(5000, 41, 300);
+        ArrayList<Double[]> vArrayList = TestSegments.createList(3000, 42, 300);
+        FlatPrioritySearchTree hFlatTree = new FlatPrioritySearchTree(hArrayList);
+        FlatPrioritySearchTree vFlatTree = new FlatPrioritySearchTree(vArrayList);
+        BufferPrioritySearchTree hBufferTree = BufferPrioritySearchTree.allocateDirect(hFlatTree);
+        BufferPrioritySearchTree vBufferTree = BufferPrioritySearchTree.allocateDirect(vFlatTree);
+        maxBounds = new Double[]{-1000.0, 1000.0, -1000.0, 1000.0};
+        Random random = new Random(43);
+        for (int i = 0; i < 100; i++) {
+            double bottom = random.nextInt(2000) - 1000;
+            double left = random.nextInt(2000) - 1000;
+            Double[] bounds = new Double[]{bottom, Math.min(1000.0, bottom + random.nextInt(1000)), left,
+                    Math.min(1000.0, left + random.nextInt(1000))};
+            int expected = new FlatWindowingAlgorithm().launchWindowing(vFlatTree, hFlatTree, bounds, maxBounds)
+                    .size();
+            Assertions.assertEquals(expected, new FlatWindowingAlgorithm().countWindow(vFlatTree, hFlatTree, bounds,
+                    maxBounds));
+            Assertions.assertEquals(expected, new FlatWindowingAlgorithm().countWindow(vBufferTree, hBufferTree,
+                    bounds, maxBounds));
+        }
+        for (int i = 0; i < hFlatTree.getSize(); i++) {
+            Assertions.assertEquals(hFlatTree.getMaxStart(i), hBufferTree.getMaxStart(i));
+            Assertions.assertEquals(hFlatTree.getMinEnd(i), hBufferTree.getMinEnd(i));
+        }
+        Assertions.assertEquals(hFlatTree.getSize(), hFlatTree.getSubtreeSize(0));
+        Assertions.assertEquals(hFlatTree.getSubtreeSize(0) - 1,
+                hFlatTree.getSubtreeSize(1) + hFlatTree.getSubtreeSize(2));
+    }
+
+    @Test
+    public void emptyTreeTest(){
+        FlatPrioritySearchTree emptyTree = new FlatPrioritySearchTree(new ArrayList<>());
+        Assertions.assertEquals(0, emptyTree.getSize());
+        maxBounds = new Double[]{-1000.0, 1000.0, -1000.0, 1000.0};
+        Assertions.assertTrue(new FlatWindowingAlgorithm().launchWindowing(emptyTree, emptyTree, maxBounds, maxBounds)
+                .isEmpty());
+    }
+
+    private void checkSegments(PrioritySearchTree vTree, PrioritySearchTree hTree, FlatPrioritySearchTree vFlatTree,
+                               FlatPrioritySearchTree hFlatTree, Double[] bounds){
+        ArrayList<Double[]> expected = new WindowingAlgorithm().launchWindowing(vTree, hTree, bounds, maxBounds);
+        ArrayList<Double[]> reported = new FlatWindowingAlgorithm().launchWindowing(vFlatTree, hFlatTree, bounds,
+                maxBounds);
+        expected.sort(TestSegments.ORDER);
+        reported.sort(TestSegments.ORDER);
+        Assertions.assertArrayEquals(expected.toArray(), reported.toArray());
+    }
+}
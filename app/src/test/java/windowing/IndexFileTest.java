@@ -0,0 +1,84 @@
+package windowing;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import tree.FlatPrioritySearchTree;
+import tree.ImplicitPrioritySearchTree;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.stream.IntStream;
+
+class IndexFileTest {
+    @Test
+    public void writeAndOpenTest() throws IOException {
+        ArrayList<Double[]> hArrayList = new ArrayList<>();
+        ArrayList<Double[]> vArrayList = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            double start = i * 37 % 100 - 50;
+            hArrayList.add(new Double[]{start, (double) i - 50, start + 50, (double) i - 50});
+            vArrayList.add(new Double[]{(double) i - 50, start / 2, (double) i - 40, start / 2});
+        }
+        FlatPrioritySearchTree hTree = new FlatPrioritySearchTree(hArrayList);
+        FlatPrioritySearchTree vTree = new FlatPrioritySearchTree(vArrayList);
+        File file = File.createTempFile("windowing", IndexFile.EXTENSION);
+        try {
+            IndexFile.write(file, -100.0, 100.0, -50.0, 50.0, vTree, hTree);
+            Assertions.assertTrue(IndexFile.isIndexFile(file));
+            IndexFile index = IndexFile.open(file);
+            Assertions.assertEquals(-100.0, index.getMinX());
+            Assertions.assertEquals(100.0, index.getMaxX());
+            Assertions.assertEquals(-50.0, index.getMinY());
+            Assertions.assertEquals(50.0, index.getMaxY());
+            isTheSameTree(hTree, index.getHTree());
+            isTheSameTree(vTree, index.getVTree());
+        } finally {
+            Assertions.assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void concurrentWriteTest() throws IOException {
+        ArrayList<Double[]> hArrayList = new ArrayList<>();
+        ArrayList<Double[]> vArrayList = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            hArrayList.add(new Double[]{(double) i, (double) i, i + 10.0, (double) i});
+            vArrayList.add(new Double[]{(double) -i, (double) -i, 10.0 - i, (double) -i});
+        }
+        FlatPrioritySearchTree hTree = new FlatPrioritySearchTree(hArrayList);
+        FlatPrioritySearchTree vTree = new FlatPrioritySearchTree(vArrayList);
+        File directory = Files.createTempDirectory("windowing").toFile();
+        File file = new File(directory, "segments.txt" + IndexFile.EXTENSION);
+        try {
+            IntStream.range(0, 4).parallel().forEach(i -> {
+                try {
+                    IndexFile.write(file, -10000.0, 10000.0, -10000.0, 10000.0, vTree, hTree);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            isTheSameTree(hTree, IndexFile.open(file).getHTree());
+            isTheSameTree(vTree, IndexFile.open(file).getVTree());
+            Assertions.assertArrayEquals(new String[]{file.getName()}, directory.list());
+        } finally {
+            Assertions.assertTrue(file.delete());
+            Assertions.assertTrue(directory.delete());
+        }
+    }
+
+    private void isTheSameTree(ImplicitPrioritySearchTree expected, ImplicitPrioritySearchTree tree) {
+        Assertions.assertEquals(expected.getSize(), tree.getSize());
+        for (int i = 0; i < tree.getSize(); i++) {
+            Assertions.assertEquals(expected.getLow(i), tree.getLow(i));
+            Assertions.assertEquals(expected.getKey(i), tree.getKey(i));
+            Assertions.assertEquals(expected.getHigh(i), tree.getHigh(i));
+            Assertions.assertEquals(expected.getMedian(i), tree.getMedian(i));
+            Assertions.assertEquals(expected.getMaxStart(i), tree.getMaxStart(i));
+            Assertions.assertEquals(expected.getMinEnd(i), tree.getMinEnd(i));
+            Assertions.assertEquals(expected.areEdgesNotEqual(i), tree.areEdgesNotEqual(i));
+        }
+    }
+}
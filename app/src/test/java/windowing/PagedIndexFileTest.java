@@ -0,0 +1,113 @@
+package windowing;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import tree.FlatPrioritySearchTree;
+import tree.ImplicitPrioritySearchTree;
+import tree.PagedPrioritySearchTree;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Random;
+
+class PagedIndexFileTest {
+    @Test
+    public void writeAndOpenTest() throws IOException {
+        for (int levelsPerPage : new int[]{1, 3, PagedPrioritySearchTree.DEFAULT_LEVELS_PER_PAGE,
+                PagedPrioritySearchTree.MAX_LEVELS_PER_PAGE}) {
+            for (int size : new int[]{0, 1, 127, 128, 5000}) {
+                FlatPrioritySearchTree hTree = new FlatPrioritySearchTree(TestSegments.createList(size, 1, 100));
+                FlatPrioritySearchTree vTree = new FlatPrioritySearchTree(TestSegments.createList(size / 2, 2, 100));
+                File file = File.createTempFile("windowing", PagedIndexFile.EXTENSION);
+                try {
+                    PagedIndexFile.write(file, -100.0, 100.0, -50.0, 50.0, vTree, hTree, levelsPerPage);
+                    Assertions.assertTrue(PagedIndexFile.isPagedIndexFile(file));
+                    Assertions.assertFalse(IndexFile.isIndexFile(file));
+                    try (PagedIndexFile index = PagedIndexFile.open(file, 0)) {
+                        Assertions.assertEquals(-100.0, index.getMinX());
+                        Assertions.assertEquals(50.0, index.getMaxY());
+                        isTheSameTree(hTree, index.getHTree());
+                        isTheSameTree(vTree, index.getVTree());
+                        Assertions.assertEquals(1, index.getCache().getCapacity());
+                    }
+                } finally {
+                    Assertions.assertTrue(file.delete());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void pagedQueryTest() throws IOException {
+        File file = File.createTempFile("windowing", ".txt");
+        File pagedFile = new File(file.getPath() + PagedIndexFile.EXTENSION);
+        try {
+            TestSegments.writeFile(file, 20000, 11, 100);
+            Dataset dataset = Dataset.read(file);
+            dataset.writePagedIndex(pagedFile, 4);
+            try (Dataset pagedDataset = Dataset.read(pagedFile)) {
+                Assertions.assertTrue(pagedDataset.isPaged());
+                Assertions.assertTrue(pagedDataset.isIndexed());
+                Assertions.assertEquals(dataset.getSegmentsNumber(), pagedDataset.getSegmentsNumber());
+                Random random = new Random(12);
+                for (int i = 0; i < 50; i++) {
+                    double bottom = random.nextInt(2000) - 1000;
+                    double left = random.nextInt(2000) - 1000;
+                    Double[] bounds = new Double[]{bottom, Math.min(1000.0, bottom + 100), left,
+                            Math.min(1000.0, left + 100)};
+                    Assertions.assertEquals(dataset.countWindow(bounds), pagedDataset.countWindow(bounds));
+                }
+            }
+            Double[] bounds = new Double[]{-1000.0, 1000.0, -1000.0, 1000.0};
+            Dataset smallCacheDataset = Dataset.openPaged(pagedFile, 1 << 12);
+            Assertions.assertEquals(dataset.getSegmentsNumber(), smallCacheDataset.launchWindowing(bounds).size());
+            smallCacheDataset.close();
+            Assertions.assertThrows(UncheckedIOException.class, () -> smallCacheDataset.launchWindowing(bounds));
+        } finally {
+            Assertions.assertTrue(file.delete());
+            Assertions.assertTrue(pagedFile.delete());
+        }
+    }
+
+    @Test
+    public void pageReadsTest() throws IOException {
+        FlatPrioritySearchTree hTree = new FlatPrioritySearchTree(TestSegments.createList(100000, 3, 100));
+        FlatPrioritySearchTree vTree = new FlatPrioritySearchTree(TestSegments.createList(0, 4, 100));
+        File file = File.createTempFile("windowing", PagedIndexFile.EXTENSION);
+        try {
+            PagedIndexFile.write(file, -1000.0, 1000.0, -1000.0, 1000.0, vTree, hTree,
+                    PagedPrioritySearchTree.DEFAULT_LEVELS_PER_PAGE);
+            try (PagedIndexFile index = PagedIndexFile.open(file, PagedIndexFile.DEFAULT_CACHE_BYTES)) {
+                Double[] bounds = new Double[]{0.0, 1.0, -1000.0, 1000.0};
+                Double[] maxBounds = new Double[]{-1000.0, 1000.0, -1000.0, 1000.0};
+                FlatWindowingAlgorithm algorithm = new FlatWindowingAlgorithm();
+                int reported = algorithm.launchWindowing(index.getVTree(), index.getHTree(), bounds, maxBounds)
+                        .size();
+                Assertions.assertEquals(new FlatWindowingAlgorithm().launchWindowing(vTree, hTree, bounds,
+                        maxBounds).size(), reported);
+                long firstReads = algorithm.getPageReads();
+                Assertions.assertTrue(firstReads > 0);
+                Assertions.assertEquals(firstReads, index.getCache().getMisses());
+                FlatWindowingAlgorithm cachedAlgorithm = new FlatWindowingAlgorithm();
+                cachedAlgorithm.launchWindowing(index.getVTree(), index.getHTree(), bounds, maxBounds);
+                Assertions.assertEquals(0, cachedAlgorithm.getPageReads());
+            }
+        } finally {
+            Assertions.assertTrue(file.delete());
+        }
+    }
+
+    private void isTheSameTree(ImplicitPrioritySearchTree expected, ImplicitPrioritySearchTree tree) {
+        Assertions.assertEquals(expected.getSize(), tree.getSize());
+        for (int i = 0; i < tree.getSize(); i++) {
+            Assertions.assertEquals(expected.getLow(i), tree.getLow(i));
+            Assertions.assertEquals(expected.getKey(i), tree.getKey(i));
+            Assertions.assertEquals(expected.getHigh(i), tree.getHigh(i));
+            Assertions.assertEquals(expected.getMedian(i), tree.getMedian(i));
+            Assertions.assertEquals(expected.getMaxStart(i), tree.getMaxStart(i));
+            Assertions.assertEquals(expected.getMinEnd(i), tree.getMinEnd(i));
+            Assertions.assertEquals(expected.areEdgesNotEqual(i), tree.areEdgesNotEqual(i));
+        }
+    }
+}
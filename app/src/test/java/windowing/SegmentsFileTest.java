@@ -0,0 +1,76 @@
+package windowing;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+
+class SegmentsFileTest {
+    @Test
+    public void convertTest() throws IOException {
+        File textFile = File.createTempFile("windowing", ".txt");
+        File binaryFile = new File(textFile.getPath() + SegmentsFile.EXTENSION);
+        try {
+            try (PrintWriter writer = new PrintWriter(textFile)) {
+                writer.print("-1000.0 1000.0 -500.5 500.5\n");
+                for (int i = 0; i < 1000; i++) {
+                    writer.printf("%d.0 %d.5 %d.0 %d.5\n", i, -i, i, i);
+                    writer.printf("%d.25 %d.0 %d.75 %d.0\n", i, i, -i, i);
+                }
+            }
+            SegmentsParser parser = SegmentsParser.parse(textFile);
+            Assertions.assertTrue(SegmentsFile.convert(textFile, binaryFile, null));
+            Assertions.assertTrue(SegmentsFile.isSegmentsFile(binaryFile));
+            Assertions.assertFalse(SegmentsFile.isSegmentsFile(textFile));
+            assertEquals(parser, SegmentsFile.read(binaryFile));
+            Assertions.assertFalse(SegmentsFile.convert(textFile, binaryFile, false));
+            assertEquals(parser, SegmentsFile.read(binaryFile));
+
+            Dataset text = Dataset.parse(textFile);
+            Dataset binary = Dataset.read(binaryFile);
+            Assertions.assertEquals(text.getSegmentsNumber(), binary.getSegmentsNumber());
+            Double[] bounds = new Double[]{-10.0, 10.0, -10.0, 10.0};
+            Assertions.assertEquals(text.countWindow(bounds), binary.countWindow(bounds));
+        } finally {
+            Assertions.assertTrue(textFile.delete());
+            Assertions.assertTrue(binaryFile.delete());
+        }
+    }
+
+    @Test
+    public void precisionTest() throws IOException {
+        File textFile = File.createTempFile("windowing", ".txt");
+        File binaryFile = new File(textFile.getPath() + SegmentsFile.EXTENSION);
+        try {
+            try (PrintWriter writer = new PrintWriter(textFile)) {
+                writer.print("-1000.0 1000.0 -500.5 500.5\n0.1 2.0 0.1 3.0\n");
+            }
+            Assertions.assertFalse(SegmentsFile.convert(textFile, binaryFile, null));
+            Assertions.assertEquals(0.1, SegmentsFile.read(binaryFile).getVSegments().get(0)[1].doubleValue());
+            Assertions.assertTrue(SegmentsFile.convert(textFile, binaryFile, true));
+            Assertions.assertEquals((double) 0.1f, SegmentsFile.read(binaryFile).getVSegments().get(0)[1].doubleValue());
+        } finally {
+            Assertions.assertTrue(textFile.delete());
+            Assertions.assertTrue(binaryFile.delete());
+        }
+    }
+
+    private static void assertEquals(SegmentsParser expected, SegmentsFile actual) {
+        Assertions.assertEquals(expected.getMinX(), actual.getMinX());
+        Assertions.assertEquals(expected.getMaxX(), actual.getMaxX());
+        Assertions.assertEquals(expected.getMinY(), actual.getMinY());
+        Assertions.assertEquals(expected.getMaxY(), actual.getMaxY());
+        assertEquals(expected.getVSegments(), actual.getVSegments());
+        assertEquals(expected.getHSegments(), actual.getHSegments());
+    }
+
+    private static void assertEquals(ArrayList<Double[]> expected, ArrayList<Double[]> actual) {
+        Assertions.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assertions.assertArrayEquals(expected.get(i), actual.get(i));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package windowing;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Random;
+
+class SegmentsParserTest {
+    @Test
+    public void parseTest() throws IOException {
+        File file = File.createTempFile("windowing", ".txt");
+        try {
+            ArrayList<Double[]> vSegments = new ArrayList<>();
+            ArrayList<Double[]> hSegments = new ArrayList<>();
+            Random random = new Random(3);
+            String[] formats = new String[]{"%s %s %s %s\n", "  %s\t%s %s  %s\r\n"};
+            try (PrintWriter writer = new PrintWriter(file)) {
+                writer.print("-1000.0 1000.0 -500.5 500.5\n");
+                for (int i = 0; i < 100_000; i++) {
+                    double position = Math.round(random.nextDouble() * 1_000_000) / 1000.0 - 500;
+                    double start = random.nextInt(1000) - 500 + 0.1;
+                    double end = random.nextInt(1000) - 500 + 0.25;
+                    String format = formats[i % formats.length];
+                    if (i % 3 == 0) {
+                        writer.printf(format, position, start, position, end);
+                        vSegments.add(start < end ? new Double[]{start, position, end, position}
+                                : new Double[]{end, position, start, position});
+                    } else {
+                        writer.printf(format, start, position, end, position);
+                        hSegments.add(start < end ? new Double[]{start, position, end, position}
+                                : new Double[]{end, position, start, position});
+                    }
+                }
+                writer.print("-1e2 +2.5E1 100 0.25e2");
+                hSegments.add(new Double[]{-100.0, 25.0, 100.0, 25.0});
+            }
+            SegmentsParser parser = SegmentsParser.parse(file);
+            Assertions.assertEquals(-1000.0, parser.getMinX());
+            Assertions.assertEquals(500.5, parser.getMaxY());
+            Assertions.assertEquals(vSegments.size(), parser.getVSegments().size());
+            Assertions.assertEquals(hSegments.size(), parser.getHSegments().size());
+            for (int i = 0; i < vSegments.size(); i++) {
+                Assertions.assertArrayEquals(vSegments.get(i), parser.getVSegments().get(i));
+            }
+            for (int i = 0; i < hSegments.size(); i++) {
+                Assertions.assertArrayEquals(hSegments.get(i), parser.getHSegments().get(i));
+            }
+            try (PrintWriter writer = new PrintWriter(file)) {
+                writer.print("-1000.0 1000.0 -500.5 500.5\n1 2 3 4\n");
+            }
+            Assertions.assertEquals("Not a segment",
+                    Assertions.assertThrows(IOException.class, () -> SegmentsParser.parse(file)).getMessage());
+            try (PrintWriter writer = new PrintWriter(file)) {
+                writer.print("-1000.0 1000.0 -500.5 500.5\n1 2 x 2\n");
+            }
+            Assertions.assertThrows(IOException.class, () -> SegmentsParser.parse(file));
+        } finally {
+            Assertions.assertTrue(file.delete());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package windowing;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Segments shared by the tests of the windowing package: fixed and random segments lists, random segments files, and
+ * an order in which the segments reported by two searches can be compared whatever the order of the searches.
+ */
+final class TestSegments {
+    /**
+     * The order of the segments on their four coordinates.
+     */
+    static final Comparator<Double[]> ORDER = Comparator.<Double[]>comparingDouble(segment -> segment[0])
+            .thenComparingDouble(segment -> segment[1]).thenComparingDouble(segment -> segment[2])
+            .thenComparingDouble(segment -> segment[3]);
+
+    private TestSegments() {
+    }
+
+    /**
+     * Creates the horizontal segments of the windowing algorithm tests.
+     *
+     * @return the normalized horizontal segments
+     */
+    static ArrayList<Double[]> createHList() {
+        ArrayList<Double[]> list = new ArrayList<>();
+        Double[] segment1 = new Double[]{-454.0, -504.0, -266.0, -504.0};
+        Double[] segment2 = new Double[]{-502.0, -477.0, 414.0, -477.0};
+        Double[] segment3 = new Double[]{-948.0, -258.0, -910.0, -258.0};
+        Double[] segment4 = new Double[]{-97.0, -16.0, 418.0, -16.0};
+        Double[] segment5 = new Double[]{-894.0, 203.0, 167.0, 203.0};
+        Double[] segment6 = new Double[]{-613.0, 574.0, -328.0, 574.0};
+        Double[] segment7 = new Double[]{319.0, 576.0, 320.0, 576.0};
+        Double[] segment8 = new Double[]{-289.0, 701.0, 483.0, 701.0};
+        Double[] segment9 = new Double[]{517.0, 823.0, 791.0, 823.0};
+        Double[] segment10 = new Double[]{-640.0, 873.0, 402.0, 873.0};
+        Double[] segment11 = new Double[]{-594.0, 981.0, -364.0, 981.0};
+        list.add(segment1);
+        list.add(segment2);
+        list.add(segment3);
+        list.add(segment4);
+        list.add(segment5);
+        list.add(segment6);
+        list.add(segment7);
+        list.add(segment8);
+        list.add(segment9);
+        list.add(segment10);
+        list.add(segment11);
+        return list;
+    }
+
+    /**
+     * Creates the vertical segments of the windowing algorithm tests.
+     *
+     * @return the normalized vertical segments
+     */
+    static ArrayList<Double[]> createVList() {
+        ArrayList<Double[]> list = new ArrayList<>();
+        Double[] segment1 = new Double[]{-268.0, -878.0, 69.0, -878.0};
+        Double[] segment2 = new Double[]{-762.0, -787.0, -402.0, -787.0};
+        Double[] segment3 = new Double[]{-624.0, -698.0, 447.0, -698.0};
+        Double[] segment4 = new Double[]{-410.0, -503.0, 235.0, -503.0};
+        Double[] segment5 = new Double[]{249.0, -356.0, 953.0, -356.0};
+        Double[] segment6 = new Double[]{-724.0, -191.0, -601.0, -191.0};
+        Double[] segment7 = new Double[]{-110.0, 313.0, 562.0, 313.0};
+        Double[] segment8 = new Double[]{-700.0, 317.0, 939.0, 317.0};
+        Double[] segment9 = new Double[]{-477.0, 332.0, -396.0, 332.0};
+        Double[] segment10 = new Double[]{-974.0, 733.0, -98.0, 733.0};
+        Double[] segment11 = new Double[]{-319.0, 995.0, 69.0, 995.0};
+        list.add(segment1);
+        list.add(segment2);
+        list.add(segment3);
+        list.add(segment4);
+        list.add(segment5);
+        list.add(segment6);
+        list.add(segment7);
+        list.add(segment8);
+        list.add(segment9);
+        list.add(segment10);
+        list.add(segment11);
+        return list;
+    }
+
+    /**
+     * Creates normalized segments within the window from -1000 to 1000 on both axes, sorted on their key, with keys
+     * spread evenly and random whole ends.
+     *
+     * @param size      the number of segments
+     * @param seed      the seed of the random ends
+     * @param maxLength the maximum length of a segment, excluded
+     * @return the segments, sorted on their key
+     */
+    static ArrayList<Double[]> createList(int size, long seed, int maxLength) {
+        Random random = new Random(seed);
+        ArrayList<Double[]> list = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            double key = Math.floor(-1000.0 + 2000.0 * i / size);
+            double start = random.nextInt(2000) - 1000;
+            double end = Math.min(1000.0, start + random.nextInt(maxLength));
+            list.add(new Double[]{start, key, end, key});
+        }
+        return list;
+    }
+
+    /**
+     * Writes a segments file of the window from -1000 to 1000 on both axes, holding as many horizontal as vertical
+     * segments at random whole positions.
+     *
+     * @param file      the segments file to write
+     * @param size      the number of segments
+     * @param seed      the seed of the random positions
+     * @param maxLength the maximum length of a segment, excluded
+     * @throws IOException if the file cannot be written
+     */
+    static void writeFile(File file, int size, long seed, int maxLength) throws IOException {
+        try (PrintWriter writer = new PrintWriter(file)) {
+            writer.println("-1000.0 1000.0 -1000.0 1000.0");
+            Random random = new Random(seed);
+            for (int i = 0; i < size; i++) {
+                int position = random.nextInt(2001) - 1000;
+                int start = random.nextInt(2001) - 1000;
+                int end = Math.min(1000, start + random.nextInt(maxLength));
+                if (i % 2 == 0) {
+                    writer.println(start + " " + position + " " + end + " " + position);
+                } else {
+                    writer.println(position + " " + start + " " + position + " " + end);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a dataset from a temporary segments file written by writeFile.
+     *
+     * @param size      the number of segments
+     * @param seed      the seed of the random positions
+     * @param maxLength the maximum length of a segment, excluded
+     * @return the dataset
+     * @throws IOException if the temporary file cannot be written or read
+     */
+    static Dataset createDataset(int size, long seed, int maxLength) throws IOException {
+        File file = File.createTempFile("windowing", ".txt");
+        try {
+            writeFile(file, size, seed, maxLength);
+            return Dataset.read(file);
+        } finally {
+            Assertions.assertTrue(file.delete());
+        }
+    }
+}
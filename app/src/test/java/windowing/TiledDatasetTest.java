@@ -0,0 +1,83 @@
+package windowing;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+
+class TiledDatasetTest {
+    @Test
+    public void tiledQueryTest() throws IOException {
+        Dataset dataset = TestSegments.createDataset(3000, 21, 400);
+        Random random = new Random(22);
+        for (int[] grid : new int[][]{{1, 1}, {4, 4}, {7, 3}, {20, 20}}) {
+            TiledDataset tiledDataset = TiledDataset.build(dataset, grid[0], grid[1]);
+            Assertions.assertEquals(dataset.getSegmentsNumber(), tiledDataset.getSegmentsNumber());
+            Assertions.assertEquals(grid[0], tiledDataset.getColumns());
+            Assertions.assertEquals(grid[1], tiledDataset.getRows());
+            isTheSameWindow(dataset, tiledDataset, new Double[]{-1000.0, 1000.0, -1000.0, 1000.0});
+            isTheSameWindow(dataset, tiledDataset, new Double[]{0.0, 0.0, -1000.0, 1000.0});
+            isTheSameWindow(dataset, tiledDataset, new Double[]{-500.0, 500.0, -500.0, -500.0});
+            for (int i = 0; i < 100; i++) {
+                double bottom = random.nextInt(2000) - 1000;
+                double left = random.nextInt(2000) - 1000;
+                Double[] bounds = new Double[]{bottom, Math.min(1000.0, bottom + random.nextInt(600)), left,
+                        Math.min(1000.0, left + random.nextInt(600))};
+                isTheSameWindow(dataset, tiledDataset, bounds);
+            }
+        }
+    }
+
+    @Test
+    public void longSegmentsTest() throws IOException {
+        Dataset dataset = TestSegments.createDataset(2000, 24, 2000);
+        TiledDataset tiledDataset = TiledDataset.build(dataset, 8, 8);
+        Random random = new Random(25);
+        isTheSameWindow(dataset, tiledDataset, new Double[]{900.0, 1000.0, 900.0, 1000.0});
+        isTheSameWindow(dataset, tiledDataset, new Double[]{-1000.0, -900.0, 900.0, 1000.0});
+        for (int i = 0; i < 100; i++) {
+            double bottom = random.nextInt(2000) - 1000;
+            double left = random.nextInt(2000) - 1000;
+            Double[] bounds = new Double[]{bottom, Math.min(1000.0, bottom + random.nextInt(300)), left,
+                    Math.min(1000.0, left + random.nextInt(300))};
+            isTheSameWindow(dataset, tiledDataset, bounds);
+        }
+    }
+
+    @Test
+    public void updateTest() throws IOException {
+        Dataset dataset = TestSegments.createDataset(500, 23, 400);
+        TiledDataset tiledDataset = TiledDataset.build(dataset, 5, 5);
+        Dataset updatedDataset = dataset.insertSegment(-900.0, 100.0, 900.0, 100.0)
+                .insertSegment(200.0, -800.0, 200.0, 0.0);
+        TiledDataset updatedTiledDataset = tiledDataset.insertSegment(-900.0, 100.0, 900.0, 100.0)
+                .insertSegment(200.0, -800.0, 200.0, 0.0);
+        Assertions.assertEquals(dataset.getSegmentsNumber() + 2, updatedTiledDataset.getSegmentsNumber());
+        Double[] bounds = new Double[]{-1000.0, 1000.0, -1000.0, 1000.0};
+        isTheSameWindow(updatedDataset, updatedTiledDataset, bounds);
+        isTheSameWindow(dataset, tiledDataset, bounds);
+        TiledDataset deletedTiledDataset = updatedTiledDataset.deleteSegment(900.0, 100.0, -900.0, 100.0);
+        Assertions.assertNotNull(deletedTiledDataset);
+        isTheSameWindow(updatedDataset.deleteSegment(-900.0, 100.0, 900.0, 100.0), deletedTiledDataset, bounds);
+        Assertions.assertNull(deletedTiledDataset.deleteSegment(-900.0, 100.0, 900.0, 100.0));
+        Assertions.assertNull(tiledDataset.insertSegment(0.0, 0.0, 100.0, 100.0));
+        Assertions.assertNull(tiledDataset.insertSegment(0.0, 0.0, 0.0, 2000.0));
+    }
+
+    private void isTheSameWindow(Dataset dataset, TiledDataset tiledDataset, Double[] bounds) {
+        ArrayList<Double[]> expected = dataset.launchWindowing(bounds);
+        ArrayList<Double[]> segments = tiledDataset.launchWindowing(bounds);
+        expected.sort(TestSegments.ORDER);
+        segments.sort(TestSegments.ORDER);
+        Assertions.assertEquals(expected.size(), segments.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assertions.assertArrayEquals(expected.get(i), segments.get(i));
+        }
+        Assertions.assertEquals(expected.size(), tiledDataset.countWindow(bounds));
+        long[] count = new long[1];
+        tiledDataset.launchWindowing(bounds, (x1, y1, x2, y2) -> count[0]++);
+        Assertions.assertEquals(expected.size(), count[0]);
+    }
+}
@@ -0,0 +1,55 @@
+package windowing;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import tree.PrioritySearchTree;
+
+import java.util.ArrayList;
+
+class WindowCacheTest {
+    private final Double[] maxBounds = new Double[]{-1000.0, 1000.0, -1000.0, 1000.0};
+
+    @Test
+    public void getContainedWindowTest(){
+        PrioritySearchTree hTree = new PrioritySearchTree(TestSegments.createList(2000, 1, 400));
+        PrioritySearchTree vTree = new PrioritySearchTree(TestSegments.createList(2000, 2, 400));
+        WindowCache cache = new WindowCache(WindowCache.DEFAULT_MAX_BYTES);
+        Double[] bounds = new Double[]{-500.0, 500.0, -400.0, 600.0};
+        Assertions.assertNull(cache.get(bounds));
+        cache.put(bounds, new WindowingAlgorithm().launchWindowing(vTree, hTree, bounds, maxBounds));
+        Double[][] windows = new Double[][]{
+                {-500.0, 500.0, -400.0, 600.0},
+                {-100.0, 250.5, 0.0, 17.0},
+                {-500.0, -500.0, -400.0, 600.0},
+                {12.0, 480.0, 599.0, 600.0}};
+        for (Double[] window : windows) {
+            ArrayList<Double[]> cachedSegments = cache.get(window);
+            Assertions.assertNotNull(cachedSegments);
+            ArrayList<Double[]> reportedSegments = new WindowingAlgorithm().launchWindowing(vTree, hTree, window,
+                    maxBounds);
+            cachedSegments.sort(TestSegments.ORDER);
+            reportedSegments.sort(TestSegments.ORDER);
+            Assertions.assertArrayEquals(reportedSegments.toArray(), cachedSegments.toArray());
+        }
+        Assertions.assertNull(cache.get(new Double[]{-600.0, 500.0, -400.0, 600.0}));
+        Assertions.assertEquals(4, cache.size());
+    }
+
+    @Test
+    public void evictionTest(){
+        WindowCache cache = new WindowCache(10 * WindowCache.SEGMENT_BYTES);
+        ArrayList<Double[]> segments = TestSegments.createList(4, 3, 400);
+        cache.put(new Double[]{0.0, 1.0, 0.0, 1.0}, segments);
+        cache.put(new Double[]{2.0, 3.0, 2.0, 3.0}, segments);
+        Assertions.assertNotNull(cache.get(new Double[]{0.0, 1.0, 0.0, 1.0}));
+        cache.put(new Double[]{4.0, 5.0, 4.0, 5.0}, segments);
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertEquals(8 * WindowCache.SEGMENT_BYTES, cache.getBytes());
+        Assertions.assertNull(cache.get(new Double[]{2.0, 3.0, 2.0, 3.0}));
+        cache.put(new Double[]{6.0, 7.0, 6.0, 7.0}, TestSegments.createList(11, 4, 400));
+        Assertions.assertEquals(2, cache.size());
+        cache.clear();
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertEquals(0, cache.getBytes());
+    }
+}
@@ -6,6 +6,7 @@ import tools.SegmentsList;
 import tree.PrioritySearchTree;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Objects;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -15,8 +16,8 @@ class WindowingAlgorithmTest {
 
     @Test
     public void launchWindowingTest(){
-        ArrayList<Double[]> hArrayList = createHList();
-        ArrayList<Double[]> vArrayList = createVList();
+        ArrayList<Double[]> hArrayList = TestSegments.createHList();
+        ArrayList<Double[]> vArrayList = TestSegments.createVList();
         SegmentsList hList = new SegmentsList(hArrayList);
         SegmentsList vList = new SegmentsList(vArrayList);
         PrioritySearchTree hTree = new PrioritySearchTree(hList);
@@ -34,6 +35,105 @@ class WindowingAlgorithmTest {
         checkSegments(vTree, hTree, bounds5);
     }
 
+    @Test
+    public void countWindowTest(){
+        PrioritySearchTree hTree = new PrioritySearchTree(new SegmentsList(TestSegments.createHList()));
+        PrioritySearchTree vTree = new PrioritySearchTree(new SegmentsList(TestSegments.createVList()));
+        maxBounds = new Double[]{-1000.0, 1000.0, -1000.0, 1000.0};
+        Double[][] allBounds = new Double[][]{{-222.3, 560.0, -600.0, 1000.0}, {-252.6, -160.0, 600.0, 1000.0},
+                {722.3, 1000.0, -1000.0, 1000.0}, {429.3, 963.0, -1000.0, 500.0}, {-1000.0, 1000.0, -1000.0, 1000.0}};
+        for (Double[] bounds : allBounds){
+            Assertions.assertEquals(new WindowingAlgorithm().launchWindowing(vTree, hTree, bounds, maxBounds).size(),
+                    new WindowingAlgorithm().countWindow(vTree, hTree, bounds, maxBounds));
+        }
+    }
+
+    @Test
+    public void launchBatchWindowingTest(){
+        PrioritySearchTree hTree = new PrioritySearchTree(new SegmentsList(TestSegments.createHList()));
+        PrioritySearchTree vTree = new PrioritySearchTree(new SegmentsList(TestSegments.createVList()));
+        maxBounds = new Double[]{-1000.0, 1000.0, -1000.0, 1000.0};
+        Double[][] windows = new Double[][]{{-222.3, 560.0, -600.0, 1000.0}, {-252.6, -160.0, 600.0, 1000.0},
+                {722.3, 1000.0, -1000.0, 1000.0}, {429.3, 963.0, -1000.0, 500.0}, {-1000.0, 1000.0, -1000.0, 1000.0},
+                {-1000.0, 0.0, -500.0, 500.0}};
+        BatchResult result = new WindowingAlgorithm().launchBatchWindowing(vTree, hTree, windows, maxBounds);
+        Assertions.assertEquals(windows.length, result.getWindowsNumber());
+        for (int i = 0; i < windows.length; i++){
+            ArrayList<Double[]> expected = new WindowingAlgorithm().launchWindowing(vTree, hTree, windows[i], maxBounds);
+            ArrayList<Double[]> reported = result.getSegments(i);
+            Assertions.assertEquals(expected.size(), result.getCount(i));
+            for (Double[] segment : expected){
+                Assertions.assertTrue(reported.stream().anyMatch(other -> Arrays.equals(segment, other)));
+            }
+        }
+    }
+
+    @Test
+    public void launchWindowingWithSinkTest(){
+        PrioritySearchTree hTree = new PrioritySearchTree(new SegmentsList(TestSegments.createHList()));
+        PrioritySearchTree vTree = new PrioritySearchTree(new SegmentsList(TestSegments.createVList()));
+        maxBounds = new Double[]{-1000.0, 1000.0, -1000.0, 1000.0};
+        Double[] bounds = new Double[]{-222.3, 560.0, -600.0, 1000.0};
+        ArrayList<Double[]> reportedSegments = new WindowingAlgorithm().launchWindowing(vTree, hTree, bounds, maxBounds);
+        ArrayList<Double[]> sunkSegments = new ArrayList<>();
+        new WindowingAlgorithm().launchWindowing(vTree, hTree, bounds, maxBounds,
+                (x1, y1, x2, y2) -> sunkSegments.add(new Double[]{x1, y1, x2, y2}));
+        Assertions.assertArrayEquals(reportedSegments.toArray(), sunkSegments.toArray());
+    }
+
+    @Test
+    public void launchParallelWindowingTest(){
+        PrioritySearchTree hTree = new PrioritySearchTree(TestSegments.createList(20000, 1, 200));
+        PrioritySearchTree vTree = new PrioritySearchTree(TestSegments.createList(20000, 2, 200));
+        maxBounds = new Double[]{-1000.0, 1000.0, -1000.0, 1000.0};
+        Double[][] windows = new Double[][]{
+                {-222.3, 560.0, -600.0, 1000.0},
+                {-1000.0, 1000.0, -1000.0, 1000.0},
+                {-1000.0, 12.5, 100.0, 140.0},
+                {-50.0, 1000.0, -1000.0, -900.0}};
+        for (Double[] bounds : windows) {
+            ArrayList<Double[]> reportedSegments = new WindowingAlgorithm().launchWindowing(vTree, hTree, bounds,
+                    maxBounds);
+            ArrayList<Double[]> parallelSegments = new WindowingAlgorithm().launchParallelWindowing(vTree, hTree,
+                    bounds, maxBounds);
+            reportedSegments.sort(TestSegments.ORDER);
+            parallelSegments.sort(TestSegments.ORDER);
+            Assertions.assertArrayEquals(reportedSegments.toArray(), parallelSegments.toArray());
+        }
+    }
+
+    @Test
+    public void launchDeltaWindowingTest(){
+        PrioritySearchTree hTree = new PrioritySearchTree(TestSegments.createList(3000, 3, 200));
+        PrioritySearchTree vTree = new PrioritySearchTree(TestSegments.createList(3000, 4, 200));
+        maxBounds = new Double[]{-1000.0, 1000.0, -1000.0, 1000.0};
+        Double[][] windows = new Double[][]{
+                {-222.3, 560.0, -600.0, 1000.0},
+                {-200.0, 570.0, -610.0, 990.0},
+                {-200.0, 570.0, -610.0, 990.0},
+                {-1000.0, 1000.0, -1000.0, 1000.0},
+                {0.0, 10.0, 0.0, 10.0},
+                {500.0, 600.0, -300.0, -200.0},
+                {550.0, 650.0, -300.0, -200.0}};
+        for (int i = 1; i < windows.length; i++) {
+            Double[] previousBounds = windows[i - 1], bounds = windows[i];
+            WindowDelta delta = new WindowingAlgorithm().launchDeltaWindowing(vTree, hTree, previousBounds, bounds,
+                    maxBounds);
+            ArrayList<Double[]> enteringSegments = new WindowingAlgorithm().launchWindowing(vTree, hTree, bounds,
+                    maxBounds);
+            enteringSegments.removeIf(segment -> WindowingAlgorithm.isInWindow(segment, previousBounds));
+            ArrayList<Double[]> leavingSegments = new WindowingAlgorithm().launchWindowing(vTree, hTree,
+                    previousBounds, maxBounds);
+            leavingSegments.removeIf(segment -> WindowingAlgorithm.isInWindow(segment, bounds));
+            enteringSegments.sort(TestSegments.ORDER);
+            leavingSegments.sort(TestSegments.ORDER);
+            delta.getEnteringSegments().sort(TestSegments.ORDER);
+            delta.getLeavingSegments().sort(TestSegments.ORDER);
+            Assertions.assertArrayEquals(enteringSegments.toArray(), delta.getEnteringSegments().toArray());
+            Assertions.assertArrayEquals(leavingSegments.toArray(), delta.getLeavingSegments().toArray());
+        }
+    }
+
     private void checkSegments(PrioritySearchTree vTree, PrioritySearchTree hTree, Double[] bounds){
         ArrayList<Double[]> reportedSegments = new WindowingAlgorithm().launchWindowing(vTree, hTree, bounds, maxBounds);
         for (Double[] reportedSegment : reportedSegments){
@@ -68,58 +168,4 @@ class WindowingAlgorithmTest {
             }
         }
     }
-
-    private ArrayList<Double[]> createHList(){
-        ArrayList<Double[]> list = new ArrayList<>();
-        Double[] segment1 = new Double[]{-454.0, -504.0, -266.0, -504.0};
-        Double[] segment2 = new Double[]{-502.0, -477.0, 414.0, -477.0};
-        Double[] segment3 = new Double[]{-948.0, -258.0, -910.0, -258.0};
-        Double[] segment4 = new Double[]{-97.0, -16.0, 418.0, -16.0};
-        Double[] segment5 = new Double[]{-894.0, 203.0, 167.0, 203.0};
-        Double[] segment6 = new Double[]{-613.0, 574.0, -328.0, 574.0};
-        Double[] segment7 = new Double[]{319.0, 576.0, 320.0, 576.0};
-        Double[] segment8 = new Double[]{-289.0, 701.0, 483.0, 701.0};
-        Double[] segment9 = new Double[]{517.0, 823.0, 791.0, 823.0};
-        Double[] segment10 = new Double[]{-640.0, 873.0, 402.0, 873.0};
-        Double[] segment11 = new Double[]{-594.0, 981.0, -364.0, 981.0};
-        list.add(segment1);
-        list.add(segment2);
-        list.add(segment3);
-        list.add(segment4);
-        list.add(segment5);
-        list.add(segment6);
-        list.add(segment7);
-        list.add(segment8);
-        list.add(segment9);
-        list.add(segment10);
-        list.add(segment11);
-        return list;
-    }
-
-    private ArrayList<Double[]> createVList(){
-        ArrayList<Double[]> list = new ArrayList<>();
-        Double[] segment1 = new Double[]{-268.0, -878.0, 69.0, -878.0};
-        Double[] segment2 = new Double[]{-762.0, -787.0, -402.0, -787.0};
-        Double[] segment3 = new Double[]{-624.0, -698.0, 447.0, -698.0};
-        Double[] segment4 = new Double[]{-410.0, -503.0, 235.0, -503.0};
-        Double[] segment5 = new Double[]{249.0, -356.0, 953.0, -356.0};
-        Double[] segment6 = new Double[]{-724.0, -191.0, -601.0, -191.0};
-        Double[] segment7 = new Double[]{-110.0, 313.0, 562.0, 313.0};
-        Double[] segment8 = new Double[]{-700.0, 317.0, 939.0, 317.0};
-        Double[] segment9 = new Double[]{-477.0, 332.0, -396.0, 332.0};
-        Double[] segment10 = new Double[]{-974.0, 733.0, -98.0, 733.0};
-        Double[] segment11 = new Double[]{-319.0, 995.0, 69.0, 995.0};
-        list.add(segment1);
-        list.add(segment2);
-        list.add(segment3);
-        list.add(segment4);
-        list.add(segment5);
-        list.add(segment6);
-        list.add(segment7);
-        list.add(segment8);
-        list.add(segment9);
-        list.add(segment10);
-        list.add(segment11);
-        return list;
-    }
 }